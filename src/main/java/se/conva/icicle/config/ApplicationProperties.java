@@ -1,6 +1,13 @@
 package se.conva.icicle.config;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+import se.conva.icicle.repository.UserRepository;
 
 /**
  * Properties specific to Icicle.
@@ -10,7 +17,418 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
  */
 @ConfigurationProperties(prefix = "application", ignoreUnknownFields = false)
 public class ApplicationProperties {
+
+    private final TimeEntryIndex timeEntryIndex = new TimeEntryIndex();
+
+    private final TimeEntryPush timeEntryPush = new TimeEntryPush();
+
+    private final TimeEntryPartitions timeEntryPartitions = new TimeEntryPartitions();
+
+    private final TimeEntryArchive timeEntryArchive = new TimeEntryArchive();
+
+    private final Cache cache = new Cache();
+
+    private final RememberMe rememberMe = new RememberMe();
+
     // jhipster-needle-application-properties-property
+
+    public TimeEntryIndex getTimeEntryIndex() {
+        return timeEntryIndex;
+    }
+
+    public TimeEntryPush getTimeEntryPush() {
+        return timeEntryPush;
+    }
+
+    public TimeEntryPartitions getTimeEntryPartitions() {
+        return timeEntryPartitions;
+    }
+
+    public TimeEntryArchive getTimeEntryArchive() {
+        return timeEntryArchive;
+    }
+
+    public Cache getCache() {
+        return cache;
+    }
+
+    public RememberMe getRememberMe() {
+        return rememberMe;
+    }
+
     // jhipster-needle-application-properties-property-getter
+
+    public static class TimeEntryIndex {
+
+        /**
+         * Whether to keep the minutes worked per user and day in memory. The index is local to each instance and only
+         * sees the writes made through it, so only enable it when running a single instance.
+         */
+        private boolean enabled = false;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+    }
+
+    public static class TimeEntryPush {
+
+        /**
+         * How many events may wait for a slow connection. When more pile up they are dropped, and the client is told to
+         * resync instead.
+         */
+        private int bufferSize = 256;
+
+        /**
+         * How long a connection stays open before the client has to reconnect.
+         */
+        private Duration timeout = Duration.ofMinutes(30);
+
+        /**
+         * How many threads write to the connections. A slow connection holds one of them while its send is pending.
+         */
+        private int threads = 4;
+
+        /**
+         * How long a send may stay pending, because the client does not read, before its connection is dropped.
+         */
+        private Duration sendTimeout = Duration.ofSeconds(10);
+
+        public int getBufferSize() {
+            return bufferSize;
+        }
+
+        public void setBufferSize(int bufferSize) {
+            this.bufferSize = bufferSize;
+        }
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+
+        public int getThreads() {
+            return threads;
+        }
+
+        public void setThreads(int threads) {
+            this.threads = threads;
+        }
+
+        public Duration getSendTimeout() {
+            return sendTimeout;
+        }
+
+        public void setSendTimeout(Duration sendTimeout) {
+            this.sendTimeout = sendTimeout;
+        }
+    }
+
+    public static class TimeEntryPartitions {
+
+        /**
+         * How many months after the current one get their time entry partition created in advance. Entries dated past
+         * the created partitions still land in the default partition, which is slower to query and to split later.
+         */
+        private int monthsAhead = 3;
+
+        public int getMonthsAhead() {
+            return monthsAhead;
+        }
+
+        public void setMonthsAhead(int monthsAhead) {
+            this.monthsAhead = monthsAhead;
+        }
+    }
+
+    public static class TimeEntryArchive {
+
+        /**
+         * The directory of the archived time entry segments. It is read at startup and written by the archival job: when
+         * running more than one instance, it must be shared by all of them.
+         */
+        private String directory = "archive/time-entries";
+
+        /**
+         * How many months before the current one stay in the database. Older months are moved to the archive.
+         */
+        private int hotMonths = 18;
+
+        public String getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(String directory) {
+            this.directory = directory;
+        }
+
+        public int getHotMonths() {
+            return hotMonths;
+        }
+
+        public void setHotMonths(int hotMonths) {
+            this.hotMonths = hotMonths;
+        }
+    }
+
+    public static class Cache {
+
+        /**
+         * Settings of the cache regions, by cache name. Names containing dots, like the entity regions, must be written in
+         * brackets. Regions not listed here, and settings left out, fall back to {@code jhipster.cache.ehcache}.
+         */
+        private final Map<String, Region> regions = new HashMap<>();
+
+        private final Near near = new Near();
+
+        private final WarmUp warmUp = new WarmUp();
+
+        public Map<String, Region> getRegions() {
+            return regions;
+        }
+
+        public Near getNear() {
+            return near;
+        }
+
+        public WarmUp getWarmUp() {
+            return warmUp;
+        }
+
+        public static class Region {
+
+            /**
+             * Maximum number of entries on heap. Ignored when {@link #heapSize} is set.
+             */
+            private Long heapEntries;
+
+            /**
+             * Maximum size of the entries on heap, measured by walking their object graphs.
+             */
+            private DataSize heapSize;
+
+            /**
+             * Size of an off-heap tier below the heap, holding serialized entries outside of the garbage collected
+             * memory. It must be larger than {@link #heapSize}, and fit in {@code -XX:MaxDirectMemorySize}.
+             */
+            private DataSize offHeapSize;
+
+            /**
+             * How long an entry stays after it was written.
+             */
+            private Duration timeToLive;
+
+            /**
+             * How long an entry stays after it was last read. Takes precedence over {@link #timeToLive}.
+             */
+            private Duration timeToIdle;
+
+            public Long getHeapEntries() {
+                return heapEntries;
+            }
+
+            public void setHeapEntries(Long heapEntries) {
+                this.heapEntries = heapEntries;
+            }
+
+            public DataSize getHeapSize() {
+                return heapSize;
+            }
+
+            public void setHeapSize(DataSize heapSize) {
+                this.heapSize = heapSize;
+            }
+
+            public DataSize getOffHeapSize() {
+                return offHeapSize;
+            }
+
+            public void setOffHeapSize(DataSize offHeapSize) {
+                this.offHeapSize = offHeapSize;
+            }
+
+            public Duration getTimeToLive() {
+                return timeToLive;
+            }
+
+            public void setTimeToLive(Duration timeToLive) {
+                this.timeToLive = timeToLive;
+            }
+
+            public Duration getTimeToIdle() {
+                return timeToIdle;
+            }
+
+            public void setTimeToIdle(Duration timeToIdle) {
+                this.timeToIdle = timeToIdle;
+            }
+        }
+
+        public static class Near {
+
+            /**
+             * Whether to keep the hottest entries of some caches in a local Caffeine cache, in front of their region.
+             */
+            private boolean enabled = true;
+
+            /**
+             * The names of the caches read through a near cache. Only caches evicted through the Spring cache manager
+             * stay coherent: entity regions, evicted by Hibernate, must not be listed.
+             */
+            private List<String> caches = new ArrayList<>(
+                List.of(UserRepository.USERS_BY_LOGIN_CACHE, UserRepository.USERS_BY_EMAIL_CACHE)
+            );
+
+            /**
+             * Maximum number of entries of each near cache.
+             */
+            private long maxEntries = 10_000;
+
+            /**
+             * How long an entry stays in a near cache after it was written, bounding how long a value evicted while it
+             * was being read can be served.
+             */
+            private Duration timeToLive = Duration.ofMinutes(1);
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public List<String> getCaches() {
+                return caches;
+            }
+
+            public void setCaches(List<String> caches) {
+                this.caches = caches;
+            }
+
+            public long getMaxEntries() {
+                return maxEntries;
+            }
+
+            public void setMaxEntries(long maxEntries) {
+                this.maxEntries = maxEntries;
+            }
+
+            public Duration getTimeToLive() {
+                return timeToLive;
+            }
+
+            public void setTimeToLive(Duration timeToLive) {
+                this.timeToLive = timeToLive;
+            }
+        }
+
+        public static class WarmUp {
+
+            /**
+             * Whether to preload the caches once the application is ready. The instance is reported out of service to the
+             * readiness probe until the warm-up is over.
+             */
+            private boolean enabled = true;
+
+            /**
+             * How long the warm-up may last before the instance is reported ready anyway.
+             */
+            private Duration timeout = Duration.ofMinutes(2);
+
+            /**
+             * How many days back the users with time entries and the time entries themselves are preloaded.
+             */
+            private int recentDays = 31;
+
+            /**
+             * Maximum number of users preloaded.
+             */
+            private int maxUsers = 1000;
+
+            /**
+             * Maximum number of time entries preloaded.
+             */
+            private int maxTimeEntries = 10_000;
+
+            /**
+             * How many synthetic requests of the preloaded users are replayed afterwards, to get the hot paths compiled.
+             */
+            private int replays = 500;
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public Duration getTimeout() {
+                return timeout;
+            }
+
+            public void setTimeout(Duration timeout) {
+                this.timeout = timeout;
+            }
+
+            public int getRecentDays() {
+                return recentDays;
+            }
+
+            public void setRecentDays(int recentDays) {
+                this.recentDays = recentDays;
+            }
+
+            public int getMaxUsers() {
+                return maxUsers;
+            }
+
+            public void setMaxUsers(int maxUsers) {
+                this.maxUsers = maxUsers;
+            }
+
+            public int getMaxTimeEntries() {
+                return maxTimeEntries;
+            }
+
+            public void setMaxTimeEntries(int maxTimeEntries) {
+                this.maxTimeEntries = maxTimeEntries;
+            }
+
+            public int getReplays() {
+                return replays;
+            }
+
+            public void setReplays(int replays) {
+                this.replays = replays;
+            }
+        }
+    }
+
+    public static class RememberMe {
+
+        /**
+         * Whether auto-logins only rotate the token value right away, leaving the update of the token date, IP address
+         * and user agent to a write-behind flushed every few seconds in JDBC batches. Metadata waiting to be written is
+         * lost if the instance stops abruptly.
+         */
+        private boolean writeBehind = false;
+
+        public boolean isWriteBehind() {
+            return writeBehind;
+        }
+
+        public void setWriteBehind(boolean writeBehind) {
+            this.writeBehind = writeBehind;
+        }
+    }
     // jhipster-needle-application-properties-property-class
 }
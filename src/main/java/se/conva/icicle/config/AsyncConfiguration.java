@@ -21,6 +21,12 @@ import tech.jhipster.async.ExceptionHandlingAsyncTaskExecutor;
 @Profile("!testdev & !testprod")
 public class AsyncConfiguration implements AsyncConfigurer {
 
+    // One drain at most is queued per connection
+    private static final int PUSH_QUEUE_CAPACITY = 10_000;
+
+    // One thread per cache loaded in parallel
+    private static final int WARM_UP_THREADS = 3;
+
     private final Logger log = LoggerFactory.getLogger(AsyncConfiguration.class);
 
     private final TaskExecutionProperties taskExecutionProperties;
@@ -41,6 +47,34 @@ public class AsyncConfiguration implements AsyncConfigurer {
         return new ExceptionHandlingAsyncTaskExecutor(executor);
     }
 
+    /**
+     * The threads writing time entry changes to Server-Sent Events connections. Writes block while a client does not
+     * read, so they are kept off the task executor.
+     */
+    @Bean(name = "timeEntryPushExecutor")
+    public ThreadPoolTaskExecutor timeEntryPushExecutor(ApplicationProperties applicationProperties) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(applicationProperties.getTimeEntryPush().getThreads());
+        executor.setMaxPoolSize(applicationProperties.getTimeEntryPush().getThreads());
+        executor.setQueueCapacity(PUSH_QUEUE_CAPACITY);
+        executor.setThreadNamePrefix("icicle-push-");
+        return executor;
+    }
+
+    /**
+     * The threads preloading the caches once the application is ready, so that the loads run in parallel, and neither
+     * wait for nor hold up the task executor. They go away once the warm-up is over.
+     */
+    @Bean(name = "cacheWarmUpExecutor")
+    public ThreadPoolTaskExecutor cacheWarmUpExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(WARM_UP_THREADS);
+        executor.setMaxPoolSize(WARM_UP_THREADS);
+        executor.setAllowCoreThreadTimeOut(true);
+        executor.setThreadNamePrefix("icicle-warm-up-");
+        return executor;
+    }
+
     @Override
     public AsyncUncaughtExceptionHandler getAsyncUncaughtExceptionHandler() {
         return new SimpleAsyncUncaughtExceptionHandler();
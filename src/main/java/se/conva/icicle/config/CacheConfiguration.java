@@ -1,17 +1,38 @@
 package se.conva.icicle.config;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import java.lang.management.ManagementFactory;
 import java.time.Duration;
+import java.util.Map;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
 import org.ehcache.config.builders.*;
+import org.ehcache.config.units.MemoryUnit;
+import org.ehcache.expiry.ExpiryPolicy;
+import org.ehcache.impl.serialization.PlainJavaSerializer;
 import org.ehcache.jsr107.Eh107Configuration;
 import org.hibernate.cache.jcache.ConfigSettings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.actuate.metrics.cache.CacheMeterBinderProvider;
 import org.springframework.boot.autoconfigure.cache.JCacheManagerCustomizer;
 import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
 import org.springframework.boot.info.BuildProperties;
 import org.springframework.boot.info.GitProperties;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.interceptor.KeyGenerator;
+import org.springframework.cache.jcache.JCacheCache;
 import org.springframework.context.annotation.*;
+import se.conva.icicle.service.CacheWarmUpService;
 import tech.jhipster.config.JHipsterProperties;
 import tech.jhipster.config.cache.PrefixedKeyGenerator;
 
@@ -19,12 +40,17 @@ import tech.jhipster.config.cache.PrefixedKeyGenerator;
 @EnableCaching
 public class CacheConfiguration {
 
+    private final Logger log = LoggerFactory.getLogger(CacheConfiguration.class);
+
     private GitProperties gitProperties;
     private BuildProperties buildProperties;
+    private final JHipsterProperties.Cache.Ehcache ehcache;
+    private final Map<String, ApplicationProperties.Cache.Region> regions;
     private final javax.cache.configuration.Configuration<Object, Object> jcacheConfiguration;
 
-    public CacheConfiguration(JHipsterProperties jHipsterProperties) {
-        JHipsterProperties.Cache.Ehcache ehcache = jHipsterProperties.getCache().getEhcache();
+    public CacheConfiguration(JHipsterProperties jHipsterProperties, ApplicationProperties applicationProperties) {
+        ehcache = jHipsterProperties.getCache().getEhcache();
+        regions = applicationProperties.getCache().getRegions();
 
         jcacheConfiguration =
             Eh107Configuration.fromEhcacheCacheConfiguration(
@@ -35,6 +61,98 @@ public class CacheConfiguration {
             );
     }
 
+    /**
+     * Put near caches in front of the caches configured in {@code application.cache.near}, on the Spring cache manager
+     * only: Hibernate keeps using the JCache regions directly.
+     */
+    @Bean
+    public static BeanPostProcessor nearCacheManagerPostProcessor(ObjectProvider<ApplicationProperties> applicationProperties) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof org.springframework.cache.CacheManager) || bean instanceof NearCacheManager) {
+                    return bean;
+                }
+                ApplicationProperties.Cache.Near near = applicationProperties.getObject().getCache().getNear();
+                return near.isEnabled() ? new NearCacheManager((org.springframework.cache.CacheManager) bean, near) : bean;
+            }
+        };
+    }
+
+    /**
+     * Bind the meters of both levels of the near caches: the near level is tagged with the cache name suffixed by
+     * {@code .near}.
+     */
+    @Bean
+    public CacheMeterBinderProvider<NearCache> nearCacheMeterBinderProvider() {
+        return (cache, tags) ->
+            registry -> {
+                new CaffeineCacheMetrics<>(cache.getNear(), cache.getName() + ".near", tags).bindTo(registry);
+                if (cache.getFar() instanceof JCacheCache) {
+                    new JCacheMetrics<>(((JCacheCache) cache.getFar()).getNativeCache(), tags).bindTo(registry);
+                }
+            };
+    }
+
+    /**
+     * Bind the average latency of the operations of every region, which the JCache meters leave out.
+     */
+    @Bean
+    public MeterBinder cacheLatencyMeterBinder(javax.cache.CacheManager cacheManager) {
+        return registry -> {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            Map<String, String> attributes = Map.of("get", "AverageGetTime", "put", "AveragePutTime", "removal", "AverageRemoveTime");
+            for (String cacheName : cacheManager.getCacheNames()) {
+                ObjectName objectName = statisticsObjectName(cacheManager, cacheName);
+                attributes.forEach((operation, attribute) ->
+                    Gauge
+                        .builder("cache.latency", server, mbeanServer -> averageTime(mbeanServer, objectName, attribute))
+                        .tags("cache", cacheName, "operation", operation)
+                        .baseUnit("microseconds")
+                        .description("The average time of the operations on the cache")
+                        .register(registry)
+                );
+            }
+        };
+    }
+
+    private static ObjectName statisticsObjectName(javax.cache.CacheManager cacheManager, String cacheName) {
+        try {
+            return new ObjectName(
+                "javax.cache:type=CacheStatistics,CacheManager=" +
+                sanitize(cacheManager.getURI().toString()) +
+                ",Cache=" +
+                sanitize(cacheName)
+            );
+        } catch (JMException e) {
+            throw new IllegalArgumentException("Invalid cache name " + cacheName, e);
+        }
+    }
+
+    /**
+     * Escape a name the way the JCache provider does in the names of its MBeans.
+     */
+    private static String sanitize(String name) {
+        return name.replaceAll(",|:|=|\n", ".");
+    }
+
+    private static double averageTime(MBeanServer server, ObjectName objectName, String attribute) {
+        try {
+            return ((Number) server.getAttribute(objectName, attribute)).doubleValue();
+        } catch (JMException e) {
+            return Double.NaN;
+        }
+    }
+
+    /**
+     * Report the instance out of service until the caches are warmed up, through the readiness group.
+     */
+    @Bean
+    public HealthIndicator cacheWarmUpHealthIndicator(CacheWarmUpService cacheWarmUpService) {
+        return () ->
+            cacheWarmUpService.isWarmedUp() ? Health.up().build() : Health.outOfService().withDetail("reason", "warming up").build();
+    }
+
     @Bean
     public HibernatePropertiesCustomizer hibernatePropertiesCustomizer(javax.cache.CacheManager cacheManager) {
         return hibernateProperties -> hibernateProperties.put(ConfigSettings.CACHE_MANAGER, cacheManager);
@@ -49,7 +167,14 @@ public class CacheConfiguration {
             createCache(cm, se.conva.icicle.domain.Authority.class.getName());
             createCache(cm, se.conva.icicle.domain.User.class.getName() + ".authorities");
             createCache(cm, se.conva.icicle.domain.TimeEntry.class.getName());
+            createCache(cm, se.conva.icicle.domain.Task.class.getName());
+            createCache(cm, se.conva.icicle.service.UserTimeEntriesService.TIME_ENTRIES_BY_USER_CACHE);
             // jhipster-needle-ehcache-add-entry
+            regions
+                .keySet()
+                .stream()
+                .filter(cacheName -> cm.getCache(cacheName) == null)
+                .forEach(cacheName -> log.warn("Ignoring the settings of unknown cache region {}", cacheName));
         };
     }
 
@@ -58,8 +183,43 @@ public class CacheConfiguration {
         if (cache != null) {
             cache.clear();
         } else {
-            cm.createCache(cacheName, jcacheConfiguration);
+            ApplicationProperties.Cache.Region region = regions.get(cacheName);
+            cm.createCache(cacheName, region == null ? jcacheConfiguration : jcacheConfiguration(region));
+        }
+        // Registers the statistics MBean the cache meters are read from
+        cm.enableStatistics(cacheName, true);
+    }
+
+    /**
+     * Build the configuration of a region from its settings, falling back to {@code jhipster.cache.ehcache} for the
+     * settings left out.
+     */
+    private javax.cache.configuration.Configuration<Object, Object> jcacheConfiguration(ApplicationProperties.Cache.Region region) {
+        ResourcePoolsBuilder resourcePools = region.getHeapSize() != null
+            ? ResourcePoolsBuilder.newResourcePoolsBuilder().heap(region.getHeapSize().toBytes(), MemoryUnit.B)
+            : ResourcePoolsBuilder.heap(region.getHeapEntries() != null ? region.getHeapEntries() : ehcache.getMaxEntries());
+        if (region.getOffHeapSize() != null) {
+            resourcePools = resourcePools.offheap(region.getOffHeapSize().toBytes(), MemoryUnit.B);
+        }
+
+        ExpiryPolicy<Object, Object> expiry = region.getTimeToIdle() != null
+            ? ExpiryPolicyBuilder.timeToIdleExpiration(region.getTimeToIdle())
+            : ExpiryPolicyBuilder.timeToLiveExpiration(
+                region.getTimeToLive() != null ? region.getTimeToLive() : Duration.ofSeconds(ehcache.getTimeToLiveSeconds())
+            );
+
+        CacheConfigurationBuilder<Object, Object> builder = CacheConfigurationBuilder
+            .newCacheConfigurationBuilder(Object.class, Object.class, resourcePools)
+            .withExpiry(expiry);
+        if (region.getOffHeapSize() != null) {
+            // Off-heap entries are stored serialized, and Ehcache has no default serializer for keys and values typed Object
+            ClassLoader classLoader = CacheConfiguration.class.getClassLoader();
+            builder =
+                builder
+                    .withKeySerializer(new PlainJavaSerializer<>(classLoader))
+                    .withValueSerializer(new PlainJavaSerializer<>(classLoader));
         }
+        return Eh107Configuration.fromEhcacheCacheConfiguration(builder.build());
     }
 
     @Autowired(required = false)
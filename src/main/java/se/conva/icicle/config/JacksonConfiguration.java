@@ -27,10 +27,11 @@ public class JacksonConfiguration {
 
     /*
      * Support for Hibernate types in Jackson.
+     * Lazy associations that are not loaded are written as their identifier, rather than loaded or dropped.
      */
     @Bean
     public Hibernate5Module hibernate5Module() {
-        return new Hibernate5Module();
+        return new Hibernate5Module().enable(Hibernate5Module.Feature.SERIALIZE_IDENTIFIER_FOR_LAZY_NOT_LOADED_OBJECTS);
     }
 
     /*
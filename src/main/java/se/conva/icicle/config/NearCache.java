@@ -0,0 +1,120 @@
+package se.conva.icicle.config;
+
+import java.util.concurrent.Callable;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+/**
+ * A cache answering from a local Caffeine cache in front of another one.
+ * <p>
+ * A hit of the near cache is a single lock-free hash map read, which also returns the very instance cached: values must
+ * not be mutated. Misses go to the far cache and fill the near one. Writes and evictions go to the far cache first, then
+ * to the near one, so that an evicted entry is never read again from this cache; an entry read from the far cache just
+ * before it was evicted can still come back to the near cache, until its time to live there.
+ */
+public class NearCache implements Cache {
+
+    private final Cache far;
+
+    private final com.github.benmanes.caffeine.cache.Cache<Object, ValueWrapper> near;
+
+    public NearCache(Cache far, com.github.benmanes.caffeine.cache.Cache<Object, ValueWrapper> near) {
+        this.far = far;
+        this.near = near;
+    }
+
+    public Cache getFar() {
+        return far;
+    }
+
+    public com.github.benmanes.caffeine.cache.Cache<Object, ValueWrapper> getNear() {
+        return near;
+    }
+
+    @Override
+    public String getName() {
+        return far.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return far.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        ValueWrapper value = near.getIfPresent(key);
+        if (value == null) {
+            value = far.get(key);
+            if (value != null) {
+                near.put(key, value);
+            }
+        }
+        return value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper value = get(key);
+        if (value == null) {
+            return null;
+        }
+        Object cached = value.get();
+        if (cached != null && type != null && !type.isInstance(cached)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + cached);
+        }
+        return (T) cached;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper value = near.getIfPresent(key);
+        if (value != null) {
+            return (T) value.get();
+        }
+        T loaded = far.get(key, valueLoader);
+        near.put(key, new SimpleValueWrapper(loaded));
+        return loaded;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        far.put(key, value);
+        near.put(key, new SimpleValueWrapper(value));
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = far.putIfAbsent(key, value);
+        near.invalidate(key);
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        far.evict(key);
+        near.invalidate(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean evicted = far.evictIfPresent(key);
+        near.invalidate(key);
+        return evicted;
+    }
+
+    @Override
+    public void clear() {
+        far.clear();
+        near.invalidateAll();
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean invalidated = far.invalidate();
+        near.invalidateAll();
+        return invalidated;
+    }
+}
@@ -0,0 +1,54 @@
+package se.conva.icicle.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+/**
+ * A cache manager putting a {@link NearCache} in front of some of the caches of another manager, leaving the others as
+ * they are.
+ */
+public class NearCacheManager implements CacheManager {
+
+    private final CacheManager delegate;
+
+    private final Set<String> nearCacheNames;
+
+    private final Caffeine<Object, Object> caffeine;
+
+    private final ConcurrentMap<String, Cache> nearCaches = new ConcurrentHashMap<>();
+
+    public NearCacheManager(CacheManager delegate, ApplicationProperties.Cache.Near properties) {
+        this.delegate = delegate;
+        this.nearCacheNames = Set.copyOf(properties.getCaches());
+        this.caffeine =
+            Caffeine.newBuilder().maximumSize(properties.getMaxEntries()).expireAfterWrite(properties.getTimeToLive()).recordStats();
+    }
+
+    public CacheManager getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        if (!nearCacheNames.contains(name)) {
+            return delegate.getCache(name);
+        }
+        return nearCaches.computeIfAbsent(
+            name,
+            cacheName -> {
+                Cache far = delegate.getCache(cacheName);
+                return far == null ? null : new NearCache(far, caffeine.build());
+            }
+        );
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return delegate.getCacheNames();
+    }
+}
@@ -1,5 +1,6 @@
 package se.conva.icicle.domain;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import java.io.Serializable;
 import java.time.LocalDate;
 import javax.persistence.*;
@@ -32,13 +33,24 @@ public class TimeEntry implements Serializable {
     @Column(name = "minutes_worked", nullable = false)
     private Integer minutesWorked;
 
-    @NotNull
-    @Column(name = "task_name", nullable = false)
-    private String taskName;
+    /**
+     * The name of {@link #task} as written, not persisted. Writing it does not change the task: it must be interned into a
+     * task. Loaded time entries read it through their task, which the repository fetches with them.
+     */
+    private transient String taskName;
+
+    @JsonIgnore
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "task_id", nullable = false)
+    private Task task;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     private User user;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     // jhipster-needle-entity-add-field - JHipster will add fields here
 
     public Long getId() {
@@ -80,8 +92,9 @@ public class TimeEntry implements Serializable {
         this.minutesWorked = minutesWorked;
     }
 
+    @NotNull
     public String getTaskName() {
-        return this.taskName;
+        return this.taskName != null || this.task == null ? this.taskName : this.task.getName();
     }
 
     public TimeEntry taskName(String taskName) {
@@ -93,6 +106,19 @@ public class TimeEntry implements Serializable {
         this.taskName = taskName;
     }
 
+    public Task getTask() {
+        return this.task;
+    }
+
+    public void setTask(Task task) {
+        this.task = task;
+    }
+
+    public TimeEntry task(Task task) {
+        this.setTask(task);
+        return this;
+    }
+
     public User getUser() {
         return this.user;
     }
@@ -106,6 +132,19 @@ public class TimeEntry implements Serializable {
         return this;
     }
 
+    public Long getVersion() {
+        return this.version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public TimeEntry version(Long version) {
+        this.setVersion(version);
+        return this;
+    }
+
     // jhipster-needle-entity-add-getters-setters - JHipster will add getters and setters here
 
     @Override
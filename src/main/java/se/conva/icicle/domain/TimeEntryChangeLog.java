@@ -0,0 +1,145 @@
+package se.conva.icicle.domain;
+
+import java.io.Serializable;
+import java.time.Instant;
+import javax.persistence.*;
+import javax.validation.constraints.*;
+
+/**
+ * One change of a {@link TimeEntry}, as seen by the user owning it.
+ * <p>
+ * Changes are written with the time entries, and numbered once committed: the {@code sequence} follows the commit order,
+ * so clients sync by asking for the changes after the last one they saw. Deletes, and entries moved to another user,
+ * leave a tombstone ({@code deleted}) for the user who lost the entry.
+ */
+@Entity
+@Table(name = "time_entry_change_log")
+public class TimeEntryChangeLog implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "seq", unique = true)
+    private Long sequence;
+
+    @NotNull
+    @Column(name = "time_entry_id", nullable = false)
+    private Long timeEntryId;
+
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "deleted", nullable = false)
+    private boolean deleted;
+
+    @NotNull
+    @Column(name = "changed_at", nullable = false)
+    private Instant changedAt;
+
+    public Long getId() {
+        return this.id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getSequence() {
+        return this.sequence;
+    }
+
+    public TimeEntryChangeLog sequence(Long sequence) {
+        this.setSequence(sequence);
+        return this;
+    }
+
+    public void setSequence(Long sequence) {
+        this.sequence = sequence;
+    }
+
+    public Long getTimeEntryId() {
+        return this.timeEntryId;
+    }
+
+    public TimeEntryChangeLog timeEntryId(Long timeEntryId) {
+        this.setTimeEntryId(timeEntryId);
+        return this;
+    }
+
+    public void setTimeEntryId(Long timeEntryId) {
+        this.timeEntryId = timeEntryId;
+    }
+
+    public Long getUserId() {
+        return this.userId;
+    }
+
+    public TimeEntryChangeLog userId(Long userId) {
+        this.setUserId(userId);
+        return this;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public boolean isDeleted() {
+        return this.deleted;
+    }
+
+    public TimeEntryChangeLog deleted(boolean deleted) {
+        this.setDeleted(deleted);
+        return this;
+    }
+
+    public void setDeleted(boolean deleted) {
+        this.deleted = deleted;
+    }
+
+    public Instant getChangedAt() {
+        return this.changedAt;
+    }
+
+    public TimeEntryChangeLog changedAt(Instant changedAt) {
+        this.setChangedAt(changedAt);
+        return this;
+    }
+
+    public void setChangedAt(Instant changedAt) {
+        this.changedAt = changedAt;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof TimeEntryChangeLog)) {
+            return false;
+        }
+        return id != null && id.equals(((TimeEntryChangeLog) o).id);
+    }
+
+    @Override
+    public int hashCode() {
+        // see https://vladmihalcea.com/how-to-implement-equals-and-hashcode-using-the-jpa-entity-identifier/
+        return getClass().hashCode();
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "TimeEntryChangeLog{" +
+            "id=" + getId() +
+            ", sequence=" + getSequence() +
+            ", timeEntryId=" + getTimeEntryId() +
+            ", userId=" + getUserId() +
+            ", deleted='" + isDeleted() + "'" +
+            ", changedAt='" + getChangedAt() + "'" +
+            "}";
+    }
+}
@@ -0,0 +1,144 @@
+package se.conva.icicle.domain;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import javax.persistence.*;
+import javax.validation.constraints.*;
+
+/**
+ * The minutes worked and number of {@link TimeEntry time entries} of one user on one task and one day.
+ * <p>
+ * Maintained incrementally as time entries are written, so that summaries read one row per user, task and day
+ * instead of every entry. There is one row per user, task and day.
+ */
+@Entity
+@Table(name = "time_entry_daily_rollup")
+public class TimeEntryDailyRollup implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "user_id")
+    private Long userId;
+
+    @NotNull
+    @Column(name = "date", nullable = false)
+    private LocalDate date;
+
+    @NotNull
+    @Column(name = "task_name", nullable = false)
+    private String taskName;
+
+    @Column(name = "total_minutes", nullable = false)
+    private long totalMinutes;
+
+    @Column(name = "entry_count", nullable = false)
+    private long entryCount;
+
+    public Long getId() {
+        return this.id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getUserId() {
+        return this.userId;
+    }
+
+    public TimeEntryDailyRollup userId(Long userId) {
+        this.setUserId(userId);
+        return this;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public LocalDate getDate() {
+        return this.date;
+    }
+
+    public TimeEntryDailyRollup date(LocalDate date) {
+        this.setDate(date);
+        return this;
+    }
+
+    public void setDate(LocalDate date) {
+        this.date = date;
+    }
+
+    public String getTaskName() {
+        return this.taskName;
+    }
+
+    public TimeEntryDailyRollup taskName(String taskName) {
+        this.setTaskName(taskName);
+        return this;
+    }
+
+    public void setTaskName(String taskName) {
+        this.taskName = taskName;
+    }
+
+    public long getTotalMinutes() {
+        return this.totalMinutes;
+    }
+
+    public TimeEntryDailyRollup totalMinutes(long totalMinutes) {
+        this.setTotalMinutes(totalMinutes);
+        return this;
+    }
+
+    public void setTotalMinutes(long totalMinutes) {
+        this.totalMinutes = totalMinutes;
+    }
+
+    public long getEntryCount() {
+        return this.entryCount;
+    }
+
+    public TimeEntryDailyRollup entryCount(long entryCount) {
+        this.setEntryCount(entryCount);
+        return this;
+    }
+
+    public void setEntryCount(long entryCount) {
+        this.entryCount = entryCount;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof TimeEntryDailyRollup)) {
+            return false;
+        }
+        return id != null && id.equals(((TimeEntryDailyRollup) o).id);
+    }
+
+    @Override
+    public int hashCode() {
+        // see https://vladmihalcea.com/how-to-implement-equals-and-hashcode-using-the-jpa-entity-identifier/
+        return getClass().hashCode();
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "TimeEntryDailyRollup{" +
+            "id=" + getId() +
+            ", userId=" + getUserId() +
+            ", date='" + getDate() + "'" +
+            ", taskName='" + getTaskName() + "'" +
+            ", totalMinutes=" + getTotalMinutes() +
+            ", entryCount=" + getEntryCount() +
+            "}";
+    }
+}
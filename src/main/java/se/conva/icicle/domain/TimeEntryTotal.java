@@ -0,0 +1,68 @@
+package se.conva.icicle.domain;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * The total of the {@link TimeEntry time entries} of one day, optionally per user and per task.
+ * <p>
+ * {@code userId} and {@code taskName} are {@code null} when the total is not broken down by them.
+ */
+public class TimeEntryTotal implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Long userId;
+
+    private final String taskName;
+
+    private final LocalDate date;
+
+    private final long totalMinutes;
+
+    private final long entryCount;
+
+    public TimeEntryTotal(Long userId, String taskName, LocalDate date, long totalMinutes, long entryCount) {
+        this.userId = userId;
+        this.taskName = taskName;
+        this.date = date;
+        this.totalMinutes = totalMinutes;
+        this.entryCount = entryCount;
+    }
+
+    public TimeEntryTotal(Long userId, LocalDate date, long totalMinutes, long entryCount) {
+        this(userId, null, date, totalMinutes, entryCount);
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getTaskName() {
+        return taskName;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public long getTotalMinutes() {
+        return totalMinutes;
+    }
+
+    public long getEntryCount() {
+        return entryCount;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "TimeEntryTotal{" +
+            "userId=" + getUserId() +
+            ", taskName='" + getTaskName() + "'" +
+            ", date='" + getDate() + "'" +
+            ", totalMinutes=" + getTotalMinutes() +
+            ", entryCount=" + getEntryCount() +
+            "}";
+    }
+}
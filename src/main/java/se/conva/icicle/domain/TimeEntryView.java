@@ -0,0 +1,110 @@
+package se.conva.icicle.domain;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import org.hibernate.Hibernate;
+
+/**
+ * A read-only view of a {@link TimeEntry}, carrying only its own columns and the id and login of its user.
+ * <p>
+ * Built directly by JPQL constructor expressions, so it is never managed by the persistence context
+ * and never loads the {@link User} entity.
+ */
+public class TimeEntryView implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Long id;
+
+    private final LocalDate date;
+
+    private final Integer minutesWorked;
+
+    private final String taskName;
+
+    private final Long userId;
+
+    private final String userLogin;
+
+    private final Long version;
+
+    public TimeEntryView(
+        Long id,
+        LocalDate date,
+        Integer minutesWorked,
+        String taskName,
+        Long userId,
+        String userLogin,
+        Long version
+    ) {
+        this.id = id;
+        this.date = date;
+        this.minutesWorked = minutesWorked;
+        this.taskName = taskName;
+        this.userId = userId;
+        this.userLogin = userLogin;
+        this.version = version;
+    }
+
+    /**
+     * Get a view of the current state of a time entry.
+     * <p>
+     * The login of the user is only filled in if the user is already loaded, so that taking a view never hits the database.
+     *
+     * @param timeEntry the time entry.
+     * @return its view.
+     */
+    public static TimeEntryView of(TimeEntry timeEntry) {
+        User user = timeEntry.getUser();
+        return new TimeEntryView(
+            timeEntry.getId(),
+            timeEntry.getDate(),
+            timeEntry.getMinutesWorked(),
+            timeEntry.getTaskName(),
+            user == null ? null : user.getId(),
+            user != null && Hibernate.isInitialized(user) ? user.getLogin() : null,
+            timeEntry.getVersion()
+        );
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public Integer getMinutesWorked() {
+        return minutesWorked;
+    }
+
+    public String getTaskName() {
+        return taskName;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getUserLogin() {
+        return userLogin;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "TimeEntryView{" +
+            "id=" + getId() +
+            ", date='" + getDate() + "'" +
+            ", minutesWorked=" + getMinutesWorked() +
+            ", taskName='" + getTaskName() + "'" +
+            ", userId=" + getUserId() +
+            ", version=" + getVersion() +
+            "}";
+    }
+}
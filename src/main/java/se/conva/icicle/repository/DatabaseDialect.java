@@ -0,0 +1,37 @@
+package se.conva.icicle.repository;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * The database the repositories run on, for the statements written for PostgreSQL with a fallback for H2.
+ */
+@Component
+public class DatabaseDialect {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private volatile Boolean postgresql;
+
+    public DatabaseDialect(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Check whether the database is PostgreSQL. The database is only asked once.
+     *
+     * @return {@code true} on PostgreSQL.
+     */
+    public boolean isPostgresql() {
+        Boolean result = postgresql;
+        if (result == null) {
+            result =
+                jdbcTemplate.execute(
+                    (ConnectionCallback<Boolean>) connection -> "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName())
+                );
+            postgresql = result;
+        }
+        return result;
+    }
+}
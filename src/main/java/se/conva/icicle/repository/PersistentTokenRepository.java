@@ -1,6 +1,5 @@
 package se.conva.icicle.repository;
 
-import java.time.LocalDate;
 import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
 import se.conva.icicle.domain.PersistentToken;
@@ -9,8 +8,7 @@ import se.conva.icicle.domain.User;
 /**
  * Spring Data JPA repository for the {@link PersistentToken} entity.
  */
-public interface PersistentTokenRepository extends JpaRepository<PersistentToken, String> {
+public interface PersistentTokenRepository
+    extends PersistentTokenRepositoryWithPartialUpdates, PersistentTokenRepositoryWithPurge, JpaRepository<PersistentToken, String> {
     List<PersistentToken> findByUser(User user);
-
-    List<PersistentToken> findByTokenDateBefore(LocalDate localDate);
 }
@@ -0,0 +1,27 @@
+package se.conva.icicle.repository;
+
+import java.util.Collection;
+import se.conva.icicle.domain.PersistentToken;
+
+/**
+ * Updates of some columns of {@link PersistentToken} rows, without loading them. Updated tokens are evicted from the
+ * second level cache. Both must run in a transaction.
+ */
+public interface PersistentTokenRepositoryWithPartialUpdates {
+    /**
+     * Set the value of a token, leaving the rest of its row untouched.
+     *
+     * @param series the series of the token.
+     * @param tokenValue the new value.
+     * @return whether the token was found.
+     */
+    boolean updateTokenValue(String series, String tokenValue);
+
+    /**
+     * Set the date, IP address and user agent of tokens, in JDBC batches. Tokens deleted since are skipped.
+     *
+     * @param tokens the tokens, with their new date, IP address and user agent.
+     * @return the number of tokens updated.
+     */
+    int updateAllMetadata(Collection<PersistentToken> tokens);
+}
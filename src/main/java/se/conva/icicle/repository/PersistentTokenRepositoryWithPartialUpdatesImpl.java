@@ -0,0 +1,56 @@
+package se.conva.icicle.repository;
+
+import java.sql.Date;
+import java.util.Collection;
+import javax.persistence.EntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import se.conva.icicle.domain.PersistentToken;
+
+public class PersistentTokenRepositoryWithPartialUpdatesImpl implements PersistentTokenRepositoryWithPartialUpdates {
+
+    private static final String UPDATE_TOKEN_VALUE = "update jhi_persistent_token set token_value = ? where series = ?";
+
+    private static final String UPDATE_METADATA =
+        "update jhi_persistent_token set token_date = ?, ip_address = ?, user_agent = ? where series = ?";
+
+    private static final int BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final EntityManager entityManager;
+
+    public PersistentTokenRepositoryWithPartialUpdatesImpl(JdbcTemplate jdbcTemplate, EntityManager entityManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public boolean updateTokenValue(String series, String tokenValue) {
+        int updated = jdbcTemplate.update(UPDATE_TOKEN_VALUE, tokenValue, series);
+        entityManager.getEntityManagerFactory().getCache().evict(PersistentToken.class, series);
+        return updated > 0;
+    }
+
+    @Override
+    public int updateAllMetadata(Collection<PersistentToken> tokens) {
+        int[][] counts = jdbcTemplate.batchUpdate(
+            UPDATE_METADATA,
+            tokens,
+            BATCH_SIZE,
+            (statement, token) -> {
+                statement.setDate(1, token.getTokenDate() != null ? Date.valueOf(token.getTokenDate()) : null);
+                statement.setString(2, token.getIpAddress());
+                statement.setString(3, token.getUserAgent());
+                statement.setString(4, token.getSeries());
+            }
+        );
+        int updated = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                updated += count;
+            }
+        }
+        tokens.forEach(token -> entityManager.getEntityManagerFactory().getCache().evict(PersistentToken.class, token.getSeries()));
+        return updated;
+    }
+}
@@ -0,0 +1,20 @@
+package se.conva.icicle.repository;
+
+import java.time.LocalDate;
+
+/**
+ * Set-based removal of expired {@link se.conva.icicle.domain.PersistentToken} rows, without loading them.
+ */
+public interface PersistentTokenRepositoryWithPurge {
+    /**
+     * Delete at most a chunk of the tokens last used before a date. Each chunk should run in its own short transaction;
+     * on PostgreSQL, tokens locked by an auto-login are skipped rather than waited for.
+     * <p>
+     * The tokens are evicted from the second level cache.
+     *
+     * @param date the date the tokens were last used before.
+     * @param chunkSize the maximum number of tokens to delete.
+     * @return the number of tokens deleted: fewer than the chunk size once none are left.
+     */
+    int deleteChunkByTokenDateBefore(LocalDate date, int chunkSize);
+}
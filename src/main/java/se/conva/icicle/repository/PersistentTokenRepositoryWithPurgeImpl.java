@@ -0,0 +1,41 @@
+package se.conva.icicle.repository;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import javax.persistence.EntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import se.conva.icicle.domain.PersistentToken;
+
+public class PersistentTokenRepositoryWithPurgeImpl implements PersistentTokenRepositoryWithPurge {
+
+    private static final String DELETE_CHUNK =
+        "delete from jhi_persistent_token where series in" +
+        " (select series from jhi_persistent_token where token_date < ? limit ?)";
+
+    private static final String DELETE_CHUNK_SKIP_LOCKED =
+        "delete from jhi_persistent_token where series in" +
+        " (select series from jhi_persistent_token where token_date < ? limit ? for update skip locked)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final DatabaseDialect databaseDialect;
+
+    private final EntityManager entityManager;
+
+    public PersistentTokenRepositoryWithPurgeImpl(JdbcTemplate jdbcTemplate, DatabaseDialect databaseDialect, EntityManager entityManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.databaseDialect = databaseDialect;
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public int deleteChunkByTokenDateBefore(LocalDate date, int chunkSize) {
+        String statement = databaseDialect.isPostgresql() ? DELETE_CHUNK_SKIP_LOCKED : DELETE_CHUNK;
+        int deleted = jdbcTemplate.update(statement, Date.valueOf(date), chunkSize);
+        if (deleted > 0) {
+            // The deleted series are not known without reading them back: evict them all
+            entityManager.getEntityManagerFactory().getCache().evict(PersistentToken.class);
+        }
+        return deleted;
+    }
+}
@@ -0,0 +1,35 @@
+package se.conva.icicle.repository;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
+import java.util.Optional;
+import java.util.stream.Stream;
+import javax.persistence.QueryHint;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.stereotype.Repository;
+import se.conva.icicle.domain.Task;
+
+/**
+ * Spring Data JPA repository for the {@link Task} entity.
+ */
+@Repository
+public interface TaskRepository extends TaskRepositoryWithSearch, TaskRepositoryWithInterning, JpaRepository<Task, Long> {
+    Optional<Task> findOneByName(String name);
+
+    @QueryHints({ @QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READONLY, value = "true") })
+    @Query("select task.name from Task task")
+    Stream<String> streamAllNames();
+
+    /**
+     * Stream how many time entries each user has on each task. Time entries without a user come with a {@code null} user id.
+     *
+     * @return rows of task name, user id and entry count.
+     */
+    @QueryHints({ @QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READONLY, value = "true") })
+    @Query(
+        "select task.name, user.id, count(timeEntry) from TimeEntry timeEntry join timeEntry.task task left join timeEntry.user user" +
+        " group by task.name, user.id"
+    )
+    Stream<Object[]> streamEntryCountsPerUser();
+}
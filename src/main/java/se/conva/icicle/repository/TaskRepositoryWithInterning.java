@@ -0,0 +1,19 @@
+package se.conva.icicle.repository;
+
+import se.conva.icicle.domain.Task;
+
+/**
+ * Creation of {@link Task tasks} that is safe against concurrent writers of the same name. It must run in a transaction.
+ */
+public interface TaskRepositoryWithInterning {
+    /**
+     * Insert a task unless one with the same name exists already, in a single atomic statement.
+     * <p>
+     * A concurrent transaction inserting the same name blocks the statement until it ends, so that once it returns the
+     * name can be read back in the current transaction either way.
+     *
+     * @param name the task name.
+     * @return whether the task was inserted by the current transaction.
+     */
+    boolean insertIfAbsent(String name);
+}
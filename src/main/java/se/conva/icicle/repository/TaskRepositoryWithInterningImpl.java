@@ -0,0 +1,26 @@
+package se.conva.icicle.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+public class TaskRepositoryWithInterningImpl implements TaskRepositoryWithInterning {
+
+    private static final String INSERT_POSTGRESQL = "insert into task (name) values (?) on conflict (name) do nothing";
+
+    private static final String MERGE =
+        "merge into task t using (select cast(? as varchar(255)) n) s on t.name = s.n" +
+        " when not matched then insert (name) values (s.n)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final DatabaseDialect databaseDialect;
+
+    public TaskRepositoryWithInterningImpl(JdbcTemplate jdbcTemplate, DatabaseDialect databaseDialect) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.databaseDialect = databaseDialect;
+    }
+
+    @Override
+    public boolean insertIfAbsent(String name) {
+        return jdbcTemplate.update(databaseDialect.isPostgresql() ? INSERT_POSTGRESQL : MERGE, name) > 0;
+    }
+}
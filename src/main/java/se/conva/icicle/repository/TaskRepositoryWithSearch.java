@@ -0,0 +1,20 @@
+package se.conva.icicle.repository;
+
+import java.util.List;
+
+public interface TaskRepositoryWithSearch {
+    /**
+     * Search the task names matching a free text query, best match first, using keyset (seek) pagination on the ranking.
+     * <p>
+     * On PostgreSQL, names match if they are similar to the query by trigrams, contain it, or contain all its words, and
+     * are ranked by trigram similarity; the {@code pg_trgm} and full-text indexes of the task table back all three.
+     * Elsewhere names match if they contain the query regardless of case, and are ranked exact match first, then
+     * prefix matches, then shortest. Names of equal rank are ordered by name.
+     *
+     * @param query the free text to search.
+     * @param afterName the last name of the previous page, {@code null} for the first page. It does not need to match.
+     * @param limit the maximum number of names.
+     * @return the matching names ranked after {@code afterName}, best first.
+     */
+    List<String> searchNames(String query, String afterName, int limit);
+}
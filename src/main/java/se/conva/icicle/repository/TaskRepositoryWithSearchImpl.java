@@ -0,0 +1,93 @@
+package se.conva.icicle.repository;
+
+import java.util.List;
+import java.util.Locale;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+public class TaskRepositoryWithSearchImpl implements TaskRepositoryWithSearch {
+
+    private static final String POSTGRESQL_MATCH =
+        "select name from task" +
+        " where (name % ? or name ilike ? escape '\\' or to_tsvector('simple', name) @@ plainto_tsquery('simple', ?))";
+
+    // The name of the previous page is ranked by the same expression, so that it compares equal to its own row
+    private static final String POSTGRESQL_AFTER = " and (-similarity(name, ?), name) > (-similarity(cast(? as text), ?), cast(? as text))";
+
+    private static final String POSTGRESQL_ORDER = " order by similarity(name, ?) desc, name limit ?";
+
+    private static final String FALLBACK_MATCH =
+        "select name from (select name," +
+        " case when lower(name) = ? then 0 when lower(name) like ? escape '\\' then 1 else 2 end r, length(name) l" +
+        " from task where lower(name) like ? escape '\\') t where 1 = 1";
+
+    private static final String FALLBACK_AFTER = " and (r > ? or (r = ? and (l > ? or (l = ? and name > ?))))";
+
+    private static final String FALLBACK_ORDER = " order by r, l, name limit ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final DatabaseDialect databaseDialect;
+
+    public TaskRepositoryWithSearchImpl(JdbcTemplate jdbcTemplate, DatabaseDialect databaseDialect) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.databaseDialect = databaseDialect;
+    }
+
+    @Override
+    public List<String> searchNames(String query, String afterName, int limit) {
+        String escaped = query.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+        if (databaseDialect.isPostgresql()) {
+            if (afterName == null) {
+                return jdbcTemplate.queryForList(
+                    POSTGRESQL_MATCH + POSTGRESQL_ORDER,
+                    String.class,
+                    query,
+                    "%" + escaped + "%",
+                    query,
+                    query,
+                    limit
+                );
+            }
+            return jdbcTemplate.queryForList(
+                POSTGRESQL_MATCH + POSTGRESQL_AFTER + POSTGRESQL_ORDER,
+                String.class,
+                query,
+                "%" + escaped + "%",
+                query,
+                query,
+                afterName,
+                query,
+                afterName,
+                query,
+                limit
+            );
+        }
+        String lower = query.toLowerCase(Locale.ROOT);
+        String lowerEscaped = escaped.toLowerCase(Locale.ROOT);
+        if (afterName == null) {
+            return jdbcTemplate.queryForList(
+                FALLBACK_MATCH + FALLBACK_ORDER,
+                String.class,
+                lower,
+                lowerEscaped + "%",
+                "%" + lowerEscaped + "%",
+                limit
+            );
+        }
+        String afterLower = afterName.toLowerCase(Locale.ROOT);
+        int afterRank = afterLower.equals(lower) ? 0 : afterLower.startsWith(lower) ? 1 : 2;
+        return jdbcTemplate.queryForList(
+            FALLBACK_MATCH + FALLBACK_AFTER + FALLBACK_ORDER,
+            String.class,
+            lower,
+            lowerEscaped + "%",
+            "%" + lowerEscaped + "%",
+            afterRank,
+            afterRank,
+            afterName.length(),
+            afterName.length(),
+            afterName,
+            limit
+        );
+    }
+}
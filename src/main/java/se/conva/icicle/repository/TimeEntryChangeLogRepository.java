@@ -0,0 +1,37 @@
+package se.conva.icicle.repository;
+
+import java.util.List;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.stereotype.Repository;
+import se.conva.icicle.domain.TimeEntryChangeLog;
+
+/**
+ * Spring Data JPA repository for the {@link TimeEntryChangeLog} entity.
+ */
+@Repository
+public interface TimeEntryChangeLogRepository
+    extends
+        TimeEntryChangeLogRepositoryWithBatchInsert,
+        TimeEntryChangeLogRepositoryWithSequencing,
+        JpaRepository<TimeEntryChangeLog, Long> {
+    List<TimeEntryChangeLog> findBySequenceGreaterThanOrderBySequence(Long since, Pageable pageable);
+
+    List<TimeEntryChangeLog> findByUserIdAndSequenceGreaterThanOrderBySequence(Long userId, Long since, Pageable pageable);
+
+    /**
+     * Delete the changes superseded by a later change of the same entry for the same user, as a client syncing
+     * only needs the latest one.
+     *
+     * @return the number of changes deleted.
+     */
+    @Modifying
+    @Query(
+        value = "delete from time_entry_change_log where exists (" +
+        " select 1 from time_entry_change_log later" +
+        " where later.time_entry_id = time_entry_change_log.time_entry_id and later.id > time_entry_change_log.id" +
+        " and (later.user_id = time_entry_change_log.user_id or (later.user_id is null and time_entry_change_log.user_id is null)))",
+        nativeQuery = true
+    )
+    int deleteSuperseded();
+}
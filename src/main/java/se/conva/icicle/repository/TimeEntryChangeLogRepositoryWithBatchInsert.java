@@ -0,0 +1,18 @@
+package se.conva.icicle.repository;
+
+import java.util.List;
+import se.conva.icicle.domain.TimeEntryChangeLog;
+
+/**
+ * Batched writes of {@link TimeEntryChangeLog}, whose identity ids would otherwise disable JDBC batching.
+ */
+public interface TimeEntryChangeLogRepositoryWithBatchInsert {
+    /**
+     * Insert the given changes in JDBC batches, in order, so that their ids follow the same order.
+     * <p>
+     * The changes are written directly, not through the persistence context, and their ids are not read back.
+     *
+     * @param changes the changes to insert.
+     */
+    void insertAll(List<TimeEntryChangeLog> changes);
+}
@@ -0,0 +1,40 @@
+package se.conva.icicle.repository;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.Calendar;
+import java.util.List;
+import java.util.TimeZone;
+import org.springframework.jdbc.core.JdbcTemplate;
+import se.conva.icicle.domain.TimeEntryChangeLog;
+
+public class TimeEntryChangeLogRepositoryWithBatchInsertImpl implements TimeEntryChangeLogRepositoryWithBatchInsert {
+
+    private static final String INSERT =
+        "insert into time_entry_change_log (time_entry_id, user_id, deleted, changed_at) values (?, ?, ?, ?)";
+
+    private static final int BATCH_SIZE = 50;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public TimeEntryChangeLogRepositoryWithBatchInsertImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void insertAll(List<TimeEntryChangeLog> changes) {
+        // Same time zone as hibernate.jdbc.time_zone, so that timestamps read back through JPA are unchanged
+        Calendar utc = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+        jdbcTemplate.batchUpdate(
+            INSERT,
+            changes,
+            BATCH_SIZE,
+            (statement, change) -> {
+                statement.setLong(1, change.getTimeEntryId());
+                statement.setObject(2, change.getUserId(), Types.BIGINT);
+                statement.setBoolean(3, change.isDeleted());
+                statement.setTimestamp(4, Timestamp.from(change.getChangedAt()), utc);
+            }
+        );
+    }
+}
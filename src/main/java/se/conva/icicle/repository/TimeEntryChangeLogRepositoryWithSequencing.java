@@ -0,0 +1,19 @@
+package se.conva.icicle.repository;
+
+import se.conva.icicle.domain.TimeEntryChangeLog;
+
+/**
+ * Numbering of {@link TimeEntryChangeLog} rows in commit order. Must run in a transaction.
+ */
+public interface TimeEntryChangeLogRepositoryWithSequencing {
+    /**
+     * Number the committed changes that have no sequence yet, in the order of their ids, after the last number given.
+     * <p>
+     * One transaction numbers changes at a time, and its numbers only become visible as it commits, so changes are
+     * never numbered below a cursor already handed out. Changes still being written get a number later on.
+     *
+     * @param limit the maximum number of changes to number.
+     * @return the number of changes numbered, {@code 0} if another transaction is numbering changes.
+     */
+    int sequencePending(int limit);
+}
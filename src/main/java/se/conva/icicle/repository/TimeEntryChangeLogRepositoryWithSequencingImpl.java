@@ -0,0 +1,55 @@
+package se.conva.icicle.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+public class TimeEntryChangeLogRepositoryWithSequencingImpl implements TimeEntryChangeLogRepositoryWithSequencing {
+
+    private static final String LOCK_LAST_SEQUENCE = "select last_seq from time_entry_change_log_sequence where id = 1 for update";
+
+    private static final String LOCK_LAST_SEQUENCE_SKIP_LOCKED = LOCK_LAST_SEQUENCE + " skip locked";
+
+    private static final String SELECT_PENDING = "select id from time_entry_change_log where seq is null order by id limit ?";
+
+    private static final String UPDATE_SEQUENCE = "update time_entry_change_log set seq = ? where id = ?";
+
+    private static final String UPDATE_LAST_SEQUENCE = "update time_entry_change_log_sequence set last_seq = ? where id = 1";
+
+    private static final int BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final DatabaseDialect databaseDialect;
+
+    public TimeEntryChangeLogRepositoryWithSequencingImpl(JdbcTemplate jdbcTemplate, DatabaseDialect databaseDialect) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.databaseDialect = databaseDialect;
+    }
+
+    @Override
+    public int sequencePending(int limit) {
+        // The lock is held until commit: changes numbered by the previous holder are committed once it is acquired
+        List<Long> lastSequence = jdbcTemplate.queryForList(
+            databaseDialect.isPostgresql() ? LOCK_LAST_SEQUENCE_SKIP_LOCKED : LOCK_LAST_SEQUENCE,
+            Long.class
+        );
+        if (lastSequence.isEmpty()) {
+            return 0;
+        }
+        List<Long> pendingIds = jdbcTemplate.queryForList(SELECT_PENDING, Long.class, limit);
+        if (pendingIds.isEmpty()) {
+            return 0;
+        }
+        long sequence = lastSequence.get(0);
+        List<Object[]> sequences = new ArrayList<>(pendingIds.size());
+        for (Long id : pendingIds) {
+            sequences.add(new Object[] { ++sequence, id });
+        }
+        for (int from = 0; from < sequences.size(); from += BATCH_SIZE) {
+            jdbcTemplate.batchUpdate(UPDATE_SEQUENCE, sequences.subList(from, Math.min(from + BATCH_SIZE, sequences.size())));
+        }
+        jdbcTemplate.update(UPDATE_LAST_SEQUENCE, sequence);
+        return pendingIds.size();
+    }
+}
@@ -0,0 +1,70 @@
+package se.conva.icicle.repository;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
+import java.time.LocalDate;
+import java.util.stream.Stream;
+import javax.persistence.QueryHint;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import se.conva.icicle.domain.TimeEntryDailyRollup;
+import se.conva.icicle.domain.TimeEntryTotal;
+
+/**
+ * Spring Data JPA repository for the {@link TimeEntryDailyRollup} entity.
+ */
+@Repository
+public interface TimeEntryDailyRollupRepository
+    extends TimeEntryDailyRollupRepositoryWithFilters, TimeEntryDailyRollupRepositoryWithUpserts, JpaRepository<TimeEntryDailyRollup, Long> {
+    @Modifying
+    @Query(value = "delete from time_entry_daily_rollup where date >= :from", nativeQuery = true)
+    int deleteAllFrom(@Param("from") LocalDate from);
+
+    @Modifying
+    @Query(
+        value = "insert into time_entry_daily_rollup (user_id, date, task_name, total_minutes, entry_count)" +
+        " select e.user_id, e.date, t.name, sum(e.minutes_worked), count(*) from time_entry e join task t on t.id = e.task_id" +
+        " where e.date >= :from group by e.user_id, e.date, t.name",
+        nativeQuery = true
+    )
+    int insertAllFromTimeEntriesFrom(@Param("from") LocalDate from);
+
+    /**
+     * Stream the daily totals of every user, across tasks. Time entries without a user are left out.
+     *
+     * @return the daily totals, with no task name.
+     */
+    @QueryHints({ @QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READONLY, value = "true") })
+    @Query(
+        "select new se.conva.icicle.domain.TimeEntryTotal(rollup.userId, rollup.date, sum(rollup.totalMinutes), sum(rollup.entryCount))" +
+        " from TimeEntryDailyRollup rollup where rollup.userId is not null" +
+        " group by rollup.userId, rollup.date having sum(rollup.entryCount) <> 0"
+    )
+    Stream<TimeEntryTotal> streamDailyTotalsPerUser();
+
+    /**
+     * Count the (user, day, task) keys whose rolled-up totals differ from the time entries, in either direction.
+     *
+     * @param from the first day to check: earlier days may include archived entries, which are not in the database.
+     * @return the number of mismatching keys, {@code 0} if the rollup is accurate.
+     */
+    @Query(
+        value = "select count(*) from (" +
+        " (select user_id, date, task_name, cast(sum(total_minutes) as bigint) m, cast(sum(entry_count) as bigint) c from time_entry_daily_rollup" +
+        "  where date >= :from group by user_id, date, task_name having sum(entry_count) <> 0" +
+        "  except" +
+        "  select e.user_id, e.date, t.name, cast(sum(e.minutes_worked) as bigint) m, count(*) c from time_entry e join task t on t.id = e.task_id" +
+        "  where e.date >= :from group by e.user_id, e.date, t.name)" +
+        " union all" +
+        " (select e.user_id, e.date, t.name, cast(sum(e.minutes_worked) as bigint) m, count(*) c from time_entry e join task t on t.id = e.task_id" +
+        "  where e.date >= :from group by e.user_id, e.date, t.name" +
+        "  except" +
+        "  select user_id, date, task_name, cast(sum(total_minutes) as bigint) m, cast(sum(entry_count) as bigint) c from time_entry_daily_rollup" +
+        "  where date >= :from group by user_id, date, task_name having sum(entry_count) <> 0)" +
+        ") mismatches",
+        nativeQuery = true
+    )
+    long countMismatches(@Param("from") LocalDate from);
+}
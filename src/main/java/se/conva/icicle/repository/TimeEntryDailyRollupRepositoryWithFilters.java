@@ -0,0 +1,33 @@
+package se.conva.icicle.repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import se.conva.icicle.domain.TimeEntryDailyRollup;
+import se.conva.icicle.domain.TimeEntryTotal;
+
+/**
+ * Filtered aggregation of {@link TimeEntryDailyRollup}, for summaries whose grouping depends on the client.
+ */
+public interface TimeEntryDailyRollupRepositoryWithFilters {
+    /**
+     * Sum the rolled-up minutes worked matching the given filters, per day and optionally per user and task.
+     * <p>
+     * Every filter is optional and ignored if {@code null}. The aggregation is a single {@code GROUP BY} in the database.
+     *
+     * @param byUser whether to break the totals down by user.
+     * @param byTask whether to break the totals down by task name.
+     * @param userId only sum the minutes of this user.
+     * @param fromDate only sum the minutes on or after this date.
+     * @param toDate only sum the minutes on or before this date.
+     * @param taskName only sum the minutes of this task name.
+     * @return the daily totals, ordered by date.
+     */
+    List<TimeEntryTotal> sumByDay(
+        boolean byUser,
+        boolean byTask,
+        Long userId,
+        LocalDate fromDate,
+        LocalDate toDate,
+        String taskName
+    );
+}
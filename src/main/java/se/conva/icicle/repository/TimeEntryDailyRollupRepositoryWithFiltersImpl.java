@@ -0,0 +1,97 @@
+package se.conva.icicle.repository;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import javax.persistence.EntityManager;
+import javax.persistence.Tuple;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+import se.conva.icicle.domain.TimeEntryDailyRollup;
+import se.conva.icicle.domain.TimeEntryDailyRollup_;
+import se.conva.icicle.domain.TimeEntryTotal;
+
+public class TimeEntryDailyRollupRepositoryWithFiltersImpl implements TimeEntryDailyRollupRepositoryWithFilters {
+
+    private final EntityManager entityManager;
+
+    public TimeEntryDailyRollupRepositoryWithFiltersImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public List<TimeEntryTotal> sumByDay(
+        boolean byUser,
+        boolean byTask,
+        Long userId,
+        LocalDate fromDate,
+        LocalDate toDate,
+        String taskName
+    ) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<TimeEntryDailyRollup> root = query.from(TimeEntryDailyRollup.class);
+        Path<Long> user = root.get(TimeEntryDailyRollup_.userId);
+        Path<String> task = root.get(TimeEntryDailyRollup_.taskName);
+        Path<LocalDate> date = root.get(TimeEntryDailyRollup_.date);
+        Expression<Long> totalMinutes = cb.sum(root.get(TimeEntryDailyRollup_.totalMinutes));
+        Expression<Long> entryCount = cb.sum(root.get(TimeEntryDailyRollup_.entryCount));
+
+        List<Predicate> predicates = new ArrayList<>();
+        if (userId != null) {
+            predicates.add(cb.equal(user, userId));
+        }
+        if (fromDate != null) {
+            predicates.add(cb.greaterThanOrEqualTo(date, fromDate));
+        }
+        if (toDate != null) {
+            predicates.add(cb.lessThanOrEqualTo(date, toDate));
+        }
+        if (taskName != null) {
+            predicates.add(cb.equal(task, taskName));
+        }
+
+        List<Selection<?>> selections = new ArrayList<>();
+        List<Expression<?>> groups = new ArrayList<>();
+        if (byUser) {
+            selections.add(user);
+            groups.add(user);
+        }
+        if (byTask) {
+            selections.add(task);
+            groups.add(task);
+        }
+        selections.add(date);
+        groups.add(date);
+        selections.add(totalMinutes);
+        selections.add(entryCount);
+
+        query
+            .multiselect(selections)
+            .where(predicates.toArray(new Predicate[0]))
+            .groupBy(groups)
+            // Rows of entries that were all deleted sum up to nothing
+            .having(cb.notEqual(entryCount, 0L))
+            .orderBy(cb.asc(date));
+        return entityManager
+            .createQuery(query)
+            .getResultList()
+            .stream()
+            .map(tuple ->
+                new TimeEntryTotal(
+                    byUser ? tuple.get(user) : null,
+                    byTask ? tuple.get(task) : null,
+                    tuple.get(date),
+                    tuple.get(totalMinutes),
+                    tuple.get(entryCount)
+                )
+            )
+            .collect(Collectors.toList());
+    }
+}
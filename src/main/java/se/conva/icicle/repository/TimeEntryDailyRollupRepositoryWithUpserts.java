@@ -0,0 +1,27 @@
+package se.conva.icicle.repository;
+
+import java.util.Collection;
+import se.conva.icicle.domain.TimeEntryDailyRollup;
+import se.conva.icicle.domain.TimeEntryTotal;
+
+/**
+ * Writes of {@link TimeEntryDailyRollup} rows that are safe against concurrent writers of the same user, day and task.
+ * Both must run in a transaction.
+ */
+public interface TimeEntryDailyRollupRepositoryWithUpserts {
+    /**
+     * Add minutes and entries to the rollup rows of their user, day and task, creating the rows that do not exist yet.
+     * <p>
+     * Each row is inserted or updated by a single atomic upsert, so that two transactions writing the same key for the
+     * first time still end up with one row holding both totals.
+     *
+     * @param deltas the minutes and entries to add, negative to remove some, at most one per user, day and task.
+     */
+    void addAll(Collection<TimeEntryTotal> deltas);
+
+    /**
+     * Block the writers of the rollup until the end of the transaction, so that it can be rebuilt without losing their
+     * updates. Reads are not blocked.
+     */
+    void lockForRebuild();
+}
@@ -0,0 +1,88 @@
+package se.conva.icicle.repository;
+
+import java.sql.Date;
+import java.sql.Types;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.springframework.jdbc.core.JdbcTemplate;
+import se.conva.icicle.domain.TimeEntryTotal;
+
+public class TimeEntryDailyRollupRepositoryWithUpsertsImpl implements TimeEntryDailyRollupRepositoryWithUpserts {
+
+    private static final String UPSERT_POSTGRESQL =
+        "insert into time_entry_daily_rollup (user_id, date, task_name, total_minutes, entry_count) values (?, ?, ?, ?, ?)" +
+        " on conflict (user_id, date, task_name) do update set" +
+        " total_minutes = time_entry_daily_rollup.total_minutes + excluded.total_minutes," +
+        " entry_count = time_entry_daily_rollup.entry_count + excluded.entry_count";
+
+    // Rows without a user are unique through a partial index, which ON CONFLICT finds through its predicate
+    private static final String UPSERT_WITHOUT_USER_POSTGRESQL =
+        "insert into time_entry_daily_rollup (user_id, date, task_name, total_minutes, entry_count) values (?, ?, ?, ?, ?)" +
+        " on conflict (date, task_name) where user_id is null do update set" +
+        " total_minutes = time_entry_daily_rollup.total_minutes + excluded.total_minutes," +
+        " entry_count = time_entry_daily_rollup.entry_count + excluded.entry_count";
+
+    private static final String MERGE =
+        "merge into time_entry_daily_rollup r using (select cast(? as bigint) u, cast(? as date) d, cast(? as varchar(255)) t," +
+        " cast(? as bigint) m, cast(? as bigint) c) s" +
+        " on r.user_id is not distinct from s.u and r.date = s.d and r.task_name = s.t" +
+        " when matched then update set total_minutes = r.total_minutes + s.m, entry_count = r.entry_count + s.c" +
+        " when not matched then insert (user_id, date, task_name, total_minutes, entry_count) values (s.u, s.d, s.t, s.m, s.c)";
+
+    private static final String LOCK_POSTGRESQL = "lock table time_entry_daily_rollup in exclusive mode";
+
+    private static final int BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final DatabaseDialect databaseDialect;
+
+    public TimeEntryDailyRollupRepositoryWithUpsertsImpl(JdbcTemplate jdbcTemplate, DatabaseDialect databaseDialect) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.databaseDialect = databaseDialect;
+    }
+
+    @Override
+    public void addAll(Collection<TimeEntryTotal> deltas) {
+        if (!databaseDialect.isPostgresql()) {
+            batchUpdate(MERGE, deltas);
+            return;
+        }
+        Map<Boolean, List<TimeEntryTotal>> byUser = deltas.stream().collect(Collectors.partitioningBy(delta -> delta.getUserId() != null));
+        batchUpdate(UPSERT_POSTGRESQL, byUser.get(true));
+        batchUpdate(UPSERT_WITHOUT_USER_POSTGRESQL, byUser.get(false));
+    }
+
+    @Override
+    public void lockForRebuild() {
+        // H2 locks the rows it writes only, it is not run with concurrent writers anyway
+        if (databaseDialect.isPostgresql()) {
+            jdbcTemplate.execute(LOCK_POSTGRESQL);
+        }
+    }
+
+    private void batchUpdate(String sql, Collection<TimeEntryTotal> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        // A statement may upsert each key once only: the keys of the deltas must be distinct
+        jdbcTemplate.batchUpdate(
+            sql,
+            deltas,
+            BATCH_SIZE,
+            (statement, delta) -> {
+                if (delta.getUserId() != null) {
+                    statement.setLong(1, delta.getUserId());
+                } else {
+                    statement.setNull(1, Types.BIGINT);
+                }
+                statement.setDate(2, Date.valueOf(delta.getDate()));
+                statement.setString(3, delta.getTaskName());
+                statement.setLong(4, delta.getTotalMinutes());
+                statement.setLong(5, delta.getEntryCount());
+            }
+        );
+    }
+}
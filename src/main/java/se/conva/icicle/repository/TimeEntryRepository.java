@@ -1,16 +1,50 @@
 package se.conva.icicle.repository;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import se.conva.icicle.domain.TimeEntry;
+import se.conva.icicle.domain.TimeEntryView;
 
 /**
  * Spring Data JPA repository for the TimeEntry entity.
  */
 @SuppressWarnings("unused")
 @Repository
-public interface TimeEntryRepository extends JpaRepository<TimeEntry, Long> {
-    @Query("select timeEntry from TimeEntry timeEntry where timeEntry.user.login = ?#{principal.username}")
+public interface TimeEntryRepository
+    extends
+        TimeEntryRepositoryWithFilters,
+        TimeEntryRepositoryWithPartitions,
+        TimeEntryRepositoryWithArchival,
+        JpaRepository<TimeEntry, Long> {
+    // The task is fetched with the time entries, which read their task name through it
+    @Override
+    @EntityGraph(attributePaths = "task")
+    Optional<TimeEntry> findById(Long id);
+
+    @Query("select timeEntry from TimeEntry timeEntry join fetch timeEntry.task where timeEntry.user.login = ?#{principal.username}")
     List<TimeEntry> findByUserIsCurrentUser();
+
+    @Query(
+        "select new se.conva.icicle.domain.TimeEntryView(timeEntry.id, timeEntry.date, timeEntry.minutesWorked, task.name," +
+        " user.id, user.login, timeEntry.version) from TimeEntry timeEntry join timeEntry.task task left join timeEntry.user user where timeEntry.id = :id"
+    )
+    Optional<TimeEntryView> findViewById(@Param("id") Long id);
+
+    @Query(
+        "select new se.conva.icicle.domain.TimeEntryView(timeEntry.id, timeEntry.date, timeEntry.minutesWorked, task.name," +
+        " user.id, user.login, timeEntry.version) from TimeEntry timeEntry join timeEntry.task task left join timeEntry.user user where timeEntry.id in :ids"
+    )
+    List<TimeEntryView> findViewsByIdIn(@Param("ids") Collection<Long> ids);
+
+    long countByIdIn(Collection<Long> ids);
+
+    @EntityGraph(attributePaths = "task")
+    Slice<TimeEntry> findAllByDateGreaterThanEqual(LocalDate from, Pageable pageable);
 }
@@ -0,0 +1,45 @@
+package se.conva.icicle.repository;
+
+import java.util.Iterator;
+import java.util.List;
+import se.conva.icicle.domain.TimeEntryView;
+
+/**
+ * Removal of {@link se.conva.icicle.domain.TimeEntry} rows once they are archived, and the manifest of the segment files
+ * they are archived into.
+ * <p>
+ * A segment file only exists as far as readers are concerned once listed in the manifest, which is written in the
+ * transaction deleting its entries: a file left behind by a transaction that did not commit is never read.
+ */
+public interface TimeEntryRepositoryWithArchival {
+    /**
+     * Delete time entries, each only if it is still at the version of its view.
+     * <p>
+     * Deleted entries are evicted from the second level cache.
+     *
+     * @param timeEntries the views of the entries, as archived.
+     * @return the number of entries deleted: fewer than given if some changed since their view was taken.
+     */
+    int deleteAllUnchanged(Iterator<TimeEntryView> timeEntries);
+
+    /**
+     * Block the other archivers until the end of the transaction, so that one instance archives at a time. Readers of
+     * the manifest are not blocked.
+     */
+    void lockArchive();
+
+    /**
+     * List a segment file in the manifest.
+     *
+     * @param fileName the name of the file in the archive directory.
+     * @param rowCount the number of entries in the file.
+     */
+    void insertSegment(String fileName, int rowCount);
+
+    /**
+     * Get the segment files listed in the manifest.
+     *
+     * @return the names of the files in the archive directory.
+     */
+    List<String> findAllSegmentFileNames();
+}
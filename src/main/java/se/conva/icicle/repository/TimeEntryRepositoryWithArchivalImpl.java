@@ -0,0 +1,91 @@
+package se.conva.icicle.repository;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import javax.persistence.EntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import se.conva.icicle.domain.TimeEntry;
+import se.conva.icicle.domain.TimeEntryView;
+
+public class TimeEntryRepositoryWithArchivalImpl implements TimeEntryRepositoryWithArchival {
+
+    // The date lets PostgreSQL go straight to the partition of the entry
+    private static final String DELETE = "delete from time_entry where id = ? and date = ? and version = ?";
+
+    private static final String LOCK_POSTGRESQL = "lock table time_entry_segment in exclusive mode";
+
+    private static final String INSERT_SEGMENT = "insert into time_entry_segment (file_name, row_count, created_date) values (?, ?, ?)";
+
+    private static final String SELECT_SEGMENTS = "select file_name from time_entry_segment order by id";
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final DatabaseDialect databaseDialect;
+
+    private final EntityManager entityManager;
+
+    public TimeEntryRepositoryWithArchivalImpl(JdbcTemplate jdbcTemplate, DatabaseDialect databaseDialect, EntityManager entityManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.databaseDialect = databaseDialect;
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public int deleteAllUnchanged(Iterator<TimeEntryView> timeEntries) {
+        int deleted = 0;
+        List<TimeEntryView> batch = new ArrayList<>(BATCH_SIZE);
+        while (timeEntries.hasNext()) {
+            batch.add(timeEntries.next());
+            if (batch.size() == BATCH_SIZE || !timeEntries.hasNext()) {
+                deleted += deleteBatch(batch);
+                batch.clear();
+            }
+        }
+        return deleted;
+    }
+
+    @Override
+    public void lockArchive() {
+        // H2 locks the rows it writes only, it is not run by several instances anyway
+        if (databaseDialect.isPostgresql()) {
+            jdbcTemplate.execute(LOCK_POSTGRESQL);
+        }
+    }
+
+    @Override
+    public void insertSegment(String fileName, int rowCount) {
+        jdbcTemplate.update(INSERT_SEGMENT, fileName, rowCount, Timestamp.from(Instant.now()));
+    }
+
+    @Override
+    public List<String> findAllSegmentFileNames() {
+        return jdbcTemplate.queryForList(SELECT_SEGMENTS, String.class);
+    }
+
+    private int deleteBatch(List<TimeEntryView> timeEntries) {
+        int[][] counts = jdbcTemplate.batchUpdate(
+            DELETE,
+            timeEntries,
+            BATCH_SIZE,
+            (statement, timeEntry) -> {
+                statement.setLong(1, timeEntry.getId());
+                statement.setDate(2, Date.valueOf(timeEntry.getDate()));
+                statement.setLong(3, timeEntry.getVersion());
+            }
+        );
+        int deleted = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                deleted += count;
+            }
+        }
+        timeEntries.forEach(timeEntry -> entityManager.getEntityManagerFactory().getCache().evict(TimeEntry.class, timeEntry.getId()));
+        return deleted;
+    }
+}
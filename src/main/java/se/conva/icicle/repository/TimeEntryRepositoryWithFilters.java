@@ -0,0 +1,92 @@
+package se.conva.icicle.repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import se.conva.icicle.domain.TimeEntry;
+import se.conva.icicle.domain.TimeEntryView;
+
+/**
+ * Filtered access to {@link TimeEntry}, for queries whose predicates depend on which filters the client sets.
+ * <p>
+ * Every filter is optional and ignored if {@code null}: {@code userId} matches the user of the entry,
+ * {@code fromDate} and {@code toDate} bound its date (inclusive), and {@code taskName} matches its task name exactly.
+ * <p>
+ * Dates are only ever compared as plain ranges on the {@code date} column, never through a function of it, so that
+ * PostgreSQL skips the monthly partitions of {@code time_entry} outside of the range.
+ */
+public interface TimeEntryRepositoryWithFilters {
+    /**
+     * Fetch the next page of time entries matching the given filters, using keyset (seek) pagination on {@code (date, id)}.
+     * <p>
+     * Unlike offset pagination, the cost of fetching a page does not grow with how deep the client pages:
+     * each page is a single range scan starting right after the last {@code (date, id)} seen.
+     *
+     * @param afterDate the date of the last entry of the previous page, {@code null} for the first page.
+     * @param afterId the id of the last entry of the previous page, {@code null} for the first page.
+     * @param limit the maximum number of entries to return.
+     * @return the views of the entries, ordered by date then id.
+     */
+    List<TimeEntryView> findPageAfter(
+        Long userId,
+        LocalDate fromDate,
+        LocalDate toDate,
+        String taskName,
+        LocalDate afterDate,
+        Long afterId,
+        int limit
+    );
+
+    /**
+     * Fetch the next page of the time entries of several tasks, ordered by the position of their task name in the given
+     * names, then by date and id, in a single query.
+     * <p>
+     * The previous page only bounds the entries of the first name, as names are paged by the caller.
+     *
+     * @param taskNames the task names, in the order of their entries.
+     * @param afterDate the date of the last entry of the previous page, {@code null} to start at the first name.
+     * @param afterId the id of the last entry of the previous page, {@code null} to start at the first name.
+     * @param limit the maximum number of entries to return.
+     * @return the views of the entries, ordered by task name position, then date, then id.
+     */
+    List<TimeEntryView> findPageOfTasksAfter(Long userId, List<String> taskNames, LocalDate afterDate, Long afterId, int limit);
+
+    /**
+     * Fetch only the ids and versions of the page {@link #findPageAfter} would return, as a cheap probe of whether it changed.
+     *
+     * @return one {@code {id, version}} row per entry, ordered by date then id.
+     */
+    List<Object[]> findPageVersionsAfter(
+        Long userId,
+        LocalDate fromDate,
+        LocalDate toDate,
+        String taskName,
+        LocalDate afterDate,
+        Long afterId,
+        int limit
+    );
+
+    /**
+     * Get a time entry into the persistence context, usually from the second level cache, without fetching its task
+     * nor its user.
+     * <p>
+     * Changes to the entry are written by a single {@code UPDATE} at the next flush, checked against and incrementing
+     * its version, which only updates its own cache entry.
+     *
+     * @param id the id of the entry.
+     * @return the managed entry, if it exists.
+     */
+    Optional<TimeEntry> findCachedById(Long id);
+
+    /**
+     * Stream all the time entries matching the given filters through a forward-only cursor.
+     * <p>
+     * Rows are fetched {@code fetchSize} at a time and are never attached to the persistence context, so memory use
+     * does not depend on the number of rows. The stream must be consumed and closed inside a transaction.
+     *
+     * @param fetchSize the number of rows fetched per database round-trip.
+     * @return the entries, ordered by date then id.
+     */
+    Stream<TimeEntryView> streamViews(Long userId, LocalDate fromDate, LocalDate toDate, String taskName, int fetchSize);
+}
@@ -0,0 +1,219 @@
+package se.conva.icicle.repository;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import javax.persistence.EntityManager;
+import javax.persistence.criteria.AbstractQuery;
+import javax.persistence.criteria.CompoundSelection;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Join;
+import javax.persistence.criteria.JoinType;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Subquery;
+import org.hibernate.jpa.QueryHints;
+import se.conva.icicle.domain.Task;
+import se.conva.icicle.domain.Task_;
+import se.conva.icicle.domain.TimeEntry;
+import se.conva.icicle.domain.TimeEntryView;
+import se.conva.icicle.domain.TimeEntry_;
+import se.conva.icicle.domain.User;
+import se.conva.icicle.domain.User_;
+
+public class TimeEntryRepositoryWithFiltersImpl implements TimeEntryRepositoryWithFilters {
+
+    private final EntityManager entityManager;
+
+    public TimeEntryRepositoryWithFiltersImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public List<TimeEntryView> findPageAfter(
+        Long userId,
+        LocalDate fromDate,
+        LocalDate toDate,
+        String taskName,
+        LocalDate afterDate,
+        Long afterId,
+        int limit
+    ) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<TimeEntryView> query = cb.createQuery(TimeEntryView.class);
+        Root<TimeEntry> root = query.from(TimeEntry.class);
+
+        query
+            .select(view(cb, root))
+            .where(keyset(cb, query, root, userId, fromDate, toDate, taskName, afterDate, afterId))
+            .orderBy(cb.asc(root.get(TimeEntry_.date)), cb.asc(root.get(TimeEntry_.id)));
+        return entityManager.createQuery(query).setMaxResults(limit).setHint(QueryHints.HINT_READONLY, true).getResultList();
+    }
+
+    @Override
+    public List<TimeEntryView> findPageOfTasksAfter(Long userId, List<String> taskNames, LocalDate afterDate, Long afterId, int limit) {
+        if (taskNames.isEmpty()) {
+            return List.of();
+        }
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<TimeEntryView> query = cb.createQuery(TimeEntryView.class);
+        Root<TimeEntry> root = query.from(TimeEntry.class);
+        Path<LocalDate> date = root.get(TimeEntry_.date);
+        Path<Long> id = root.get(TimeEntry_.id);
+        Join<TimeEntry, Task> task = root.join(TimeEntry_.task);
+        Path<String> taskName = task.get(Task_.name);
+
+        List<Predicate> predicates = filter(cb, query, root, userId, null, null, null);
+        Predicate tasks = taskName.in(taskNames);
+        if (afterDate != null && afterId != null) {
+            Predicate first = cb.equal(taskName, taskNames.get(0));
+            Predicate afterFirst = cb.and(
+                first,
+                cb.greaterThanOrEqualTo(date, afterDate),
+                cb.or(cb.greaterThan(date, afterDate), cb.greaterThan(id, afterId))
+            );
+            tasks = cb.or(afterFirst, cb.and(cb.not(first), tasks));
+        }
+        predicates.add(tasks);
+        // Rank the entries by the position of their task name, which the caller ranked already
+        CriteriaBuilder.SimpleCase<String, Integer> position = cb.selectCase(taskName);
+        for (int i = 0; i < taskNames.size(); i++) {
+            position.when(taskNames.get(i), i);
+        }
+        position.otherwise(taskNames.size());
+
+        query
+            .select(view(cb, root, task))
+            .where(predicates.toArray(new Predicate[0]))
+            .orderBy(cb.asc(position), cb.asc(date), cb.asc(id));
+        return entityManager.createQuery(query).setMaxResults(limit).setHint(QueryHints.HINT_READONLY, true).getResultList();
+    }
+
+    @Override
+    public List<Object[]> findPageVersionsAfter(
+        Long userId,
+        LocalDate fromDate,
+        LocalDate toDate,
+        String taskName,
+        LocalDate afterDate,
+        Long afterId,
+        int limit
+    ) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Object[]> query = cb.createQuery(Object[].class);
+        Root<TimeEntry> root = query.from(TimeEntry.class);
+
+        query
+            .multiselect(root.get(TimeEntry_.id), root.get(TimeEntry_.version))
+            .where(keyset(cb, query, root, userId, fromDate, toDate, taskName, afterDate, afterId))
+            .orderBy(cb.asc(root.get(TimeEntry_.date)), cb.asc(root.get(TimeEntry_.id)));
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+
+    @Override
+    public Stream<TimeEntryView> streamViews(Long userId, LocalDate fromDate, LocalDate toDate, String taskName, int fetchSize) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<TimeEntryView> query = cb.createQuery(TimeEntryView.class);
+        Root<TimeEntry> root = query.from(TimeEntry.class);
+        Path<LocalDate> date = root.get(TimeEntry_.date);
+
+        query
+            .select(view(cb, root))
+            .where(filter(cb, query, root, userId, fromDate, toDate, taskName).toArray(new Predicate[0]))
+            .orderBy(cb.asc(date), cb.asc(root.get(TimeEntry_.id)));
+        return entityManager
+            .createQuery(query)
+            .setHint(QueryHints.HINT_FETCH_SIZE, fetchSize)
+            .setHint(QueryHints.HINT_READONLY, true)
+            .setHint(QueryHints.HINT_CACHEABLE, false)
+            .getResultStream();
+    }
+
+    @Override
+    public Optional<TimeEntry> findCachedById(Long id) {
+        return Optional.ofNullable(entityManager.find(TimeEntry.class, id));
+    }
+
+    /**
+     * Select only the columns of {@link TimeEntryView}, joining the task for its name and the user for its login rather
+     * than loading them.
+     */
+    private static CompoundSelection<TimeEntryView> view(CriteriaBuilder cb, Root<TimeEntry> root) {
+        return view(cb, root, root.join(TimeEntry_.task));
+    }
+
+    private static CompoundSelection<TimeEntryView> view(CriteriaBuilder cb, Root<TimeEntry> root, Join<TimeEntry, Task> task) {
+        Join<TimeEntry, User> user = root.join(TimeEntry_.user, JoinType.LEFT);
+        return cb.construct(
+            TimeEntryView.class,
+            root.get(TimeEntry_.id),
+            root.get(TimeEntry_.date),
+            root.get(TimeEntry_.minutesWorked),
+            task.get(Task_.name),
+            user.get(User_.id),
+            user.get(User_.login),
+            root.get(TimeEntry_.version)
+        );
+    }
+
+    /**
+     * The filters, plus {@code (date, id) > (afterDate, afterId)} if a previous page is given.
+     */
+    private static Predicate[] keyset(
+        CriteriaBuilder cb,
+        AbstractQuery<?> query,
+        Root<TimeEntry> root,
+        Long userId,
+        LocalDate fromDate,
+        LocalDate toDate,
+        String taskName,
+        LocalDate afterDate,
+        Long afterId
+    ) {
+        Path<LocalDate> date = root.get(TimeEntry_.date);
+        List<Predicate> predicates = filter(cb, query, root, userId, fromDate, toDate, taskName);
+        if (afterDate != null && afterId != null) {
+            // Written so that "date >= afterDate" bounds the index scan
+            predicates.add(cb.greaterThanOrEqualTo(date, afterDate));
+            predicates.add(cb.or(cb.greaterThan(date, afterDate), cb.greaterThan(root.get(TimeEntry_.id), afterId)));
+        }
+        return predicates.toArray(new Predicate[0]);
+    }
+
+    /**
+     * Only add the predicates that are actually used, so the planner sees a plain range on {@code (user_id, date, id)}.
+     */
+    private static List<Predicate> filter(
+        CriteriaBuilder cb,
+        AbstractQuery<?> query,
+        Root<TimeEntry> root,
+        Long userId,
+        LocalDate fromDate,
+        LocalDate toDate,
+        String taskName
+    ) {
+        Path<LocalDate> date = root.get(TimeEntry_.date);
+        List<Predicate> predicates = new ArrayList<>();
+        if (userId != null) {
+            predicates.add(cb.equal(root.get(TimeEntry_.user).get(User_.id), userId));
+        }
+        if (fromDate != null) {
+            predicates.add(cb.greaterThanOrEqualTo(date, fromDate));
+        }
+        if (toDate != null) {
+            predicates.add(cb.lessThanOrEqualTo(date, toDate));
+        }
+        if (taskName != null) {
+            // Look the name up once in the dictionary, then filter on the foreign key
+            Subquery<Long> task = query.subquery(Long.class);
+            Root<Task> taskRoot = task.from(Task.class);
+            task.select(taskRoot.get(Task_.id)).where(cb.equal(taskRoot.get(Task_.name), taskName));
+            predicates.add(cb.equal(root.get(TimeEntry_.task).get(Task_.id), task));
+        }
+        return predicates;
+    }
+}
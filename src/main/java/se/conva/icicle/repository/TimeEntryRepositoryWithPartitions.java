@@ -0,0 +1,18 @@
+package se.conva.icicle.repository;
+
+import java.time.YearMonth;
+
+/**
+ * Maintenance of the monthly partitions of {@code time_entry}, which is only partitioned on PostgreSQL.
+ */
+public interface TimeEntryRepositoryWithPartitions {
+    /**
+     * Create the partitions of the given month range that do not exist yet, moving their entries out of the default
+     * partition.
+     *
+     * @param from the first month.
+     * @param to the last month (inclusive).
+     * @return the number of partitions created, {@code 0} if the table is not partitioned.
+     */
+    int createPartitions(YearMonth from, YearMonth to);
+}
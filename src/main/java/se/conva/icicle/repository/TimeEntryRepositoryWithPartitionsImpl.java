@@ -0,0 +1,46 @@
+package se.conva.icicle.repository;
+
+import java.time.YearMonth;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+public class TimeEntryRepositoryWithPartitionsImpl implements TimeEntryRepositoryWithPartitions {
+
+    private static final String IS_PARTITIONED =
+        "select exists (select 1 from pg_partitioned_table where partrelid = to_regclass('time_entry'))";
+
+    private static final String CREATE_PARTITION = "select create_time_entry_partition(?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final DatabaseDialect databaseDialect;
+
+    private volatile Boolean partitioned;
+
+    public TimeEntryRepositoryWithPartitionsImpl(JdbcTemplate jdbcTemplate, DatabaseDialect databaseDialect) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.databaseDialect = databaseDialect;
+    }
+
+    @Override
+    public int createPartitions(YearMonth from, YearMonth to) {
+        if (!isPartitioned()) {
+            return 0;
+        }
+        int created = 0;
+        for (YearMonth month = from; !month.isAfter(to); month = month.plusMonths(1)) {
+            if (Boolean.TRUE.equals(jdbcTemplate.queryForObject(CREATE_PARTITION, Boolean.class, month.atDay(1)))) {
+                created++;
+            }
+        }
+        return created;
+    }
+
+    private boolean isPartitioned() {
+        Boolean result = partitioned;
+        if (result == null) {
+            result = databaseDialect.isPostgresql() && Boolean.TRUE.equals(jdbcTemplate.queryForObject(IS_PARTITIONED, Boolean.class));
+            partitioned = result;
+        }
+        return result;
+    }
+}
@@ -1,12 +1,15 @@
 package se.conva.icicle.repository;
 
 import java.time.Instant;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.*;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import se.conva.icicle.domain.User;
 
@@ -33,4 +36,7 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findOneWithAuthoritiesByEmailIgnoreCase(String email);
 
     Page<User> findAllByIdNotNullAndActivatedIsTrue(Pageable pageable);
+
+    @Query("select distinct timeEntry.user.login from TimeEntry timeEntry where timeEntry.date >= :from")
+    List<String> findAllLoginsWithTimeEntriesSince(@Param("from") LocalDate from, Pageable pageable);
 }
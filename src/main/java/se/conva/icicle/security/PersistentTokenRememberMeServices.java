@@ -1,6 +1,15 @@
 package se.conva.icicle.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.Scheduler;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import java.io.Serializable;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.*;
 import javax.servlet.http.HttpServletRequest;
@@ -13,11 +22,11 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.rememberme.*;
 import org.springframework.stereotype.Service;
+import se.conva.icicle.config.ApplicationProperties;
 import se.conva.icicle.domain.PersistentToken;
 import se.conva.icicle.repository.PersistentTokenRepository;
 import se.conva.icicle.repository.UserRepository;
 import tech.jhipster.config.JHipsterProperties;
-import tech.jhipster.security.PersistentTokenCache;
 import tech.jhipster.security.RandomUtil;
 
 /**
@@ -51,35 +60,82 @@ public class PersistentTokenRememberMeServices extends AbstractRememberMeService
     private final Logger log = LoggerFactory.getLogger(PersistentTokenRememberMeServices.class);
 
     // Token is valid for one month
-    private static final int TOKEN_VALIDITY_DAYS = 31;
+    public static final int TOKEN_VALIDITY_DAYS = 31;
 
     private static final int TOKEN_VALIDITY_SECONDS = 60 * 60 * 24 * TOKEN_VALIDITY_DAYS;
 
     private static final long UPGRADED_TOKEN_VALIDITY_MILLIS = 5000l;
 
-    private final PersistentTokenCache<UpgradedRememberMeToken> upgradedTokenCache;
+    private static final int UPGRADED_TOKEN_CACHE_SIZE = 10_000;
+
+    private static final String UPGRADED_TOKEN_CACHE = "upgradedRememberMeTokens";
+
+    private static final int SERIES_LOCK_STRIPES = 64;
+
+    /**
+     * The tokens upgraded in the last {@value #UPGRADED_TOKEN_VALIDITY_MILLIS} ms, by series. Bounded in size, and
+     * swept of expired tokens in the background rather than on the request threads.
+     */
+    private final Cache<String, UpgradedRememberMeToken> upgradedTokenCache;
+
+    /**
+     * Locks serializing the auto-logins of a same series, so that parallel requests from one browser upgrade its token
+     * only once. Auto-logins of different series only wait on each other when their series fall on the same stripe.
+     */
+    private final Object[] seriesLocks = new Object[SERIES_LOCK_STRIPES];
 
     private final se.conva.icicle.repository.PersistentTokenRepository persistentTokenRepository;
 
     private final UserRepository userRepository;
 
+    private final PersistentTokenWriteBehind persistentTokenWriteBehind;
+
+    private final boolean writeBehind;
+
     public PersistentTokenRememberMeServices(
         JHipsterProperties jHipsterProperties,
         org.springframework.security.core.userdetails.UserDetailsService userDetailsService,
         PersistentTokenRepository persistentTokenRepository,
-        UserRepository userRepository
+        UserRepository userRepository,
+        PersistentTokenWriteBehind persistentTokenWriteBehind,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry
     ) {
         super(jHipsterProperties.getSecurity().getRememberMe().getKey(), userDetailsService);
         this.persistentTokenRepository = persistentTokenRepository;
         this.userRepository = userRepository;
-        upgradedTokenCache = new PersistentTokenCache<>(UPGRADED_TOKEN_VALIDITY_MILLIS);
+        this.persistentTokenWriteBehind = persistentTokenWriteBehind;
+        this.writeBehind = applicationProperties.getRememberMe().isWriteBehind();
+
+        // Same tag keys as the meters of the other caches, which Prometheus requires
+        Tags tags = Tags.of("cache.manager", "rememberMeServices");
+        Counter expirations = Counter
+            .builder("cache.expirations")
+            .tags(tags.and("cache", UPGRADED_TOKEN_CACHE))
+            .description("The number of upgraded remember-me tokens expired from the cache")
+            .register(meterRegistry);
+        upgradedTokenCache =
+            Caffeine
+                .newBuilder()
+                .maximumSize(UPGRADED_TOKEN_CACHE_SIZE)
+                .expireAfterWrite(Duration.ofMillis(UPGRADED_TOKEN_VALIDITY_MILLIS))
+                .scheduler(Scheduler.systemScheduler())
+                .removalListener((String series, UpgradedRememberMeToken token, RemovalCause cause) -> {
+                    if (cause == RemovalCause.EXPIRED) {
+                        expirations.increment();
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, upgradedTokenCache, UPGRADED_TOKEN_CACHE, tags);
+        Arrays.setAll(seriesLocks, i -> new Object());
     }
 
     @Override
     protected UserDetails processAutoLoginCookie(String[] cookieTokens, HttpServletRequest request, HttpServletResponse response) {
-        synchronized (this) { // prevent 2 authentication requests from the same user in parallel
-            String login = null;
-            UpgradedRememberMeToken upgradedToken = upgradedTokenCache.get(cookieTokens[0]);
+        String login = null;
+        synchronized (seriesLock(cookieTokens[0])) { // prevent 2 authentication requests from the same series in parallel
+            UpgradedRememberMeToken upgradedToken = upgradedTokenCache.getIfPresent(cookieTokens[0]);
             if (upgradedToken != null) {
                 login = upgradedToken.getUserLoginIfValid(cookieTokens);
                 log.debug("Detected previously upgraded login token for user '{}'", login);
@@ -96,7 +152,11 @@ public class PersistentTokenRememberMeServices extends AbstractRememberMeService
                 token.setIpAddress(request.getRemoteAddr());
                 token.setUserAgent(request.getHeader("User-Agent"));
                 try {
-                    persistentTokenRepository.saveAndFlush(token);
+                    if (writeBehind) {
+                        persistentTokenWriteBehind.refresh(token);
+                    } else {
+                        persistentTokenRepository.saveAndFlush(token);
+                    }
                 } catch (DataAccessException e) {
                     log.error("Failed to update token: ", e);
                     throw new RememberMeAuthenticationException("Autologin failed due to data access problem", e);
@@ -104,8 +164,8 @@ public class PersistentTokenRememberMeServices extends AbstractRememberMeService
                 addCookie(token, request, response);
                 upgradedTokenCache.put(cookieTokens[0], new UpgradedRememberMeToken(cookieTokens, login));
             }
-            return getUserDetailsService().loadUserByUsername(login);
         }
+        return getUserDetailsService().loadUserByUsername(login);
     }
 
     @Override
@@ -192,6 +252,10 @@ public class PersistentTokenRememberMeServices extends AbstractRememberMeService
         return token;
     }
 
+    private Object seriesLock(String series) {
+        return seriesLocks[Math.floorMod(series.hashCode(), SERIES_LOCK_STRIPES)];
+    }
+
     private void addCookie(PersistentToken token, HttpServletRequest request, HttpServletResponse response) {
         setCookie(new String[] { token.getSeries(), token.getTokenValue() }, TOKEN_VALIDITY_SECONDS, request, response);
     }
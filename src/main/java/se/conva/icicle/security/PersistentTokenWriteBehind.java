@@ -0,0 +1,86 @@
+package se.conva.icicle.security;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.web.authentication.rememberme.RememberMeAuthenticationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import se.conva.icicle.domain.PersistentToken;
+import se.conva.icicle.repository.PersistentTokenRepository;
+
+/**
+ * Write-behind of the remember-me token refreshes.
+ * <p>
+ * The token value is rotated in the database right away, as the next auto-login must be checked against it. The date,
+ * IP address and user agent only matter for expiry and auditing: they are kept in memory, the latest per series, and
+ * written in JDBC batches every few seconds, so that a user refreshing many times in between costs one update.
+ */
+@Component
+public class PersistentTokenWriteBehind {
+
+    private final Logger log = LoggerFactory.getLogger(PersistentTokenWriteBehind.class);
+
+    private final PersistentTokenRepository persistentTokenRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<String, PersistentToken> pendingMetadata = new ConcurrentHashMap<>();
+
+    public PersistentTokenWriteBehind(PersistentTokenRepository persistentTokenRepository, PlatformTransactionManager transactionManager) {
+        this.persistentTokenRepository = persistentTokenRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Write the new value of a token, and queue the write of its metadata.
+     *
+     * @param token the refreshed token.
+     * @throws RememberMeAuthenticationException if the token was deleted in the meantime.
+     * @throws DataAccessException if the value could not be written.
+     */
+    public void refresh(PersistentToken token) {
+        Boolean found = transactionTemplate.execute(status ->
+            persistentTokenRepository.updateTokenValue(token.getSeries(), token.getTokenValue())
+        );
+        if (!Boolean.TRUE.equals(found)) {
+            throw new RememberMeAuthenticationException("No persistent token found for series id: " + token.getSeries());
+        }
+        pendingMetadata.put(token.getSeries(), token);
+    }
+
+    /**
+     * Write the queued metadata.
+     * <p>
+     * This is scheduled to get fired every 5 seconds, and on shutdown.
+     */
+    @PreDestroy
+    @Scheduled(fixedDelay = 5_000)
+    public synchronized void flush() {
+        if (pendingMetadata.isEmpty()) {
+            return;
+        }
+        List<PersistentToken> tokens = new ArrayList<>(pendingMetadata.size());
+        for (String series : pendingMetadata.keySet()) {
+            PersistentToken token = pendingMetadata.remove(series);
+            if (token != null) {
+                tokens.add(token);
+            }
+        }
+        try {
+            Integer updated = transactionTemplate.execute(status -> persistentTokenRepository.updateAllMetadata(tokens));
+            log.debug("Wrote the metadata of {} persistent tokens", updated);
+        } catch (DataAccessException e) {
+            log.warn("Failed to write the metadata of {} persistent tokens, will retry: {}", tokens.size(), e.getMessage());
+            // Metadata queued since is newer
+            tokens.forEach(token -> pendingMetadata.putIfAbsent(token.getSeries(), token));
+        }
+    }
+}
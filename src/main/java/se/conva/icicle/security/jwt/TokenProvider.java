@@ -1,12 +1,19 @@
 package se.conva.icicle.security.jwt;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
 import io.jsonwebtoken.security.SignatureException;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -29,6 +36,8 @@ public class TokenProvider {
 
     private static final String INVALID_JWT_TOKEN = "Invalid JWT token.";
 
+    private static final int VERIFIED_TOKENS_CACHE_SIZE = 10_000;
+
     private final Key key;
 
     private final JwtParser jwtParser;
@@ -39,6 +48,15 @@ public class TokenProvider {
 
     private final SecurityMetersService securityMetersService;
 
+    /**
+     * The principals of the tokens already verified, by SHA-256 digest of the token, until the tokens expire.
+     */
+    private final Cache<ByteBuffer, VerifiedToken> verifiedTokens = Caffeine
+        .newBuilder()
+        .maximumSize(VERIFIED_TOKENS_CACHE_SIZE)
+        .expireAfter(new UntilTokenExpiration())
+        .build();
+
     public TokenProvider(JHipsterProperties jHipsterProperties, SecurityMetersService securityMetersService) {
         byte[] keyBytes;
         String secret = jHipsterProperties.getSecurity().getAuthentication().getJwt().getBase64Secret();
@@ -83,24 +101,45 @@ public class TokenProvider {
     }
 
     public Authentication getAuthentication(String token) {
-        Claims claims = jwtParser.parseClaimsJws(token).getBody();
-
-        Collection<? extends GrantedAuthority> authorities = Arrays
-            .stream(claims.get(AUTHORITIES_KEY).toString().split(","))
-            .filter(auth -> !auth.trim().isEmpty())
-            .map(SimpleGrantedAuthority::new)
-            .collect(Collectors.toList());
-
-        User principal = new User(claims.getSubject(), "", authorities);
+        return authentication(principal(jwtParser.parseClaimsJws(token).getBody()), token);
+    }
 
-        return new UsernamePasswordAuthenticationToken(principal, token, authorities);
+    /**
+     * Get the authentication of a token, verifying it only the first time it is seen: the principals of verified tokens
+     * are kept until the tokens expire.
+     *
+     * @param token the token.
+     * @return the authentication, or empty if the token is not valid.
+     */
+    public Optional<Authentication> resolveAuthentication(String token) {
+        ByteBuffer digest = digest(token);
+        VerifiedToken verified = verifiedTokens.getIfPresent(digest);
+        if (verified == null) {
+            Claims claims = parseClaims(token);
+            if (claims == null) {
+                return Optional.empty();
+            }
+            verified = new VerifiedToken(principal(claims), claims.getExpiration());
+            if (claims.getExpiration() != null) {
+                verifiedTokens.put(digest, verified);
+            }
+        }
+        return Optional.of(authentication(verified.principal, token));
     }
 
     public boolean validateToken(String authToken) {
-        try {
-            jwtParser.parseClaimsJws(authToken);
+        return parseClaims(authToken) != null;
+    }
 
-            return true;
+    /**
+     * Parse and verify a token.
+     *
+     * @param authToken the token.
+     * @return the claims of the token, or {@code null} if it is not valid.
+     */
+    private Claims parseClaims(String authToken) {
+        try {
+            return jwtParser.parseClaimsJws(authToken).getBody();
         } catch (ExpiredJwtException e) {
             this.securityMetersService.trackTokenExpired();
 
@@ -121,6 +160,61 @@ public class TokenProvider {
             log.error("Token validation error {}", e.getMessage());
         }
 
-        return false;
+        return null;
+    }
+
+    private static User principal(Claims claims) {
+        Collection<? extends GrantedAuthority> authorities = Arrays
+            .stream(claims.get(AUTHORITIES_KEY).toString().split(","))
+            .filter(auth -> !auth.trim().isEmpty())
+            .map(SimpleGrantedAuthority::new)
+            .collect(Collectors.toList());
+
+        return new User(claims.getSubject(), "", authorities);
+    }
+
+    /**
+     * Build a new authentication for each request, as authentications are mutable; the principal is immutable.
+     */
+    private static Authentication authentication(User principal, String token) {
+        return new UsernamePasswordAuthenticationToken(principal, token, principal.getAuthorities());
+    }
+
+    private static ByteBuffer digest(String token) {
+        try {
+            return ByteBuffer.wrap(MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class VerifiedToken {
+
+        private final User principal;
+
+        private final Date expiration;
+
+        VerifiedToken(User principal, Date expiration) {
+            this.principal = principal;
+            this.expiration = expiration;
+        }
+    }
+
+    private static final class UntilTokenExpiration implements Expiry<ByteBuffer, VerifiedToken> {
+
+        @Override
+        public long expireAfterCreate(ByteBuffer key, VerifiedToken value, long currentTime) {
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, value.expiration.getTime() - System.currentTimeMillis()));
+        }
+
+        @Override
+        public long expireAfterUpdate(ByteBuffer key, VerifiedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(ByteBuffer key, VerifiedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
 }
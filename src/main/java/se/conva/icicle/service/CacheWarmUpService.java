@@ -0,0 +1,196 @@
+package se.conva.icicle.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import se.conva.icicle.config.ApplicationProperties;
+import se.conva.icicle.domain.TimeEntry;
+import se.conva.icicle.domain.TimeEntryView;
+import se.conva.icicle.domain.User;
+import se.conva.icicle.repository.AuthorityRepository;
+import se.conva.icicle.repository.TimeEntryRepository;
+import se.conva.icicle.repository.UserRepository;
+
+/**
+ * Service preloading the caches once the application is ready, so that the first requests after a deploy do not all
+ * go to the database.
+ * <p>
+ * The users with recent time entries, the authorities and the recent time entries are loaded in parallel on their own
+ * executor, filling the {@code usersByLogin}, {@code Authority} and {@code TimeEntry} regions. Reads of the recent
+ * entries of the loaded users are then replayed in process, so that the JIT compiles their paths. Until all this is
+ * over, or timed out, the instance reports itself out of service to the readiness probe. Loads still running at the
+ * timeout stop at their next user, page or replay, so that they do not compete with the requests the instance is now
+ * ready for.
+ */
+@Service
+public class CacheWarmUpService {
+
+    private static final int PAGE_SIZE = 500;
+
+    private static final int REPLAY_PAGE_SIZE = 50;
+
+    private final Logger log = LoggerFactory.getLogger(CacheWarmUpService.class);
+
+    private final UserRepository userRepository;
+
+    private final AuthorityRepository authorityRepository;
+
+    private final TimeEntryRepository timeEntryRepository;
+
+    private final TimeEntryArchiveService timeEntryArchiveService;
+
+    private final ObjectMapper objectMapper;
+
+    private final Executor executor;
+
+    private final TransactionTemplate readOnlyTransactionTemplate;
+
+    private final ApplicationProperties.Cache.WarmUp properties;
+
+    private volatile boolean warmedUp;
+
+    public CacheWarmUpService(
+        UserRepository userRepository,
+        AuthorityRepository authorityRepository,
+        TimeEntryRepository timeEntryRepository,
+        TimeEntryArchiveService timeEntryArchiveService,
+        ObjectMapper objectMapper,
+        @Qualifier("cacheWarmUpExecutor") Executor executor,
+        PlatformTransactionManager transactionManager,
+        ApplicationProperties applicationProperties
+    ) {
+        this.userRepository = userRepository;
+        this.authorityRepository = authorityRepository;
+        this.timeEntryRepository = timeEntryRepository;
+        this.timeEntryArchiveService = timeEntryArchiveService;
+        this.objectMapper = objectMapper;
+        this.executor = executor;
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.properties = applicationProperties.getCache().getWarmUp();
+        this.warmedUp = !properties.isEnabled();
+    }
+
+    /**
+     * Start the warm-up once the application is ready, when enabled.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUpOnStartup() {
+        if (properties.isEnabled()) {
+            warmUp();
+        }
+    }
+
+    /**
+     * Preload the caches, then replay requests.
+     *
+     * @return the warm-up, completed once it is over or timed out.
+     */
+    public CompletableFuture<Void> warmUp() {
+        long start = System.nanoTime();
+        LocalDate from = LocalDate.now().minusDays(properties.getRecentDays());
+        AtomicReference<List<String>> logins = new AtomicReference<>(List.of());
+        AtomicBoolean stopped = new AtomicBoolean();
+        return CompletableFuture
+            .allOf(
+                CompletableFuture.runAsync(() -> logins.set(loadUsers(from, stopped)), executor),
+                CompletableFuture.runAsync(this::loadAuthorities, executor),
+                CompletableFuture.runAsync(() -> loadTimeEntries(from, stopped), executor)
+            )
+            .thenRunAsync(() -> replay(logins.get(), from, stopped), executor)
+            .orTimeout(properties.getTimeout().toMillis(), TimeUnit.MILLISECONDS)
+            .whenComplete((result, e) -> {
+                // Completing the future does not stop the loads behind it
+                stopped.set(true);
+                long elapsed = (System.nanoTime() - start) / 1_000_000;
+                if (e instanceof TimeoutException) {
+                    log.warn("Gave up warming up the caches after {} ms", elapsed);
+                } else if (e != null) {
+                    log.warn("Failed to warm up the caches after {} ms", elapsed, e);
+                } else {
+                    log.info("Warmed up the caches in {} ms", elapsed);
+                }
+                warmedUp = true;
+            });
+    }
+
+    /**
+     * @return whether the warm-up is over, or disabled.
+     */
+    public boolean isWarmedUp() {
+        return warmedUp;
+    }
+
+    private List<String> loadUsers(LocalDate from, AtomicBoolean stopped) {
+        List<String> logins = userRepository.findAllLoginsWithTimeEntriesSince(from, PageRequest.of(0, properties.getMaxUsers()));
+        for (String login : logins) {
+            if (stopped.get()) {
+                return List.of();
+            }
+            // Goes through the repository proxy, which fills usersByLogin
+            userRepository.findOneWithAuthoritiesByLogin(login);
+        }
+        log.debug("Preloaded {} users", logins.size());
+        return logins;
+    }
+
+    private void loadAuthorities() {
+        readOnlyTransactionTemplate.executeWithoutResult(status -> authorityRepository.findAll());
+    }
+
+    private void loadTimeEntries(LocalDate from, AtomicBoolean stopped) {
+        Sort recentFirst = Sort.by(Sort.Order.desc("date"), Sort.Order.desc("id"));
+        int loaded = 0;
+        boolean more = true;
+        for (int page = 0; more && loaded < properties.getMaxTimeEntries() && !stopped.get(); page++) {
+            PageRequest pageRequest = PageRequest.of(page, Math.min(PAGE_SIZE, properties.getMaxTimeEntries()), recentFirst);
+            // One transaction per page, so that the loaded entities do not pile up in the persistence context
+            Slice<TimeEntry> slice = readOnlyTransactionTemplate.execute(status ->
+                timeEntryRepository.findAllByDateGreaterThanEqual(from, pageRequest)
+            );
+            loaded += slice.getNumberOfElements();
+            more = slice.hasNext();
+        }
+        log.debug("Preloaded {} time entries", loaded);
+    }
+
+    private void replay(List<String> logins, LocalDate from, AtomicBoolean stopped) {
+        if (logins.isEmpty()) {
+            return;
+        }
+        for (int i = 0; i < properties.getReplays() && !stopped.get(); i++) {
+            String login = logins.get(i % logins.size());
+            readOnlyTransactionTemplate.executeWithoutResult(status -> {
+                Long userId = userRepository.findOneWithAuthoritiesByLogin(login).map(User::getId).orElse(null);
+                if (userId == null) {
+                    return;
+                }
+                // The recent entries of the user, as read by most requests, rather than the oldest ones, which are archived
+                List<TimeEntryView> page = timeEntryArchiveService.findPageAfter(userId, from, null, null, null, null, REPLAY_PAGE_SIZE);
+                try {
+                    objectMapper.writeValueAsBytes(page);
+                } catch (JsonProcessingException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package se.conva.icicle.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.LocalDate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import se.conva.icicle.repository.PersistentTokenRepository;
+import se.conva.icicle.security.PersistentTokenRememberMeServices;
+import se.conva.icicle.security.PersistentTokenWriteBehind;
+
+/**
+ * Service purging the remember-me tokens which expired, rather than waiting for them to be presented again.
+ * <p>
+ * Tokens are deleted in chunks, each in its own short transaction, so that the purge never holds many row locks nor
+ * loads tokens in memory.
+ */
+@Service
+public class PersistentTokenPurgeService {
+
+    static final int CHUNK_SIZE = 1000;
+
+    private final Logger log = LoggerFactory.getLogger(PersistentTokenPurgeService.class);
+
+    private final PersistentTokenRepository persistentTokenRepository;
+
+    private final PersistentTokenWriteBehind persistentTokenWriteBehind;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Counter purgedTokens;
+
+    private final Timer chunkTimer;
+
+    public PersistentTokenPurgeService(
+        PersistentTokenRepository persistentTokenRepository,
+        PersistentTokenWriteBehind persistentTokenWriteBehind,
+        PlatformTransactionManager transactionManager,
+        MeterRegistry meterRegistry
+    ) {
+        this.persistentTokenRepository = persistentTokenRepository;
+        this.persistentTokenWriteBehind = persistentTokenWriteBehind;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.purgedTokens =
+            Counter
+                .builder("persistent.tokens.purged")
+                .description("The number of expired remember-me tokens purged")
+                .register(meterRegistry);
+        this.chunkTimer =
+            Timer
+                .builder("persistent.tokens.purge.chunks")
+                .description("The time taken by each chunk of the purge")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Delete the tokens not used for longer than they are valid.
+     * <p>
+     * This is scheduled to get fired everyday, at 01:45 (am).
+     *
+     * @return the number of tokens deleted.
+     */
+    @Scheduled(cron = "0 45 1 * * ?")
+    public long purgeExpiredTokens() {
+        // Token dates waiting in the write-behind are newer than those in the database
+        persistentTokenWriteBehind.flush();
+        LocalDate expiredBefore = LocalDate.now().minusDays(PersistentTokenRememberMeServices.TOKEN_VALIDITY_DAYS);
+        long purged = 0;
+        int deleted;
+        do {
+            deleted =
+                chunkTimer.record(() ->
+                    transactionTemplate.execute(status -> persistentTokenRepository.deleteChunkByTokenDateBefore(expiredBefore, CHUNK_SIZE))
+                );
+            purged += deleted;
+            purgedTokens.increment(deleted);
+            log.debug("Purged {} expired persistent tokens so far", purged);
+        } while (deleted == CHUNK_SIZE);
+        if (purged > 0) {
+            log.info("Purged {} persistent tokens last used before {}", purged, expiredBefore);
+        }
+        return purged;
+    }
+}
@@ -0,0 +1,280 @@
+package se.conva.icicle.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import se.conva.icicle.domain.TimeEntryView;
+import se.conva.icicle.repository.TaskRepository;
+import se.conva.icicle.service.event.TimeEntryChange;
+import se.conva.icicle.service.event.TimeEntryChangedEvent;
+
+/**
+ * In-memory index of the task names, suggesting the names starting with a prefix ranked by how often a user worked on
+ * them.
+ * <p>
+ * Names are kept in a sorted array of their lower case form, so the names matching a prefix are one contiguous range
+ * found by binary search. Entry counts per user and task name rank the range. The index is loaded from the database
+ * once the application is ready, then kept up to date from interned names and committed {@link TimeEntryChangedEvent}s,
+ * and reloaded every night to pick up the writes of other instances.
+ */
+@Service
+public class TaskNameIndex {
+
+    private final Logger log = LoggerFactory.getLogger(TaskNameIndex.class);
+
+    private final TaskRepository taskRepository;
+
+    private final TransactionTemplate readOnlyTransactionTemplate;
+
+    private final Object loadLock = new Object();
+
+    private volatile Names names = new Names(new String[0], new String[0]);
+
+    private volatile Map<Long, Map<String, Integer>> countsByUser = new ConcurrentHashMap<>();
+
+    /**
+     * Names interned and changes committed while the index is loading, replayed once it is. Guarded by {@link #loadLock}.
+     */
+    private List<Object> pendingUpdates;
+
+    public TaskNameIndex(TaskRepository taskRepository, PlatformTransactionManager transactionManager) {
+        this.taskRepository = taskRepository;
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Load the index once the application is ready, off the startup thread.
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        load();
+    }
+
+    /**
+     * Reload the index from the database, to pick up the names and entries written by other instances.
+     * <p>
+     * This is scheduled to get fired everyday, at 03:15 (am).
+     */
+    @Scheduled(cron = "0 15 3 * * ?")
+    public void reload() {
+        load();
+    }
+
+    /**
+     * Replace the index by a fresh load of the database.
+     * <p>
+     * The current index keeps answering during the load.
+     */
+    public void load() {
+        synchronized (loadLock) {
+            if (pendingUpdates != null) {
+                log.debug("The task name index is already loading");
+                return;
+            }
+            pendingUpdates = new ArrayList<>();
+        }
+        try {
+            long start = System.nanoTime();
+            List<String> loadedNames = new ArrayList<>();
+            Map<Long, Map<String, Integer>> loadedCounts = new ConcurrentHashMap<>();
+            readOnlyTransactionTemplate.executeWithoutResult(status -> {
+                try (Stream<String> rows = taskRepository.streamAllNames()) {
+                    rows.forEach(loadedNames::add);
+                }
+                try (Stream<Object[]> rows = taskRepository.streamEntryCountsPerUser()) {
+                    rows
+                        .filter(row -> row[1] != null)
+                        .forEach(row ->
+                            loadedCounts
+                                .computeIfAbsent((Long) row[1], userId -> new ConcurrentHashMap<>())
+                                .put((String) row[0], ((Number) row[2]).intValue())
+                        );
+                }
+            });
+            synchronized (loadLock) {
+                Names loaded = Names.of(loadedNames);
+                for (Object update : pendingUpdates) {
+                    if (update instanceof String) {
+                        loaded = loaded.with((String) update);
+                    } else {
+                        count(loadedCounts, (TimeEntryChange) update);
+                    }
+                }
+                names = loaded;
+                countsByUser = loadedCounts;
+            }
+            log.info(
+                "Loaded the task name index: {} names, {} users in {} ms",
+                loadedNames.size(),
+                loadedCounts.size(),
+                (System.nanoTime() - start) / 1_000_000
+            );
+        } finally {
+            synchronized (loadLock) {
+                pendingUpdates = null;
+            }
+        }
+    }
+
+    /**
+     * Add a task name just created in the database.
+     *
+     * @param name the task name.
+     */
+    public void add(String name) {
+        synchronized (loadLock) {
+            names = names.with(name);
+            if (pendingUpdates != null) {
+                pendingUpdates.add(name);
+            }
+        }
+    }
+
+    /**
+     * Count committed time entry changes in the ranking.
+     *
+     * @param event the written time entries.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTimeEntryChanged(TimeEntryChangedEvent event) {
+        synchronized (loadLock) {
+            if (pendingUpdates != null) {
+                pendingUpdates.addAll(event.getChanges());
+            }
+        }
+        Map<Long, Map<String, Integer>> current = countsByUser;
+        event.getChanges().forEach(change -> count(current, change));
+    }
+
+    /**
+     * Suggest the task names starting with a prefix, regardless of case.
+     *
+     * @param userId the id of the user to rank the names for.
+     * @param prefix the start of the name.
+     * @param limit the maximum number of names.
+     * @return the names the user worked on most first, then the others in alphabetical order.
+     */
+    public List<String> suggest(Long userId, String prefix, int limit) {
+        Names current = names;
+        Map<String, Integer> counts = userId == null ? Map.of() : countsByUser.getOrDefault(userId, Map.of());
+        String key = prefix.toLowerCase(Locale.ROOT);
+        int from = current.lowerBound(key);
+        int to = current.lowerBound(key + Character.MAX_VALUE);
+
+        // Keep the best names in a heap whose head is the worst of them
+        Comparator<String> ranking = Comparator
+            .<String>comparingInt(name -> counts.getOrDefault(name, 0))
+            .reversed()
+            .thenComparing(String.CASE_INSENSITIVE_ORDER);
+        PriorityQueue<String> best = new PriorityQueue<>(limit + 1, ranking.reversed());
+        for (int i = from; i < to; i++) {
+            best.add(current.values[i]);
+            if (best.size() > limit) {
+                best.poll();
+            }
+        }
+        List<String> suggestions = new ArrayList<>(best);
+        suggestions.sort(ranking);
+        return suggestions;
+    }
+
+    private static void count(Map<Long, Map<String, Integer>> countsByUser, TimeEntryChange change) {
+        count(countsByUser, change.getBefore(), -1);
+        count(countsByUser, change.getAfter(), 1);
+    }
+
+    private static void count(Map<Long, Map<String, Integer>> countsByUser, TimeEntryView timeEntry, int delta) {
+        if (timeEntry == null || timeEntry.getUserId() == null || timeEntry.getTaskName() == null) {
+            return;
+        }
+        countsByUser
+            .computeIfAbsent(timeEntry.getUserId(), userId -> new ConcurrentHashMap<>())
+            .compute(
+                timeEntry.getTaskName(),
+                (name, count) -> {
+                    int updated = (count == null ? 0 : count) + delta;
+                    return updated > 0 ? updated : null;
+                }
+            );
+    }
+
+    /**
+     * The task names sorted by their lower case form, which is kept alongside as the search key.
+     * <p>
+     * Instances are immutable: adding a name copies the arrays, which is cheap next to how rarely new names appear.
+     */
+    static final class Names {
+
+        private final String[] keys;
+
+        private final String[] values;
+
+        Names(String[] keys, String[] values) {
+            this.keys = keys;
+            this.values = values;
+        }
+
+        static Names of(List<String> names) {
+            String[] values = names
+                .stream()
+                .sorted(Comparator.comparing((String name) -> name.toLowerCase(Locale.ROOT)))
+                .toArray(String[]::new);
+            String[] keys = Arrays.stream(values).map(name -> name.toLowerCase(Locale.ROOT)).toArray(String[]::new);
+            return new Names(keys, values);
+        }
+
+        Names with(String name) {
+            String key = name.toLowerCase(Locale.ROOT);
+            int index = lowerBound(key);
+            for (int i = index; i < keys.length && keys[i].equals(key); i++) {
+                if (values[i].equals(name)) {
+                    return this;
+                }
+            }
+            String[] grownKeys = new String[keys.length + 1];
+            String[] grownValues = new String[values.length + 1];
+            System.arraycopy(keys, 0, grownKeys, 0, index);
+            System.arraycopy(values, 0, grownValues, 0, index);
+            grownKeys[index] = key;
+            grownValues[index] = name;
+            System.arraycopy(keys, index, grownKeys, index + 1, keys.length - index);
+            System.arraycopy(values, index, grownValues, index + 1, values.length - index);
+            return new Names(grownKeys, grownValues);
+        }
+
+        /**
+         * @return the index of the first key not less than {@code key}.
+         */
+        int lowerBound(String key) {
+            int low = 0;
+            int high = keys.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (keys[middle].compareTo(key) < 0) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+    }
+}
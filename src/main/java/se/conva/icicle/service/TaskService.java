@@ -0,0 +1,76 @@
+package se.conva.icicle.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import se.conva.icicle.domain.Task;
+import se.conva.icicle.repository.TaskRepository;
+
+/**
+ * Service interning task names into the {@link Task} dictionary.
+ */
+@Service
+@Transactional
+public class TaskService {
+
+    private final Logger log = LoggerFactory.getLogger(TaskService.class);
+
+    private final TaskRepository taskRepository;
+
+    private final TaskNameIndex taskNameIndex;
+
+    /**
+     * The ids of the committed names seen so far. Tasks are never changed nor deleted, so entries never go stale.
+     */
+    private final Map<String, Long> idsByName = new ConcurrentHashMap<>();
+
+    public TaskService(TaskRepository taskRepository, TaskNameIndex taskNameIndex) {
+        this.taskRepository = taskRepository;
+        this.taskNameIndex = taskNameIndex;
+    }
+
+    /**
+     * Get the task of a name, creating it if it does not exist yet.
+     * <p>
+     * New tasks are created in the caller's transaction, so that no other connection is needed, and only become known to
+     * this service and the {@link TaskNameIndex} once it commits.
+     *
+     * @param name the task name.
+     * @return a reference to the task, not loaded.
+     */
+    public Task intern(String name) {
+        Long id = idsByName.get(name);
+        if (id != null) {
+            return taskRepository.getReferenceById(id);
+        }
+        Long existing = taskRepository.findOneByName(name).map(Task::getId).orElse(null);
+        if (existing != null) {
+            idsByName.put(name, existing);
+            return taskRepository.getReferenceById(existing);
+        }
+
+        log.debug("Request to create Task : {}", name);
+        boolean inserted = taskRepository.insertIfAbsent(name);
+        Long created = taskRepository.findOneByName(name).map(Task::getId).orElseThrow();
+        if (!inserted) {
+            // Created concurrently by another transaction, which committed first
+            idsByName.put(name, created);
+        } else {
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        idsByName.put(name, created);
+                        taskNameIndex.add(name);
+                    }
+                }
+            );
+        }
+        return taskRepository.getReferenceById(created);
+    }
+}
@@ -0,0 +1,552 @@
+package se.conva.icicle.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import se.conva.icicle.config.ApplicationProperties;
+import se.conva.icicle.domain.TimeEntryView;
+import se.conva.icicle.repository.TimeEntryRepository;
+
+/**
+ * Service moving the time entries of closed months out of the database into {@link TimeEntrySegment} files, and reading
+ * time entries from both.
+ * <p>
+ * The reads of this service return database rows and archived rows together, merged by date then id, so that clients
+ * do not see where an entry is kept. Archived entries are immutable: they can still be read, but not written.
+ * <p>
+ * Segments are listed in a manifest table in the transaction deleting their entries, and only listed segments are read.
+ * Every instance refreshes its segments from the manifest, while one instance at a time archives.
+ * <p>
+ * Rollups are not touched by archival, so totals still include archived entries.
+ */
+@Service
+public class TimeEntryArchiveService {
+
+    /**
+     * The first day of the time entries kept in the database, when nothing is archived.
+     */
+    public static final LocalDate NOTHING_ARCHIVED = LocalDate.of(1, 1, 1);
+
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    private static final int FETCH_SIZE = 1000;
+
+    /**
+     * How often, in milliseconds, the segments are refreshed from the manifest.
+     */
+    private static final long REFRESH_DELAY = 60_000;
+
+    private static final Comparator<TimeEntryView> DATE_THEN_ID = Comparator
+        .comparing(TimeEntryView::getDate)
+        .thenComparing(TimeEntryView::getId);
+
+    private final Logger log = LoggerFactory.getLogger(TimeEntryArchiveService.class);
+
+    private final TimeEntryRepository timeEntryRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Path directory;
+
+    private final int hotMonths;
+
+    /**
+     * The archived segments, ordered by their first date. Replaced as a whole when segments are added or removed, under
+     * {@link #segmentsLock} rather than the lock of archival runs, so that refreshes do not wait for a run to end.
+     */
+    private volatile List<TimeEntrySegment> segments = List.of();
+
+    private final Object segmentsLock = new Object();
+
+    public TimeEntryArchiveService(
+        TimeEntryRepository timeEntryRepository,
+        PlatformTransactionManager transactionManager,
+        ApplicationProperties applicationProperties
+    ) {
+        this.timeEntryRepository = timeEntryRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.directory = Paths.get(applicationProperties.getTimeEntryArchive().getDirectory());
+        this.hotMonths = applicationProperties.getTimeEntryArchive().getHotMonths();
+    }
+
+    /**
+     * Open the segments of the manifest once the application is ready, when the database is migrated.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        load();
+    }
+
+    /**
+     * Open the segments listed in the manifest that are not open yet, and drop the ones no longer listed, to pick up the
+     * segments archived by other instances. Only the headers of new segments are read.
+     */
+    @Scheduled(fixedDelay = REFRESH_DELAY, initialDelay = REFRESH_DELAY)
+    public void load() {
+        synchronized (segmentsLock) {
+            // Read under the lock: a segment added since was committed before, so it is listed
+            List<String> fileNames = timeEntryRepository.findAllSegmentFileNames();
+            Map<Path, TimeEntrySegment> opened = segments
+                .stream()
+                .collect(Collectors.toMap(TimeEntrySegment::getPath, Function.identity()));
+            List<TimeEntrySegment> loaded = new ArrayList<>();
+            for (String fileName : fileNames) {
+                Path file = directory.resolve(fileName);
+                TimeEntrySegment segment = opened.get(file);
+                if (segment == null) {
+                    try {
+                        segment = TimeEntrySegment.open(file);
+                    } catch (IOException e) {
+                        log.error("Could not open the TimeEntry segment {}, its entries cannot be read", file, e);
+                        continue;
+                    }
+                }
+                loaded.add(segment);
+            }
+            loaded.sort(Comparator.comparing(TimeEntrySegment::getMinDate));
+            if (loaded.size() != segments.size()) {
+                log.info("Opened the TimeEntry archive: {} segments in {}", loaded.size(), directory.toAbsolutePath());
+            }
+            segments = List.copyOf(loaded);
+        }
+    }
+
+    /**
+     * Archive the months older than the configured number of hot months.
+     * <p>
+     * This is scheduled to get fired everyday, at 03:30 (am).
+     */
+    @Scheduled(cron = "0 30 3 * * ?")
+    public void archive() {
+        archiveBefore(YearMonth.now().minusMonths(hotMonths));
+    }
+
+    /**
+     * Move the time entries of every month before the given one into new segments, one month per transaction.
+     * <p>
+     * Entries written to an already archived month are archived into another segment of that month. A month whose
+     * entries change while it is archived is left in the database until the next run. Files of the archive directory
+     * that are not listed in the manifest are reconciled first.
+     *
+     * @param end the first month to keep in the database.
+     * @return the number of entries archived.
+     */
+    public synchronized long archiveBefore(YearMonth end) {
+        transactionTemplate.executeWithoutResult(status -> reconcile());
+        long archived = 0;
+        Optional<LocalDate> next = firstDateFrom(null);
+        while (next.isPresent() && next.get().isBefore(end.atDay(1))) {
+            YearMonth month = YearMonth.from(next.get());
+            archived += transactionTemplate.execute(status -> archiveMonth(month, status));
+            next = firstDateFrom(month.plusMonths(1).atDay(1));
+        }
+        return archived;
+    }
+
+    /**
+     * Get the first day after the archived months. Entries of earlier days may be in the database or archived.
+     *
+     * @return the first day after the last archived month, or {@link #NOTHING_ARCHIVED}.
+     */
+    public LocalDate getArchivedBefore() {
+        return segments
+            .stream()
+            .map(TimeEntrySegment::getMaxDate)
+            .max(Comparator.naturalOrder())
+            .map(date -> YearMonth.from(date).plusMonths(1).atDay(1))
+            .orElse(NOTHING_ARCHIVED);
+    }
+
+    /**
+     * Get a time entry, from the database or else from the archive.
+     *
+     * @param id the id of the entry.
+     * @return the view of the entry, if found.
+     */
+    public Optional<TimeEntryView> findViewById(Long id) {
+        return timeEntryRepository.findViewById(id).or(() -> findArchivedById(id));
+    }
+
+    /**
+     * Check whether a time entry is archived, and so can no longer be changed nor deleted.
+     *
+     * @param id the id of the entry.
+     * @return whether the entry is in the archive.
+     */
+    public boolean isArchived(Long id) {
+        return findArchivedById(id).isPresent();
+    }
+
+    /**
+     * Get time entries, from the database or else from the archive.
+     *
+     * @param ids the ids of the entries.
+     * @return the views of the entries found, in no particular order.
+     */
+    public List<TimeEntryView> findViewsByIdIn(Collection<Long> ids) {
+        List<TimeEntryView> timeEntries = new ArrayList<>(timeEntryRepository.findViewsByIdIn(ids));
+        Set<Long> missing = new HashSet<>(ids);
+        timeEntries.forEach(timeEntry -> missing.remove(timeEntry.getId()));
+        for (Iterator<TimeEntrySegment> it = segments.iterator(); !missing.isEmpty() && it.hasNext();) {
+            for (TimeEntryView timeEntry : it.next().findAllById(missing)) {
+                missing.remove(timeEntry.getId());
+                timeEntries.add(timeEntry);
+            }
+        }
+        return timeEntries;
+    }
+
+    /**
+     * Get a page of the time entries matching the given filters, from the database and the archive.
+     *
+     * @see TimeEntryRepository#findPageAfter
+     */
+    public List<TimeEntryView> findPageAfter(
+        Long userId,
+        LocalDate fromDate,
+        LocalDate toDate,
+        String taskName,
+        LocalDate afterDate,
+        Long afterId,
+        int limit
+    ) {
+        List<TimeEntryView> hot = timeEntryRepository.findPageAfter(userId, fromDate, toDate, taskName, afterDate, afterId, limit);
+        List<Iterator<TimeEntryView>> sources = archived(userId, fromDate, toDate, taskName, afterDate, afterId);
+        if (sources.isEmpty()) {
+            return hot;
+        }
+        sources.add(hot.iterator());
+        Iterator<TimeEntryView> merged = new MergingIterator(sources);
+        List<TimeEntryView> page = new ArrayList<>(limit);
+        while (page.size() < limit && merged.hasNext()) {
+            page.add(merged.next());
+        }
+        return page;
+    }
+
+    /**
+     * Get a page of the time entries of several tasks, from the database and the archive.
+     * <p>
+     * The database page is read by a single query. Archived entries are merged into it name by name, as the segments
+     * are read in memory.
+     *
+     * @see TimeEntryRepository#findPageOfTasksAfter
+     */
+    public List<TimeEntryView> findPageOfTasksAfter(Long userId, List<String> taskNames, LocalDate afterDate, Long afterId, int limit) {
+        List<TimeEntryView> hot = timeEntryRepository.findPageOfTasksAfter(userId, taskNames, afterDate, afterId, limit);
+        if (segments.isEmpty()) {
+            return hot;
+        }
+        List<TimeEntryView> page = new ArrayList<>(limit);
+        int next = 0;
+        for (int i = 0; i < taskNames.size() && page.size() < limit; i++) {
+            String taskName = taskNames.get(i);
+            int from = next;
+            while (next < hot.size() && hot.get(next).getTaskName().equals(taskName)) {
+                next++;
+            }
+            boolean resume = i == 0;
+            List<Iterator<TimeEntryView>> sources = archived(
+                userId,
+                null,
+                null,
+                taskName,
+                resume ? afterDate : null,
+                resume ? afterId : null
+            );
+            sources.add(hot.subList(from, next).iterator());
+            Iterator<TimeEntryView> merged = new MergingIterator(sources);
+            while (page.size() < limit && merged.hasNext()) {
+                page.add(merged.next());
+            }
+        }
+        return page;
+    }
+
+    /**
+     * Probe the page {@link #findPageAfter} would return, as {@code {id, version}} rows.
+     * <p>
+     * The probe holds the probe of the database page followed by the ids and versions of the archived page, so that it
+     * changes whenever the merged page can.
+     *
+     * @see TimeEntryRepository#findPageVersionsAfter
+     */
+    public List<Object[]> findPageVersionsAfter(
+        Long userId,
+        LocalDate fromDate,
+        LocalDate toDate,
+        String taskName,
+        LocalDate afterDate,
+        Long afterId,
+        int limit
+    ) {
+        List<Object[]> versions = timeEntryRepository.findPageVersionsAfter(userId, fromDate, toDate, taskName, afterDate, afterId, limit);
+        List<Iterator<TimeEntryView>> sources = archived(userId, fromDate, toDate, taskName, afterDate, afterId);
+        if (sources.isEmpty()) {
+            return versions;
+        }
+        versions = new ArrayList<>(versions);
+        Iterator<TimeEntryView> merged = new MergingIterator(sources);
+        for (int i = 0; i < limit && merged.hasNext(); i++) {
+            TimeEntryView timeEntry = merged.next();
+            versions.add(new Object[] { timeEntry.getId(), timeEntry.getVersion() });
+        }
+        return versions;
+    }
+
+    /**
+     * Stream all the time entries matching the given filters, from the database and the archive. The stream must be
+     * closed, and read in a transaction.
+     *
+     * @see TimeEntryRepository#streamViews
+     */
+    public Stream<TimeEntryView> streamViews(Long userId, LocalDate fromDate, LocalDate toDate, String taskName, int fetchSize) {
+        Stream<TimeEntryView> hot = timeEntryRepository.streamViews(userId, fromDate, toDate, taskName, fetchSize);
+        List<Iterator<TimeEntryView>> sources = archived(userId, fromDate, toDate, taskName, null, null);
+        if (sources.isEmpty()) {
+            return hot;
+        }
+        sources.add(hot.iterator());
+        return StreamSupport
+            .stream(Spliterators.spliteratorUnknownSize(new MergingIterator(sources), Spliterator.ORDERED | Spliterator.NONNULL), false)
+            .onClose(hot::close);
+    }
+
+    private long archiveMonth(YearMonth month, TransactionStatus status) {
+        timeEntryRepository.lockArchive();
+        TimeEntrySegment segment;
+        try (
+            Stream<TimeEntryView> rows = timeEntryRepository.streamViews(null, month.atDay(1), month.atEndOfMonth(), null, FETCH_SIZE)
+        ) {
+            Iterator<TimeEntryView> timeEntries = rows.iterator();
+            if (!timeEntries.hasNext()) {
+                return 0;
+            }
+            segment = writeSegment(month, timeEntries);
+        }
+        // The segment is listed with the deletion of its entries, and goes away if they stay. Next runs resolve unknown outcomes
+        TransactionSynchronizationManager.registerSynchronization(
+            new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int completion) {
+                    if (completion == STATUS_COMMITTED) {
+                        add(segment);
+                    } else if (completion == STATUS_ROLLED_BACK) {
+                        delete(segment.getPath());
+                    }
+                }
+            }
+        );
+
+        int deleted = timeEntryRepository.deleteAllUnchanged(segment.iterator(null, null, null, null, null, null));
+        if (deleted != segment.getRowCount()) {
+            log.warn("TimeEntries of {} changed while being archived, leaving them for the next run", month);
+            status.setRollbackOnly();
+            return 0;
+        }
+        timeEntryRepository.insertSegment(segment.getPath().getFileName().toString(), segment.getRowCount());
+        log.info("Archived {} TimeEntries of {} into {}", segment.getRowCount(), month, segment.getPath());
+        return segment.getRowCount();
+    }
+
+    /**
+     * Write a new segment file for a month, under the first name of the month that is not taken.
+     */
+    private TimeEntrySegment writeSegment(YearMonth month, Iterator<TimeEntryView> timeEntries) {
+        try {
+            Files.createDirectories(directory);
+            Path path = directory.resolve("time-entries-" + month + SEGMENT_SUFFIX);
+            for (int sequence = 1; Files.exists(path); sequence++) {
+                path = directory.resolve("time-entries-" + month + "-" + sequence + SEGMENT_SUFFIX);
+            }
+            // Archivers hold the lock, so the name is still free: the file is created exclusively all the same
+            return TimeEntrySegment.write(path, timeEntries);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Resolve the files of the archive directory that are not listed in the manifest, under the archive lock.
+     * <p>
+     * Such a file was written by a transaction that never committed, if its entries are still in the database: it is
+     * deleted. Otherwise it was archived before segments were listed, and it is listed.
+     */
+    private void reconcile() {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        timeEntryRepository.lockArchive();
+        Set<String> listed = new HashSet<>(timeEntryRepository.findAllSegmentFileNames());
+        List<Path> unlisted = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                if (!listed.contains(file.getFileName().toString())) {
+                    unlisted.add(file);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        for (Path file : unlisted) {
+            TimeEntrySegment segment;
+            try {
+                segment = TimeEntrySegment.open(file);
+            } catch (IOException e) {
+                log.warn("Deleting the unreadable TimeEntry segment {}, which is not listed", file, e);
+                delete(file);
+                continue;
+            }
+            if (isInDatabase(segment)) {
+                log.warn("Deleting the TimeEntry segment {}, whose entries were never deleted from the database", file);
+                delete(file);
+            } else {
+                log.info("Listing the TimeEntry segment {}, archived before segments were listed", file);
+                timeEntryRepository.insertSegment(file.getFileName().toString(), segment.getRowCount());
+            }
+        }
+    }
+
+    private boolean isInDatabase(TimeEntrySegment segment) {
+        List<Long> ids = new ArrayList<>(FETCH_SIZE);
+        for (Iterator<TimeEntryView> it = segment.iterator(null, null, null, null, null, null); it.hasNext();) {
+            ids.add(it.next().getId());
+            if ((ids.size() == FETCH_SIZE || !it.hasNext()) && timeEntryRepository.countByIdIn(ids) > 0) {
+                return true;
+            }
+            if (ids.size() == FETCH_SIZE) {
+                ids.clear();
+            }
+        }
+        return false;
+    }
+
+    private Optional<TimeEntryView> findArchivedById(Long id) {
+        Optional<TimeEntryView> timeEntry = Optional.empty();
+        for (Iterator<TimeEntrySegment> it = segments.iterator(); timeEntry.isEmpty() && it.hasNext();) {
+            timeEntry = it.next().findById(id);
+        }
+        return timeEntry;
+    }
+
+    private Optional<LocalDate> firstDateFrom(LocalDate fromDate) {
+        return timeEntryRepository
+            .findPageAfter(null, fromDate, null, null, null, null, 1)
+            .stream()
+            .findFirst()
+            .map(TimeEntryView::getDate);
+    }
+
+    private List<Iterator<TimeEntryView>> archived(
+        Long userId,
+        LocalDate fromDate,
+        LocalDate toDate,
+        String taskName,
+        LocalDate afterDate,
+        Long afterId
+    ) {
+        List<Iterator<TimeEntryView>> sources = new ArrayList<>();
+        for (TimeEntrySegment segment : segments) {
+            if (segment.mayContain(userId, fromDate, toDate)) {
+                sources.add(segment.iterator(userId, fromDate, toDate, taskName, afterDate, afterId));
+            }
+        }
+        return sources;
+    }
+
+    private void add(TimeEntrySegment segment) {
+        synchronized (segmentsLock) {
+            List<TimeEntrySegment> updated = new ArrayList<>(segments);
+            updated.add(segment);
+            updated.sort(Comparator.comparing(TimeEntrySegment::getMinDate));
+            segments = List.copyOf(updated);
+        }
+    }
+
+    private void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            // It is not listed, so it is never read: the next run deletes it
+            log.error("Could not delete the TimeEntry segment {}, whose entries stayed in the database", file, e);
+        }
+    }
+
+    /**
+     * Merges iterators ordered by date then id into one.
+     */
+    private static final class MergingIterator implements Iterator<TimeEntryView> {
+
+        private final PriorityQueue<Head> heads = new PriorityQueue<>(Comparator.comparing((Head head) -> head.value, DATE_THEN_ID));
+
+        MergingIterator(List<Iterator<TimeEntryView>> sources) {
+            sources.forEach(this::advance);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !heads.isEmpty();
+        }
+
+        @Override
+        public TimeEntryView next() {
+            Head head = heads.poll();
+            if (head == null) {
+                throw new NoSuchElementException();
+            }
+            advance(head.source);
+            return head.value;
+        }
+
+        private void advance(Iterator<TimeEntryView> source) {
+            if (source.hasNext()) {
+                heads.add(new Head(source.next(), source));
+            }
+        }
+
+        private static final class Head {
+
+            private final TimeEntryView value;
+
+            private final Iterator<TimeEntryView> source;
+
+            Head(TimeEntryView value, Iterator<TimeEntryView> source) {
+                this.value = value;
+                this.source = source;
+            }
+        }
+    }
+}
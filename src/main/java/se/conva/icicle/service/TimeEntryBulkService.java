@@ -0,0 +1,183 @@
+package se.conva.icicle.service;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceException;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import se.conva.icicle.domain.TimeEntry;
+import se.conva.icicle.domain.TimeEntryView;
+import se.conva.icicle.domain.User;
+import se.conva.icicle.service.dto.TimeEntryBulkResultDTO;
+import se.conva.icicle.service.event.TimeEntryChange;
+import se.conva.icicle.service.event.TimeEntryChangedEvent;
+
+/**
+ * Service for creating {@link TimeEntry} rows in bulk.
+ * <p>
+ * The request body is read with Jackson's streaming parser, one entry at a time, and entries are inserted
+ * {@value #CHUNK_SIZE} per transaction. Within a transaction, Hibernate groups the inserts into JDBC batches of
+ * {@code hibernate.jdbc.batch_size} and the {@code pooled-lo} optimizer hands out ids without a sequence round-trip
+ * per row.
+ */
+@Service
+public class TimeEntryBulkService {
+
+    static final int CHUNK_SIZE = 500;
+
+    private final Logger log = LoggerFactory.getLogger(TimeEntryBulkService.class);
+
+    private final EntityManager entityManager;
+
+    private final Validator validator;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ObjectMapper objectMapper;
+
+    private final ObjectReader timeEntryReader;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final TaskService taskService;
+
+    public TimeEntryBulkService(
+        EntityManager entityManager,
+        Validator validator,
+        PlatformTransactionManager transactionManager,
+        ObjectMapper objectMapper,
+        ApplicationEventPublisher eventPublisher,
+        TaskService taskService
+    ) {
+        this.entityManager = entityManager;
+        this.validator = validator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.timeEntryReader = objectMapper.readerFor(TimeEntry.class);
+        this.eventPublisher = eventPublisher;
+        this.taskService = taskService;
+    }
+
+    /**
+     * Create all the time entries of a JSON array.
+     * <p>
+     * Every item gets a result: {@code 201} with its new id, {@code 400} if it is not valid,
+     * or {@code 500} if the chunk it belongs to could not be saved. If the array itself is malformed,
+     * a {@code 400} result is added for the item that could not be read and the remaining items are ignored;
+     * the items read before it are still saved.
+     *
+     * @param in the JSON array of time entries.
+     * @return the result of each item, in the order of the array.
+     * @throws JsonProcessingException if {@code in} does not start with a JSON array.
+     * @throws IOException if {@code in} could not be read.
+     */
+    public List<TimeEntryBulkResultDTO> createAll(InputStream in) throws IOException {
+        List<TimeEntryBulkResultDTO> results = new ArrayList<>();
+        try (JsonParser parser = objectMapper.getFactory().createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new JsonParseException(parser, "Expected a JSON array of time entries");
+            }
+            List<TimeEntry> chunk = new ArrayList<>(CHUNK_SIZE);
+            List<Integer> chunkIndexes = new ArrayList<>(CHUNK_SIZE);
+            int index = 0;
+            while (true) {
+                TimeEntry timeEntry;
+                try {
+                    if (parser.nextToken() != JsonToken.START_OBJECT) {
+                        break;
+                    }
+                    timeEntry = timeEntryReader.readValue(parser);
+                } catch (JsonProcessingException e) {
+                    log.debug("Could not read time entry {} of bulk request: {}", index, e.getOriginalMessage());
+                    results.add(new TimeEntryBulkResultDTO(index, null, HttpStatus.BAD_REQUEST.value(), "error.malformed"));
+                    break;
+                }
+                String error = validate(timeEntry);
+                if (error != null) {
+                    results.add(new TimeEntryBulkResultDTO(index, null, HttpStatus.BAD_REQUEST.value(), error));
+                } else {
+                    chunk.add(timeEntry);
+                    chunkIndexes.add(index);
+                    if (chunk.size() == CHUNK_SIZE) {
+                        saveChunk(chunk, chunkIndexes, results);
+                    }
+                }
+                index++;
+            }
+            saveChunk(chunk, chunkIndexes, results);
+        }
+        results.sort((a, b) -> Integer.compare(a.getIndex(), b.getIndex()));
+        return results;
+    }
+
+    private String validate(TimeEntry timeEntry) {
+        if (timeEntry.getId() != null) {
+            return "error.idexists";
+        }
+        Set<ConstraintViolation<TimeEntry>> violations = validator.validate(timeEntry);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations
+            .stream()
+            .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+            .sorted()
+            .collect(Collectors.joining(", "));
+    }
+
+    private void saveChunk(List<TimeEntry> chunk, List<Integer> chunkIndexes, List<TimeEntryBulkResultDTO> results) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        log.debug("Saving a chunk of {} TimeEntries", chunk.size());
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (TimeEntry timeEntry : chunk) {
+                    if (timeEntry.getUser() != null && timeEntry.getUser().getId() != null) {
+                        // Only the foreign key is needed, do not load the user
+                        timeEntry.setUser(entityManager.getReference(User.class, timeEntry.getUser().getId()));
+                    }
+                    timeEntry.setTask(taskService.intern(timeEntry.getTaskName()));
+                    entityManager.persist(timeEntry);
+                }
+                eventPublisher.publishEvent(
+                    new TimeEntryChangedEvent(
+                        chunk.stream().map(timeEntry -> new TimeEntryChange(null, TimeEntryView.of(timeEntry))).collect(Collectors.toList())
+                    )
+                );
+                entityManager.flush();
+                // Keep the persistence context small, the entries are not needed anymore
+                entityManager.clear();
+            });
+            for (int i = 0; i < chunk.size(); i++) {
+                results.add(new TimeEntryBulkResultDTO(chunkIndexes.get(i), chunk.get(i).getId(), HttpStatus.CREATED.value(), null));
+            }
+        } catch (DataAccessException | PersistenceException e) {
+            log.warn("Could not save a chunk of {} TimeEntries: {}", chunk.size(), e.getMessage());
+            for (Integer index : chunkIndexes) {
+                results.add(new TimeEntryBulkResultDTO(index, null, HttpStatus.INTERNAL_SERVER_ERROR.value(), "error.persistence"));
+            }
+        }
+        chunk.clear();
+        chunkIndexes.clear();
+    }
+}
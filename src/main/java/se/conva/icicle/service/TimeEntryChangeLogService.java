@@ -0,0 +1,137 @@
+package se.conva.icicle.service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import se.conva.icicle.domain.TimeEntryChangeLog;
+import se.conva.icicle.domain.TimeEntryView;
+import se.conva.icicle.repository.TimeEntryChangeLogRepository;
+import se.conva.icicle.service.dto.TimeEntryChangeDTO;
+import se.conva.icicle.service.dto.TimeEntryChangesDTO;
+import se.conva.icicle.service.event.TimeEntryChange;
+import se.conva.icicle.service.event.TimeEntryChangedEvent;
+
+/**
+ * Service recording {@link TimeEntryChangeLog changes} of time entries, so that clients can sync only what changed
+ * since they last asked.
+ */
+@Service
+@Transactional
+public class TimeEntryChangeLogService {
+
+    // Changes numbered per read at most, later ones are numbered by the next read
+    static final int SEQUENCE_LIMIT = 10_000;
+
+    private final Logger log = LoggerFactory.getLogger(TimeEntryChangeLogService.class);
+
+    private final TimeEntryChangeLogRepository timeEntryChangeLogRepository;
+
+    private final TimeEntryArchiveService timeEntryArchiveService;
+
+    public TimeEntryChangeLogService(
+        TimeEntryChangeLogRepository timeEntryChangeLogRepository,
+        TimeEntryArchiveService timeEntryArchiveService
+    ) {
+        this.timeEntryChangeLogRepository = timeEntryChangeLogRepository;
+        this.timeEntryArchiveService = timeEntryArchiveService;
+    }
+
+    /**
+     * Record written time entries, in the writing transaction. The changes are numbered once committed.
+     * <p>
+     * An entry that is deleted, or moved away from a user, leaves a tombstone for the user who had it.
+     *
+     * @param event the written time entries.
+     */
+    @EventListener
+    public void onTimeEntryChanged(TimeEntryChangedEvent event) {
+        Instant now = Instant.now();
+        List<TimeEntryChangeLog> changes = new ArrayList<>();
+        for (TimeEntryChange change : event.getChanges()) {
+            TimeEntryView before = change.getBefore();
+            TimeEntryView after = change.getAfter();
+            if (before != null && (after == null || !Objects.equals(before.getUserId(), after.getUserId()))) {
+                changes.add(new TimeEntryChangeLog().timeEntryId(before.getId()).userId(before.getUserId()).deleted(true).changedAt(now));
+            }
+            if (after != null) {
+                changes.add(new TimeEntryChangeLog().timeEntryId(after.getId()).userId(after.getUserId()).deleted(false).changedAt(now));
+            }
+        }
+        timeEntryChangeLogRepository.insertAll(changes);
+    }
+
+    /**
+     * Get the changes of time entries after the given cursor, with the current state of the entries still there.
+     * <p>
+     * Archived entries are still there: their upserts are read back from the archive, not turned into tombstones.
+     * <p>
+     * Only the latest change of each entry in the page is returned. The changes committed since the previous call are
+     * numbered first: as numbers are given in commit order, a later call from the returned cursor never misses a change
+     * committed late.
+     *
+     * @param userId only return changes of entries of this user, ignored if {@code null}.
+     * @param since the cursor returned by the previous call, {@code 0} for a first sync.
+     * @param limit the maximum number of changes to read.
+     * @return the changes, ordered by sequence.
+     */
+    public TimeEntryChangesDTO findChangesAfter(Long userId, long since, int limit) {
+        log.debug("Request to get the changes of TimeEntries of user {} after {}", userId, since);
+        timeEntryChangeLogRepository.sequencePending(SEQUENCE_LIMIT);
+        PageRequest page = PageRequest.of(0, limit + 1);
+        List<TimeEntryChangeLog> changes = userId == null
+            ? timeEntryChangeLogRepository.findBySequenceGreaterThanOrderBySequence(since, page)
+            : timeEntryChangeLogRepository.findByUserIdAndSequenceGreaterThanOrderBySequence(userId, since, page);
+        boolean hasMore = changes.size() > limit;
+        if (hasMore) {
+            changes = changes.subList(0, limit);
+        }
+
+        Set<Long> upsertedIds = changes
+            .stream()
+            .filter(change -> !change.isDeleted())
+            .map(TimeEntryChangeLog::getTimeEntryId)
+            .collect(Collectors.toSet());
+        Map<Long, TimeEntryView> timeEntries = upsertedIds.isEmpty()
+            ? Map.of()
+            : timeEntryArchiveService
+                .findViewsByIdIn(upsertedIds)
+                .stream()
+                .collect(Collectors.toMap(TimeEntryView::getId, Function.identity()));
+        Map<Long, TimeEntryChangeDTO> latest = new LinkedHashMap<>();
+        for (TimeEntryChangeLog change : changes) {
+            TimeEntryView timeEntry = change.isDeleted() ? null : timeEntries.get(change.getTimeEntryId());
+            if (timeEntry != null && userId != null && !userId.equals(timeEntry.getUserId())) {
+                // Moved to another user since: the tombstone is further on, but the entry is gone for this user already
+                timeEntry = null;
+            }
+            latest.remove(change.getTimeEntryId());
+            latest.put(change.getTimeEntryId(), new TimeEntryChangeDTO(change.getSequence(), change.getTimeEntryId(), timeEntry));
+        }
+        long cursor = changes.isEmpty() ? since : changes.get(changes.size() - 1).getSequence();
+        return new TimeEntryChangesDTO(new ArrayList<>(latest.values()), cursor, hasMore);
+    }
+
+    /**
+     * Delete the changes superseded by a later change of the same entry.
+     * <p>
+     * This is scheduled to get fired everyday, at 02:45 (am).
+     */
+    @Scheduled(cron = "0 45 2 * * ?")
+    public void compact() {
+        int deleted = timeEntryChangeLogRepository.deleteSuperseded();
+        log.info("Compacted the TimeEntry change log: {} superseded changes deleted", deleted);
+    }
+}
@@ -0,0 +1,157 @@
+package se.conva.icicle.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import se.conva.icicle.domain.TimeEntryView;
+
+/**
+ * Service for exporting {@link se.conva.icicle.domain.TimeEntry} rows in bulk.
+ * <p>
+ * Rows are read through a forward-only database cursor, merged with the archived rows, and written to the output as
+ * they arrive, so an export uses the same amount of memory whatever its size.
+ */
+@Service
+public class TimeEntryExportService {
+
+    /**
+     * The formats an export can be written in.
+     */
+    public enum Format {
+        /** One JSON object per line. */
+        NDJSON,
+        /** Comma-separated values with a header line, as of RFC 4180. */
+        CSV,
+    }
+
+    private static final int FETCH_SIZE = 1000;
+
+    private static final int FLUSH_INTERVAL = 1000;
+
+    private static final String CSV_HEADER = "id,date,minutesWorked,taskName,userId,userLogin";
+
+    // Spreadsheets evaluate a cell starting with one of these as a formula
+    private static final String CSV_FORMULA_PREFIXES = "=+-@\t\r";
+
+    private final Logger log = LoggerFactory.getLogger(TimeEntryExportService.class);
+
+    private final TimeEntryArchiveService timeEntryArchiveService;
+
+    private final ObjectWriter jsonWriter;
+
+    public TimeEntryExportService(TimeEntryArchiveService timeEntryArchiveService, ObjectMapper objectMapper) {
+        this.timeEntryArchiveService = timeEntryArchiveService;
+        this.jsonWriter =
+            objectMapper
+                .writerFor(TimeEntryView.class)
+                .without(SerializationFeature.INDENT_OUTPUT)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                // The rows share one generator, which would otherwise put a space before every row after the first
+                .withRootValueSeparator("");
+    }
+
+    /**
+     * Write all the time entries matching the given filters to {@code out}, ordered by date then id.
+     * <p>
+     * The output is flushed after the first row and then every {@value #FLUSH_INTERVAL} rows, so the client starts
+     * receiving data right away. {@code out} is flushed but not closed.
+     *
+     * @param userId only export entries of this user, ignored if {@code null}.
+     * @param fromDate only export entries on or after this date, ignored if {@code null}.
+     * @param toDate only export entries on or before this date, ignored if {@code null}.
+     * @param taskName only export entries with this task name, ignored if {@code null}.
+     * @param format the format to write.
+     * @param out the stream to write to.
+     * @return the number of rows written.
+     * @throws IOException if writing to {@code out} failed.
+     */
+    @Transactional(readOnly = true)
+    public long export(Long userId, LocalDate fromDate, LocalDate toDate, String taskName, Format format, OutputStream out)
+        throws IOException {
+        log.debug("Request to export TimeEntries as {}", format);
+        long count;
+        try (Stream<TimeEntryView> rows = timeEntryArchiveService.streamViews(userId, fromDate, toDate, taskName, FETCH_SIZE)) {
+            if (format == Format.CSV) {
+                count = writeCsv(rows.iterator(), out);
+            } else {
+                count = writeNdjson(rows.iterator(), out);
+            }
+        }
+        log.debug("Exported {} TimeEntries", count);
+        return count;
+    }
+
+    private long writeNdjson(Iterator<TimeEntryView> rows, OutputStream out) throws IOException {
+        long count = 0;
+        try (JsonGenerator generator = jsonWriter.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            while (rows.hasNext()) {
+                jsonWriter.writeValue(generator, rows.next());
+                generator.writeRaw('\n');
+                if (count++ % FLUSH_INTERVAL == 0) {
+                    generator.flush();
+                }
+            }
+        }
+        return count;
+    }
+
+    private long writeCsv(Iterator<TimeEntryView> rows, OutputStream out) throws IOException {
+        long count = 0;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        writer.write("\r\n");
+        while (rows.hasNext()) {
+            TimeEntryView row = rows.next();
+            writer.write(String.valueOf(row.getId()));
+            writer.write(',');
+            writer.write(String.valueOf(row.getDate()));
+            writer.write(',');
+            writer.write(String.valueOf(row.getMinutesWorked()));
+            writer.write(',');
+            writeCsvField(writer, row.getTaskName());
+            writer.write(',');
+            if (row.getUserId() != null) {
+                writer.write(String.valueOf(row.getUserId()));
+            }
+            writer.write(',');
+            writeCsvField(writer, row.getUserLogin());
+            writer.write("\r\n");
+            if (count++ % FLUSH_INTERVAL == 0) {
+                writer.flush();
+            }
+        }
+        writer.flush();
+        return count;
+    }
+
+    private static void writeCsvField(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        if (!value.isEmpty() && CSV_FORMULA_PREFIXES.indexOf(value.charAt(0)) >= 0) {
+            value = "'" + value;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
@@ -0,0 +1,301 @@
+package se.conva.icicle.service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import se.conva.icicle.config.ApplicationProperties;
+import se.conva.icicle.domain.TimeEntryTotal;
+import se.conva.icicle.domain.TimeEntryView;
+import se.conva.icicle.repository.TimeEntryDailyRollupRepository;
+import se.conva.icicle.service.dto.TimeEntrySummaryDTO;
+import se.conva.icicle.service.event.TimeEntryChange;
+import se.conva.icicle.service.event.TimeEntryChangedEvent;
+
+/**
+ * In-memory index of the minutes worked per user and day, answering period totals without a database round-trip.
+ * <p>
+ * Each user has a {@link Series} of primitive arrays indexed by epoch day. The index is loaded from the
+ * {@link se.conva.icicle.domain.TimeEntryDailyRollup daily rollup} once the application is ready, then kept up to date
+ * from committed {@link TimeEntryChangedEvent}s, and reloaded every night after the rollup is verified.
+ * <p>
+ * The index only sees the writes of this instance, so it is disabled by default, and must only be enabled with
+ * {@code application.time-entry-index.enabled} when a single instance uses the database.
+ */
+@Service
+public class TimeEntryMinutesIndex {
+
+    private final Logger log = LoggerFactory.getLogger(TimeEntryMinutesIndex.class);
+
+    private final TimeEntryDailyRollupRepository timeEntryDailyRollupRepository;
+
+    private final TransactionTemplate readOnlyTransactionTemplate;
+
+    private final boolean enabled;
+
+    private final Object loadLock = new Object();
+
+    /**
+     * Held shared by each transaction writing time entries, from its first write until it completes, and exclusively by
+     * a load while it starts reading the rollup.
+     */
+    private final ReentrantReadWriteLock writesLock = new ReentrantReadWriteLock();
+
+    private volatile Map<Long, Series> seriesByUser;
+
+    /**
+     * Changes committed while the index is loading, replayed once it is. Guarded by {@link #loadLock}.
+     */
+    private List<TimeEntryChange> pendingChanges;
+
+    public TimeEntryMinutesIndex(
+        TimeEntryDailyRollupRepository timeEntryDailyRollupRepository,
+        PlatformTransactionManager transactionManager,
+        ApplicationProperties applicationProperties
+    ) {
+        this.timeEntryDailyRollupRepository = timeEntryDailyRollupRepository;
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.enabled = applicationProperties.getTimeEntryIndex().isEnabled();
+    }
+
+    /**
+     * Load the index once the application is ready, off the startup thread.
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        if (enabled) {
+            load();
+        }
+    }
+
+    /**
+     * Reload the index from the rollup, to drop any drift.
+     * <p>
+     * This is scheduled to get fired everyday, at 03:00 (am), after the rollup is verified.
+     */
+    @Scheduled(cron = "0 0 3 * * ?")
+    public void reload() {
+        if (enabled) {
+            load();
+        }
+    }
+
+    /**
+     * Replace the index by a fresh load of the rollup.
+     * <p>
+     * The current index keeps answering during the load. Changes committed meanwhile are queued and replayed on the new
+     * index before it is swapped in. The rollup is read once no transaction writing time entries is in progress, and
+     * changes are queued from then on, so that each change is either read or replayed, never both.
+     */
+    public void load() {
+        if (writesLock.getReadHoldCount() > 0) {
+            throw new IllegalStateException("The TimeEntry minutes index cannot be loaded by a transaction writing time entries");
+        }
+        synchronized (loadLock) {
+            if (pendingChanges != null) {
+                log.debug("The TimeEntry minutes index is already loading");
+                return;
+            }
+            pendingChanges = new ArrayList<>();
+        }
+        Map<Long, Series> loaded = new ConcurrentHashMap<>();
+        try {
+            long start = System.nanoTime();
+            int days = readOnlyTransactionTemplate.execute(status -> {
+                int count = 0;
+                // The connection is taken first, so that writers waiting for the lock do not starve the load of one
+                Stream<TimeEntryTotal> snapshot;
+                writesLock.writeLock().lock();
+                try {
+                    synchronized (loadLock) {
+                        // Changes applied until now are in the rollup read below
+                        pendingChanges.clear();
+                    }
+                    snapshot = timeEntryDailyRollupRepository.streamDailyTotalsPerUser();
+                } finally {
+                    writesLock.writeLock().unlock();
+                }
+                try (Stream<TimeEntryTotal> totals = snapshot) {
+                    for (TimeEntryTotal total : (Iterable<TimeEntryTotal>) totals::iterator) {
+                        loaded
+                            .computeIfAbsent(total.getUserId(), userId -> new Series())
+                            .add(total.getDate().toEpochDay(), total.getTotalMinutes(), total.getEntryCount());
+                        count++;
+                    }
+                }
+                return count;
+            });
+            synchronized (loadLock) {
+                pendingChanges.forEach(change -> apply(loaded, change));
+                seriesByUser = loaded;
+            }
+            log.info(
+                "Loaded the TimeEntry minutes index: {} users, {} days in {} ms",
+                loaded.size(),
+                days,
+                (System.nanoTime() - start) / 1_000_000
+            );
+        } finally {
+            synchronized (loadLock) {
+                pendingChanges = null;
+            }
+        }
+    }
+
+    /**
+     * Hold off loads until the transaction writing time entries completes, so that its changes are either read by a
+     * load or queued for it.
+     *
+     * @param event the written time entries.
+     */
+    @EventListener
+    public void onTimeEntryWritten(TimeEntryChangedEvent event) {
+        if (!enabled || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        writesLock.readLock().lock();
+        TransactionSynchronizationManager.registerSynchronization(
+            new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    writesLock.readLock().unlock();
+                }
+            }
+        );
+    }
+
+    /**
+     * Apply committed time entry changes to the index.
+     *
+     * @param event the written time entries.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTimeEntryChanged(TimeEntryChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        synchronized (loadLock) {
+            if (pendingChanges != null) {
+                pendingChanges.addAll(event.getChanges());
+                return;
+            }
+        }
+        Map<Long, Series> current = seriesByUser;
+        if (current != null) {
+            event.getChanges().forEach(change -> apply(current, change));
+        }
+    }
+
+    /**
+     * Sum the minutes worked by one user during the period containing {@code date}.
+     *
+     * @param period the period to sum over.
+     * @param userId the id of the user.
+     * @param date any day of the period.
+     * @return the total, or empty if the index is disabled or not loaded yet.
+     */
+    public Optional<TimeEntrySummaryDTO> total(TimeEntrySummaryService.Period period, Long userId, LocalDate date) {
+        Map<Long, Series> current = seriesByUser;
+        if (current == null) {
+            return Optional.empty();
+        }
+        TimeEntrySummaryDTO total = new TimeEntrySummaryDTO(userId, null, period.start(date));
+        Series series = current.get(userId);
+        if (series != null) {
+            long[] sums = series.sum(period.start(date).toEpochDay(), period.end(date).toEpochDay());
+            total.setTotalMinutes(sums[0]);
+            total.setEntryCount(sums[1]);
+        }
+        return Optional.of(total);
+    }
+
+    private static void apply(Map<Long, Series> seriesByUser, TimeEntryChange change) {
+        add(seriesByUser, change.getBefore(), -1);
+        add(seriesByUser, change.getAfter(), 1);
+    }
+
+    private static void add(Map<Long, Series> seriesByUser, TimeEntryView timeEntry, int sign) {
+        if (timeEntry == null || timeEntry.getUserId() == null || timeEntry.getMinutesWorked() == null) {
+            return;
+        }
+        seriesByUser
+            .computeIfAbsent(timeEntry.getUserId(), userId -> new Series())
+            .add(timeEntry.getDate().toEpochDay(), sign * (long) timeEntry.getMinutesWorked(), sign);
+    }
+
+    /**
+     * The minutes worked and entry counts of one user, as dense arrays of days starting at {@code firstDay}.
+     * <p>
+     * The arrays grow in either direction as days outside them are written, with some slack to amortize the copies.
+     */
+    static final class Series {
+
+        private static final int SLACK_DAYS = 64;
+
+        private long firstDay;
+
+        private int[] minutes = new int[0];
+
+        private int[] counts = new int[0];
+
+        synchronized void add(long epochDay, long minutesDelta, long countDelta) {
+            if (minutes.length == 0) {
+                firstDay = epochDay;
+                minutes = new int[SLACK_DAYS];
+                counts = new int[SLACK_DAYS];
+            } else if (epochDay < firstDay) {
+                grow((int) (firstDay - epochDay) + SLACK_DAYS, 0);
+            } else if (epochDay >= firstDay + minutes.length) {
+                grow(0, (int) (epochDay - firstDay - minutes.length) + 1 + Math.max(SLACK_DAYS, minutes.length / 2));
+            }
+            int index = (int) (epochDay - firstDay);
+            minutes[index] = Math.toIntExact(minutes[index] + minutesDelta);
+            counts[index] = Math.toIntExact(counts[index] + countDelta);
+        }
+
+        /**
+         * Sum the days from {@code fromDay} to {@code toDay}, both included.
+         *
+         * @return the total minutes and the total entry count.
+         */
+        synchronized long[] sum(long fromDay, long toDay) {
+            int from = (int) Math.max(fromDay - firstDay, 0);
+            int to = (int) Math.min(toDay - firstDay, minutes.length - 1L);
+            long totalMinutes = 0;
+            long totalCount = 0;
+            for (int i = from; i <= to; i++) {
+                totalMinutes += minutes[i];
+                totalCount += counts[i];
+            }
+            return new long[] { totalMinutes, totalCount };
+        }
+
+        private void grow(int before, int after) {
+            int[] grownMinutes = new int[before + minutes.length + after];
+            int[] grownCounts = new int[grownMinutes.length];
+            System.arraycopy(minutes, 0, grownMinutes, before, minutes.length);
+            System.arraycopy(counts, 0, grownCounts, before, counts.length);
+            minutes = grownMinutes;
+            counts = grownCounts;
+            firstDay -= before;
+        }
+    }
+}
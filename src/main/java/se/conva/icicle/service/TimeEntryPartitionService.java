@@ -0,0 +1,57 @@
+package se.conva.icicle.service;
+
+import java.time.YearMonth;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import se.conva.icicle.config.ApplicationProperties;
+import se.conva.icicle.repository.TimeEntryRepository;
+
+/**
+ * Service creating the monthly partitions of time entries ahead of time, so that new entries never land in the default
+ * partition. Does nothing where the table is not partitioned.
+ */
+@Service
+@Transactional
+public class TimeEntryPartitionService {
+
+    private final Logger log = LoggerFactory.getLogger(TimeEntryPartitionService.class);
+
+    private final TimeEntryRepository timeEntryRepository;
+
+    private final int monthsAhead;
+
+    public TimeEntryPartitionService(TimeEntryRepository timeEntryRepository, ApplicationProperties applicationProperties) {
+        this.timeEntryRepository = timeEntryRepository;
+        this.monthsAhead = applicationProperties.getTimeEntryPartitions().getMonthsAhead();
+    }
+
+    /**
+     * Create the partitions ahead once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void createPartitionsOnStartup() {
+        createPartitionsAhead();
+    }
+
+    /**
+     * Create the partitions of the current month and of the configured months after it.
+     * <p>
+     * This is scheduled to get fired everyday, at 02:15 (am).
+     *
+     * @return the number of partitions created.
+     */
+    @Scheduled(cron = "0 15 2 * * ?")
+    public int createPartitionsAhead() {
+        YearMonth current = YearMonth.now();
+        int created = timeEntryRepository.createPartitions(current, current.plusMonths(monthsAhead));
+        if (created > 0) {
+            log.info("Created {} TimeEntry partitions through {}", created, current.plusMonths(monthsAhead));
+        }
+        return created;
+    }
+}
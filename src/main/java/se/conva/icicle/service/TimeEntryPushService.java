@@ -0,0 +1,293 @@
+package se.conva.icicle.service;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import se.conva.icicle.config.ApplicationProperties;
+import se.conva.icicle.domain.TimeEntryView;
+import se.conva.icicle.service.event.TimeEntryChange;
+import se.conva.icicle.service.event.TimeEntryChangedEvent;
+
+/**
+ * Service pushing committed time entry changes to the open Server-Sent Events connections of the users owning them.
+ * <p>
+ * Publishing never waits for a connection: events are only appended to a bounded buffer per connection, which is
+ * drained on a dedicated, bounded executor. A connection that falls behind by more than the buffer loses its pending
+ * events and gets a {@value #RESYNC_EVENT} event instead, telling the client to fetch its entries again. A connection
+ * whose send stays pending longer than the send timeout, as its client does not read, is dropped.
+ */
+@Service
+public class TimeEntryPushService {
+
+    public static final String UPDATED_EVENT = "time-entry-updated";
+
+    public static final String DELETED_EVENT = "time-entry-deleted";
+
+    public static final String RESYNC_EVENT = "resync";
+
+    private static final PushEvent RESYNC = new PushEvent(RESYNC_EVENT, "");
+
+    private static final PushEvent HEARTBEAT = new PushEvent(null, null);
+
+    private final Logger log = LoggerFactory.getLogger(TimeEntryPushService.class);
+
+    private final Map<Long, Set<Subscription>> subscriptionsByUser = new ConcurrentHashMap<>();
+
+    private final Executor executor;
+
+    private final int bufferSize;
+
+    private final long timeoutMillis;
+
+    private final long sendTimeoutNanos;
+
+    public TimeEntryPushService(@Qualifier("timeEntryPushExecutor") Executor executor, ApplicationProperties applicationProperties) {
+        this.executor = executor;
+        this.bufferSize = applicationProperties.getTimeEntryPush().getBufferSize();
+        this.timeoutMillis = applicationProperties.getTimeEntryPush().getTimeout().toMillis();
+        this.sendTimeoutNanos = applicationProperties.getTimeEntryPush().getSendTimeout().toNanos();
+    }
+
+    /**
+     * Open a connection receiving the changes of the entries of one user.
+     *
+     * @param userId the id of the user.
+     * @return the emitter of the connection.
+     */
+    public SseEmitter subscribe(Long userId) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscription subscription = new Subscription(userId, emitter);
+        subscriptionsByUser.compute(
+            userId,
+            (id, subscriptions) -> {
+                Set<Subscription> subscribed = subscriptions != null ? subscriptions : ConcurrentHashMap.newKeySet();
+                subscribed.add(subscription);
+                return subscribed;
+            }
+        );
+        emitter.onCompletion(() -> unsubscribe(subscription));
+        emitter.onError(e -> unsubscribe(subscription));
+        log.debug("Subscribed to the TimeEntry changes of user {}", userId);
+        return emitter;
+    }
+
+    /**
+     * Push committed time entry changes to the connections of their users.
+     * <p>
+     * An entry moved to another user is deleted for the user who had it.
+     *
+     * @param event the written time entries.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTimeEntryChanged(TimeEntryChangedEvent event) {
+        if (subscriptionsByUser.isEmpty()) {
+            return;
+        }
+        for (TimeEntryChange change : event.getChanges()) {
+            TimeEntryView before = change.getBefore();
+            TimeEntryView after = change.getAfter();
+            if (before != null && (after == null || !Objects.equals(before.getUserId(), after.getUserId()))) {
+                push(before.getUserId(), new PushEvent(DELETED_EVENT, before.getId()));
+            }
+            if (after != null) {
+                push(after.getUserId(), new PushEvent(UPDATED_EVENT, after));
+            }
+        }
+    }
+
+    /**
+     * Send a comment on idle connections, so that proxies keep them open and dead ones are noticed.
+     */
+    @Scheduled(fixedDelay = 20_000)
+    public void heartbeat() {
+        subscriptionsByUser.values().forEach(subscriptions -> subscriptions.forEach(Subscription::heartbeat));
+    }
+
+    /**
+     * Drop the connections whose send is pending for longer than the send timeout, so that they stop holding a thread.
+     */
+    @Scheduled(fixedDelay = 1_000)
+    public void dropStalled() {
+        long now = System.nanoTime();
+        subscriptionsByUser
+            .values()
+            .forEach(subscriptions ->
+                subscriptions.forEach(subscription -> {
+                    if (subscription.isStalled(now)) {
+                        subscription.drop();
+                    }
+                })
+            );
+    }
+
+    @PreDestroy
+    public void completeAll() {
+        subscriptionsByUser.values().forEach(subscriptions -> subscriptions.forEach(subscription -> subscription.emitter.complete()));
+    }
+
+    private void push(Long userId, PushEvent event) {
+        if (userId == null) {
+            return;
+        }
+        Set<Subscription> subscriptions = subscriptionsByUser.get(userId);
+        if (subscriptions != null) {
+            subscriptions.forEach(subscription -> subscription.offer(event));
+        }
+    }
+
+    private void unsubscribe(Subscription subscription) {
+        subscriptionsByUser.computeIfPresent(
+            subscription.userId,
+            (id, subscriptions) -> {
+                subscriptions.remove(subscription);
+                return subscriptions.isEmpty() ? null : subscriptions;
+            }
+        );
+    }
+
+    private static final class PushEvent {
+
+        private final String name;
+
+        private final Object data;
+
+        PushEvent(String name, Object data) {
+            this.name = name;
+            this.data = data;
+        }
+    }
+
+    /**
+     * One open connection, with the events not sent to it yet.
+     */
+    private final class Subscription {
+
+        private final Long userId;
+
+        private final SseEmitter emitter;
+
+        private final BlockingQueue<PushEvent> buffer = new ArrayBlockingQueue<>(bufferSize);
+
+        /**
+         * Whether a drain of the buffer is scheduled or running, so that at most one thread writes to the connection.
+         */
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        /**
+         * The thread sending an event, and when it started, guarded by this subscription.
+         */
+        private Thread sender;
+
+        private long sendingSince;
+
+        private volatile boolean dropped;
+
+        Subscription(Long userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+        }
+
+        void offer(PushEvent event) {
+            if (dropped) {
+                return;
+            }
+            if (!buffer.offer(event)) {
+                log.debug("Dropped the pending TimeEntry changes of a slow connection of user {}", userId);
+                buffer.clear();
+                buffer.offer(RESYNC);
+            }
+            scheduleDrain();
+        }
+
+        void heartbeat() {
+            if (buffer.isEmpty()) {
+                buffer.offer(HEARTBEAT);
+                scheduleDrain();
+            }
+        }
+
+        synchronized boolean isStalled(long now) {
+            return sender != null && now - sendingSince > sendTimeoutNanos;
+        }
+
+        /**
+         * Stop sending to the connection. The pending send is interrupted, and the connection completed once it returns.
+         */
+        synchronized void drop() {
+            log.debug("Dropped a connection of user {} not reading its TimeEntry changes", userId);
+            dropped = true;
+            unsubscribe(this);
+            buffer.clear();
+            if (sender != null) {
+                sender.interrupt();
+            }
+        }
+
+        private void scheduleDrain() {
+            if (!dropped && draining.compareAndSet(false, true)) {
+                try {
+                    executor.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    // The events stay buffered until the next one schedules a drain
+                    draining.set(false);
+                }
+            }
+        }
+
+        private void drain() {
+            try {
+                do {
+                    PushEvent event;
+                    while (!dropped && (event = buffer.poll()) != null) {
+                        send(event);
+                    }
+                    draining.set(false);
+                } while (!dropped && !buffer.isEmpty() && draining.compareAndSet(false, true));
+                if (dropped) {
+                    emitter.complete();
+                }
+            } catch (IOException | IllegalStateException e) {
+                // The connection is gone: leave draining set, nothing will be sent to it anymore
+                log.debug("Closed a connection of user {}: {}", userId, e.getMessage());
+                unsubscribe(this);
+                emitter.completeWithError(e);
+            }
+        }
+
+        private void send(PushEvent event) throws IOException {
+            synchronized (this) {
+                sender = Thread.currentThread();
+                sendingSince = System.nanoTime();
+            }
+            try {
+                if (event.name == null) {
+                    emitter.send(SseEmitter.event().comment(""));
+                } else {
+                    emitter.send(SseEmitter.event().name(event.name).data(event.data, MediaType.APPLICATION_JSON));
+                }
+            } finally {
+                synchronized (this) {
+                    sender = null;
+                    // An interrupt from drop() is only meant for this send, not for the next task of the thread
+                    Thread.interrupted();
+                }
+            }
+        }
+    }
+}
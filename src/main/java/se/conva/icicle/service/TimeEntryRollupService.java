@@ -0,0 +1,114 @@
+package se.conva.icicle.service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import se.conva.icicle.domain.TimeEntryDailyRollup;
+import se.conva.icicle.domain.TimeEntryTotal;
+import se.conva.icicle.domain.TimeEntryView;
+import se.conva.icicle.repository.TimeEntryDailyRollupRepository;
+import se.conva.icicle.service.event.TimeEntryChange;
+import se.conva.icicle.service.event.TimeEntryChangedEvent;
+
+/**
+ * Service for maintaining {@link TimeEntryDailyRollup} as time entries are written.
+ * <p>
+ * Every write of a {@link se.conva.icicle.domain.TimeEntry} must publish a {@link TimeEntryChangedEvent}, which is
+ * applied here in the same transaction. Writes that bypass it (direct SQL, restores) are caught by the nightly
+ * {@link #verifyAndRepair()}.
+ * <p>
+ * Archived entries are left in the rollup, so only the days after the archived months are checked and rebuilt.
+ */
+@Service
+@Transactional
+public class TimeEntryRollupService {
+
+    private final Logger log = LoggerFactory.getLogger(TimeEntryRollupService.class);
+
+    private final TimeEntryDailyRollupRepository timeEntryDailyRollupRepository;
+
+    private final TimeEntryArchiveService timeEntryArchiveService;
+
+    public TimeEntryRollupService(
+        TimeEntryDailyRollupRepository timeEntryDailyRollupRepository,
+        TimeEntryArchiveService timeEntryArchiveService
+    ) {
+        this.timeEntryDailyRollupRepository = timeEntryDailyRollupRepository;
+        this.timeEntryArchiveService = timeEntryArchiveService;
+    }
+
+    /**
+     * Apply written time entries to the rollup, in the writing transaction.
+     * <p>
+     * Entries are removed in their state before the write and added in their state after it, with one upsert per user,
+     * day and task rather than per entry.
+     *
+     * @param event the written time entries.
+     */
+    @EventListener
+    public void onTimeEntryChanged(TimeEntryChangedEvent event) {
+        Map<List<Object>, long[]> deltas = new LinkedHashMap<>();
+        for (TimeEntryChange change : event.getChanges()) {
+            if (change.getBefore() != null) {
+                addDelta(deltas, change.getBefore(), -1);
+            }
+            if (change.getAfter() != null) {
+                addDelta(deltas, change.getAfter(), 1);
+            }
+        }
+        List<TimeEntryTotal> totals = new ArrayList<>(deltas.size());
+        deltas.forEach((key, delta) -> {
+            if (delta[0] != 0 || delta[1] != 0) {
+                totals.add(new TimeEntryTotal((Long) key.get(0), (String) key.get(2), (LocalDate) key.get(1), delta[0], delta[1]));
+            }
+        });
+        timeEntryDailyRollupRepository.addAll(totals);
+    }
+
+    /**
+     * Rebuild the rollup of the days after the archived months from the time entries.
+     * <p>
+     * Time entries cannot be written until the rebuild commits, or their updates of the rollup would be lost.
+     */
+    public void rebuild() {
+        timeEntryDailyRollupRepository.lockForRebuild();
+        LocalDate from = timeEntryArchiveService.getArchivedBefore();
+        int deleted = timeEntryDailyRollupRepository.deleteAllFrom(from);
+        int inserted = timeEntryDailyRollupRepository.insertAllFromTimeEntriesFrom(from);
+        log.info("Rebuilt the TimeEntry daily rollup from {}: {} rows replaced by {}", from, deleted, inserted);
+    }
+
+    /**
+     * Check the rollup against the time entries, and rebuild it if they disagree.
+     * <p>
+     * This is scheduled to get fired everyday, at 02:30 (am).
+     */
+    @Scheduled(cron = "0 30 2 * * ?")
+    public void verifyAndRepair() {
+        long mismatches = timeEntryDailyRollupRepository.countMismatches(timeEntryArchiveService.getArchivedBefore());
+        if (mismatches == 0) {
+            log.debug("The TimeEntry daily rollup is accurate");
+            return;
+        }
+        log.warn("The TimeEntry daily rollup has {} inaccurate user, day and task totals, rebuilding it", mismatches);
+        rebuild();
+    }
+
+    private static void addDelta(Map<List<Object>, long[]> deltas, TimeEntryView timeEntry, int sign) {
+        long[] delta = deltas.computeIfAbsent(
+            Arrays.asList(timeEntry.getUserId(), timeEntry.getDate(), timeEntry.getTaskName()),
+            key -> new long[2]
+        );
+        delta[0] += sign * (long) timeEntry.getMinutesWorked();
+        delta[1] += sign;
+    }
+}
@@ -0,0 +1,84 @@
+package se.conva.icicle.service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import se.conva.icicle.domain.TimeEntryView;
+import se.conva.icicle.repository.TaskRepository;
+
+/**
+ * Service searching {@link se.conva.icicle.domain.TimeEntry time entries} by task name.
+ * <p>
+ * The search runs on the task dictionary, which is small next to the entries: the matching task names are ranked and
+ * paged first, then the entries of a batch of names are read by a single query ordered by name rank, date and id, so a
+ * page is usually two queries however many names match.
+ */
+@Service
+@Transactional(readOnly = true)
+public class TimeEntrySearchService {
+
+    /**
+     * How many of the matching task names a query of entries goes through.
+     */
+    static final int TASK_NAMES_PER_QUERY = 100;
+
+    private final Logger log = LoggerFactory.getLogger(TimeEntrySearchService.class);
+
+    private final TaskRepository taskRepository;
+
+    private final TimeEntryArchiveService timeEntryArchiveService;
+
+    public TimeEntrySearchService(TaskRepository taskRepository, TimeEntryArchiveService timeEntryArchiveService) {
+        this.taskRepository = taskRepository;
+        this.timeEntryArchiveService = timeEntryArchiveService;
+    }
+
+    /**
+     * Get a page of the entries whose task name matches a query, best matching task first, then by date and id.
+     *
+     * @param query the free text to search the task names for.
+     * @param userId only return entries of this user, ignored if {@code null}.
+     * @param afterTaskName the task name of the last entry of the previous page, {@code null} for the first page.
+     * @param afterDate the date of the last entry of the previous page.
+     * @param afterId the id of the last entry of the previous page.
+     * @param limit the maximum number of entries.
+     * @return the entries of the page.
+     */
+    public List<TimeEntryView> search(String query, Long userId, String afterTaskName, LocalDate afterDate, Long afterId, int limit) {
+        log.debug("Request to search TimeEntries by task name : {}", query);
+        List<TimeEntryView> page = new ArrayList<>();
+        List<String> taskNames = new ArrayList<>();
+        if (afterTaskName != null) {
+            // Finish the task of the previous page first, even if it does not match anymore
+            taskNames.add(afterTaskName);
+        }
+        String lastTaskName = afterTaskName;
+        boolean resume = afterTaskName != null;
+        boolean moreTaskNames = true;
+        while (page.size() < limit && moreTaskNames) {
+            List<String> found = taskRepository.searchNames(query, lastTaskName, TASK_NAMES_PER_QUERY);
+            moreTaskNames = found.size() == TASK_NAMES_PER_QUERY;
+            taskNames.addAll(found);
+            if (taskNames.isEmpty()) {
+                break;
+            }
+            page.addAll(
+                timeEntryArchiveService.findPageOfTasksAfter(
+                    userId,
+                    taskNames,
+                    resume ? afterDate : null,
+                    resume ? afterId : null,
+                    limit - page.size()
+                )
+            );
+            lastTaskName = taskNames.get(taskNames.size() - 1);
+            taskNames = new ArrayList<>();
+            resume = false;
+        }
+        return page;
+    }
+}
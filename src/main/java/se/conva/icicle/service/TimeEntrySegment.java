@@ -0,0 +1,572 @@
+package se.conva.icicle.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.ref.SoftReference;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Set;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import se.conva.icicle.domain.TimeEntryView;
+
+/**
+ * An immutable file of archived time entries, stored by column.
+ * <p>
+ * The header holds the row count and the minimum and maximum date, id and user id of the rows, then the offset and
+ * length of each column. Reads check the header first and skip the segment if it cannot hold matching rows. Otherwise
+ * the columns are inflated from the memory-mapped file, and kept until the garbage collector needs the memory. Each
+ * column is deflated on its own. Rows are ordered by date then id, so a page is a binary search followed by a scan.
+ * Lookups by id go through an index of the sorted ids and their rows, inflated apart from the other columns, so that
+ * misses only cost a binary search.
+ */
+final class TimeEntrySegment {
+
+    private static final int MAGIC = 0x49435347;
+
+    private static final int FORMAT_VERSION = 2;
+
+    private static final int ID = 0;
+
+    private static final int DATE = 1;
+
+    private static final int MINUTES_WORKED = 2;
+
+    private static final int VERSION = 3;
+
+    private static final int USER_ID = 4;
+
+    private static final int USER_LOGIN = 5;
+
+    private static final int TASK_NAME = 6;
+
+    private static final int USER_LOGINS = 7;
+
+    private static final int TASK_NAMES = 8;
+
+    private static final int SORTED_IDS = 9;
+
+    private static final int ROWS_BY_ID = 10;
+
+    private static final int COLUMN_COUNT = 11;
+
+    private static final int HEADER_SIZE = 4 * 3 + 4 * 2 + 8 * 4 + COLUMN_COUNT * (8 + 4 + 4);
+
+    /**
+     * The user id stored for entries without a user, never taken by the sequence.
+     */
+    private static final long NO_USER = 0L;
+
+    private final Path path;
+
+    private final MappedByteBuffer buffer;
+
+    private final int rowCount;
+
+    private final LocalDate minDate;
+
+    private final LocalDate maxDate;
+
+    private final long minId;
+
+    private final long maxId;
+
+    private final long minUserId;
+
+    private final long maxUserId;
+
+    private final long[] columnOffsets = new long[COLUMN_COUNT];
+
+    private final int[] compressedLengths = new int[COLUMN_COUNT];
+
+    private final int[] rawLengths = new int[COLUMN_COUNT];
+
+    private volatile SoftReference<Columns> columns = new SoftReference<>(null);
+
+    private volatile SoftReference<IdIndex> idIndex = new SoftReference<>(null);
+
+    private TimeEntrySegment(Path path, MappedByteBuffer buffer) throws IOException {
+        this.path = path;
+        this.buffer = buffer;
+        ByteBuffer header = buffer.duplicate();
+        if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC || header.getInt() != FORMAT_VERSION) {
+            throw new IOException("Not a time entry segment: " + path);
+        }
+        rowCount = header.getInt();
+        minDate = LocalDate.ofEpochDay(header.getInt());
+        maxDate = LocalDate.ofEpochDay(header.getInt());
+        minId = header.getLong();
+        maxId = header.getLong();
+        minUserId = header.getLong();
+        maxUserId = header.getLong();
+        for (int column = 0; column < COLUMN_COUNT; column++) {
+            columnOffsets[column] = header.getLong();
+            compressedLengths[column] = header.getInt();
+            rawLengths[column] = header.getInt();
+        }
+    }
+
+    /**
+     * Write time entries to a new segment file, then open it.
+     * <p>
+     * The rows are read once and only kept encoded by column. The file is created exclusively, so it never replaces
+     * another segment, and is deleted if it cannot be written completely. It is not listed as a segment by this method.
+     *
+     * @param path the path of the file, which must not exist.
+     * @param rows the entries, ordered by date then id, at least one.
+     * @return the segment.
+     * @throws java.nio.file.FileAlreadyExistsException if the file exists.
+     * @throws IOException if the file could not be written.
+     */
+    static TimeEntrySegment write(Path path, Iterator<TimeEntryView> rows) throws IOException {
+        ByteArrayOutputStream[] raw = new ByteArrayOutputStream[COLUMN_COUNT];
+        DataOutputStream[] out = new DataOutputStream[COLUMN_COUNT];
+        for (int column = 0; column < COLUMN_COUNT; column++) {
+            raw[column] = new ByteArrayOutputStream();
+            out[column] = new DataOutputStream(raw[column]);
+        }
+        Map<String, Integer> userLogins = new HashMap<>();
+        Map<String, Integer> taskNames = new HashMap<>();
+        long[] ids = new long[1024];
+        long minId = Long.MAX_VALUE;
+        long maxId = Long.MIN_VALUE;
+        long minUserId = Long.MAX_VALUE;
+        long maxUserId = Long.MIN_VALUE;
+        long previousDate = 0;
+        long firstDate = 0;
+        int rowCount = 0;
+        while (rows.hasNext()) {
+            TimeEntryView row = rows.next();
+            long date = row.getDate().toEpochDay();
+            if (rowCount++ == 0) {
+                firstDate = date;
+            }
+            long userId = row.getUserId() == null ? NO_USER : row.getUserId();
+            if (rowCount > ids.length) {
+                ids = Arrays.copyOf(ids, ids.length * 2);
+            }
+            ids[rowCount - 1] = row.getId();
+            out[ID].writeLong(row.getId());
+            // Dates are sorted: their deltas are mostly 0 and 1, which deflate to almost nothing
+            out[DATE].writeInt((int) (date - previousDate));
+            out[MINUTES_WORKED].writeInt(row.getMinutesWorked());
+            out[VERSION].writeLong(row.getVersion() == null ? 0L : row.getVersion());
+            out[USER_ID].writeLong(userId);
+            out[USER_LOGIN].writeInt(row.getUserLogin() == null ? -1 : intern(userLogins, row.getUserLogin(), out[USER_LOGINS]));
+            out[TASK_NAME].writeInt(intern(taskNames, row.getTaskName(), out[TASK_NAMES]));
+            previousDate = date;
+            minId = Math.min(minId, row.getId());
+            maxId = Math.max(maxId, row.getId());
+            if (userId != NO_USER) {
+                minUserId = Math.min(minUserId, userId);
+                maxUserId = Math.max(maxUserId, userId);
+            }
+        }
+        writeIdIndex(Arrays.copyOf(ids, rowCount), out[SORTED_IDS], out[ROWS_BY_ID]);
+
+        byte[][] compressed = new byte[COLUMN_COUNT][];
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(rowCount);
+        header.putInt((int) firstDate).putInt((int) previousDate);
+        header.putLong(minId).putLong(maxId).putLong(minUserId).putLong(maxUserId);
+        long offset = HEADER_SIZE;
+        for (int column = 0; column < COLUMN_COUNT; column++) {
+            out[column].flush();
+            compressed[column] = deflate(raw[column].toByteArray());
+            header.putLong(offset).putInt(compressed[column].length).putInt(raw[column].size());
+            offset += compressed[column].length;
+        }
+        header.flip();
+
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        try (channel) {
+            channel.write(header);
+            for (byte[] column : compressed) {
+                channel.write(ByteBuffer.wrap(column));
+            }
+            channel.force(true);
+        } catch (IOException e) {
+            Files.deleteIfExists(path);
+            throw e;
+        }
+        return open(path);
+    }
+
+    /**
+     * Write the ids in ascending order, as deltas, and the row of each.
+     */
+    private static void writeIdIndex(long[] ids, DataOutputStream sortedIdOut, DataOutputStream rowOut) throws IOException {
+        long[] sortedIds = ids.clone();
+        Arrays.sort(sortedIds);
+        // Ids are unique, so the position of each in the sorted ids is where its row goes
+        int[] rows = new int[ids.length];
+        for (int row = 0; row < ids.length; row++) {
+            rows[Arrays.binarySearch(sortedIds, ids[row])] = row;
+        }
+        long previousId = 0;
+        for (int index = 0; index < ids.length; index++) {
+            sortedIdOut.writeLong(sortedIds[index] - previousId);
+            rowOut.writeInt(rows[index]);
+            previousId = sortedIds[index];
+        }
+    }
+
+    /**
+     * Open an existing segment file. Only its header is read.
+     *
+     * @param path the path of the file.
+     * @return the segment.
+     * @throws IOException if the file could not be read, or is not a segment.
+     */
+    static TimeEntrySegment open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // The mapping stays valid once the channel is closed
+            return new TimeEntrySegment(path, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    Path getPath() {
+        return path;
+    }
+
+    int getRowCount() {
+        return rowCount;
+    }
+
+    LocalDate getMinDate() {
+        return minDate;
+    }
+
+    LocalDate getMaxDate() {
+        return maxDate;
+    }
+
+    /**
+     * Check the min/max index of the segment against filters.
+     *
+     * @return {@code false} if no row of the segment can match the filters.
+     */
+    boolean mayContain(Long userId, LocalDate fromDate, LocalDate toDate) {
+        return (
+            (fromDate == null || !maxDate.isBefore(fromDate)) &&
+            (toDate == null || !minDate.isAfter(toDate)) &&
+            (userId == null || (userId >= minUserId && userId <= maxUserId))
+        );
+    }
+
+    /**
+     * Find an entry by id.
+     *
+     * @param id the id of the entry.
+     * @return the entry, if in this segment.
+     */
+    Optional<TimeEntryView> findById(long id) {
+        if (id < minId || id > maxId) {
+            return Optional.empty();
+        }
+        int row = idIndex().rowOf(id);
+        return row < 0 ? Optional.empty() : Optional.of(columns().view(row));
+    }
+
+    /**
+     * Find entries by id.
+     *
+     * @param ids the ids of the entries.
+     * @return the entries in this segment, in segment order.
+     */
+    List<TimeEntryView> findAllById(Set<Long> ids) {
+        List<TimeEntryView> found = new ArrayList<>();
+        if (ids.stream().noneMatch(id -> id >= minId && id <= maxId)) {
+            return found;
+        }
+        IdIndex index = idIndex();
+        int[] rows = ids
+            .stream()
+            .filter(id -> id >= minId && id <= maxId)
+            .mapToInt(index::rowOf)
+            .filter(row -> row >= 0)
+            .sorted()
+            .toArray();
+        if (rows.length > 0) {
+            Columns columns = columns();
+            for (int row : rows) {
+                found.add(columns.view(row));
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Iterate over the entries matching filters, after a {@code (date, id)} key.
+     *
+     * @param afterDate the date of the last entry already seen, {@code null} to start from the first entry.
+     * @param afterId the id of the last entry already seen.
+     * @return the entries, ordered by date then id.
+     */
+    Iterator<TimeEntryView> iterator(
+        Long userId,
+        LocalDate fromDate,
+        LocalDate toDate,
+        String taskName,
+        LocalDate afterDate,
+        Long afterId
+    ) {
+        if (!mayContain(userId, fromDate, toDate)) {
+            return Collections.emptyIterator();
+        }
+        Columns columns = columns();
+        int task = taskName == null ? -1 : columns.indexOfTaskName(taskName);
+        if (taskName != null && task < 0) {
+            return Collections.emptyIterator();
+        }
+        int start = 0;
+        if (fromDate != null) {
+            start = columns.firstAfter(fromDate.toEpochDay() - 1, Long.MAX_VALUE);
+        }
+        if (afterDate != null) {
+            start = Math.max(start, columns.firstAfter(afterDate.toEpochDay(), afterId));
+        }
+        long end = toDate == null ? Long.MAX_VALUE : toDate.toEpochDay();
+        int first = start;
+        return new Iterator<>() {
+            private int next = seek(first);
+
+            @Override
+            public boolean hasNext() {
+                return next < rowCount;
+            }
+
+            @Override
+            public TimeEntryView next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                TimeEntryView view = columns.view(next);
+                next = seek(next + 1);
+                return view;
+            }
+
+            private int seek(int row) {
+                for (; row < rowCount && columns.dates[row] <= end; row++) {
+                    if ((userId == null || columns.userIds[row] == userId) && (task < 0 || columns.taskNames[row] == task)) {
+                        return row;
+                    }
+                }
+                return rowCount;
+            }
+        };
+    }
+
+    private Columns columns() {
+        Columns result = columns.get();
+        if (result == null) {
+            try {
+                result = new Columns();
+            } catch (IOException | DataFormatException e) {
+                throw new IllegalStateException("Corrupted time entry segment: " + path, e);
+            }
+            columns = new SoftReference<>(result);
+        }
+        return result;
+    }
+
+    private IdIndex idIndex() {
+        IdIndex result = idIndex.get();
+        if (result == null) {
+            try {
+                result = new IdIndex();
+            } catch (IOException | DataFormatException e) {
+                throw new IllegalStateException("Corrupted time entry segment: " + path, e);
+            }
+            idIndex = new SoftReference<>(result);
+        }
+        return result;
+    }
+
+    private DataInputStream inflate(int column) throws DataFormatException {
+        ByteBuffer compressed = buffer.duplicate();
+        compressed.position((int) columnOffsets[column]).limit((int) columnOffsets[column] + compressedLengths[column]);
+        byte[] raw = new byte[rawLengths[column]];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            int length = 0;
+            while (length < raw.length && !inflater.finished()) {
+                length += inflater.inflate(raw, length, raw.length - length);
+            }
+        } finally {
+            inflater.end();
+        }
+        return new DataInputStream(new ByteArrayInputStream(raw));
+    }
+
+    private static int intern(Map<String, Integer> dictionary, String value, DataOutputStream out) throws IOException {
+        Integer index = dictionary.get(value);
+        if (index == null) {
+            index = dictionary.size();
+            dictionary.put(value, index);
+            out.writeUTF(value);
+        }
+        return index;
+    }
+
+    private static byte[] deflate(byte[] raw) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, raw.length / 4));
+            byte[] chunk = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(chunk, 0, deflater.deflate(chunk));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * The ids of the segment in ascending order, with the row of each.
+     */
+    private final class IdIndex {
+
+        private final long[] ids = new long[rowCount];
+
+        private final int[] rows = new int[rowCount];
+
+        IdIndex() throws IOException, DataFormatException {
+            DataInputStream idIn = inflate(SORTED_IDS);
+            DataInputStream rowIn = inflate(ROWS_BY_ID);
+            long id = 0;
+            for (int index = 0; index < rowCount; index++) {
+                id += idIn.readLong();
+                ids[index] = id;
+                rows[index] = rowIn.readInt();
+            }
+        }
+
+        /**
+         * @return the row of the id, or {@code -1} if not in the segment.
+         */
+        int rowOf(long id) {
+            int index = Arrays.binarySearch(ids, id);
+            return index < 0 ? -1 : rows[index];
+        }
+    }
+
+    /**
+     * The inflated columns of the segment.
+     */
+    private final class Columns {
+
+        private final long[] ids = new long[rowCount];
+
+        private final long[] dates = new long[rowCount];
+
+        private final int[] minutesWorked = new int[rowCount];
+
+        private final long[] versions = new long[rowCount];
+
+        private final long[] userIds = new long[rowCount];
+
+        private final int[] userLogins = new int[rowCount];
+
+        private final int[] taskNames = new int[rowCount];
+
+        private final String[] userLoginValues;
+
+        private final String[] taskNameValues;
+
+        Columns() throws IOException, DataFormatException {
+            DataInputStream idIn = inflate(ID);
+            DataInputStream dateIn = inflate(DATE);
+            DataInputStream minutesWorkedIn = inflate(MINUTES_WORKED);
+            DataInputStream versionIn = inflate(VERSION);
+            DataInputStream userIdIn = inflate(USER_ID);
+            DataInputStream userLoginIn = inflate(USER_LOGIN);
+            DataInputStream taskNameIn = inflate(TASK_NAME);
+            long date = 0;
+            int userLoginCount = 0;
+            int taskNameCount = 0;
+            for (int row = 0; row < rowCount; row++) {
+                ids[row] = idIn.readLong();
+                date += dateIn.readInt();
+                dates[row] = date;
+                minutesWorked[row] = minutesWorkedIn.readInt();
+                versions[row] = versionIn.readLong();
+                userIds[row] = userIdIn.readLong();
+                userLogins[row] = userLoginIn.readInt();
+                taskNames[row] = taskNameIn.readInt();
+                userLoginCount = Math.max(userLoginCount, userLogins[row] + 1);
+                taskNameCount = Math.max(taskNameCount, taskNames[row] + 1);
+            }
+            userLoginValues = readDictionary(inflate(USER_LOGINS), userLoginCount);
+            taskNameValues = readDictionary(inflate(TASK_NAMES), taskNameCount);
+        }
+
+        TimeEntryView view(int row) {
+            return new TimeEntryView(
+                ids[row],
+                LocalDate.ofEpochDay(dates[row]),
+                minutesWorked[row],
+                taskNameValues[taskNames[row]],
+                userIds[row] == NO_USER ? null : userIds[row],
+                userLogins[row] < 0 ? null : userLoginValues[userLogins[row]],
+                versions[row]
+            );
+        }
+
+        int indexOfTaskName(String taskName) {
+            for (int index = 0; index < taskNameValues.length; index++) {
+                if (taskNameValues[index].equals(taskName)) {
+                    return index;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * @return the index of the first row whose {@code (date, id)} is greater than the given one.
+         */
+        int firstAfter(long date, long id) {
+            int low = 0;
+            int high = rowCount;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (dates[middle] < date || (dates[middle] == date && ids[middle] <= id)) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        private String[] readDictionary(DataInputStream in, int size) throws IOException {
+            String[] values = new String[size];
+            for (int index = 0; index < size; index++) {
+                values[index] = in.readUTF();
+            }
+            return values;
+        }
+    }
+}
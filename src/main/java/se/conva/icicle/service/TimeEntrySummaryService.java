@@ -0,0 +1,160 @@
+package se.conva.icicle.service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import se.conva.icicle.domain.TimeEntryTotal;
+import se.conva.icicle.repository.TimeEntryDailyRollupRepository;
+import se.conva.icicle.service.dto.TimeEntrySummaryDTO;
+
+/**
+ * Service for summarizing the minutes worked in {@link se.conva.icicle.domain.TimeEntry} rows.
+ * <p>
+ * The database sums the {@link se.conva.icicle.domain.TimeEntryDailyRollup daily rollup} per day (and per user and task
+ * if asked), rather than every entry; the daily totals are then folded into the requested period here, as week and
+ * month truncation is not portable across databases.
+ */
+@Service
+@Transactional(readOnly = true)
+public class TimeEntrySummaryService {
+
+    /**
+     * The periods minutes worked can be summed over. Weeks start on Monday, as of ISO 8601.
+     */
+    public enum Period {
+        DAY,
+        WEEK,
+        MONTH,
+        YEAR;
+
+        /**
+         * Get the first day of the period containing {@code date}.
+         *
+         * @param date the date.
+         * @return the first day of its period.
+         */
+        public LocalDate start(LocalDate date) {
+            switch (this) {
+                case WEEK:
+                    return date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+                case MONTH:
+                    return date.withDayOfMonth(1);
+                case YEAR:
+                    return date.withDayOfYear(1);
+                default:
+                    return date;
+            }
+        }
+
+        /**
+         * Get the last day of the period containing {@code date}.
+         *
+         * @param date the date.
+         * @return the last day of its period.
+         */
+        public LocalDate end(LocalDate date) {
+            LocalDate start = start(date);
+            switch (this) {
+                case WEEK:
+                    return start.plusWeeks(1).minusDays(1);
+                case MONTH:
+                    return start.plusMonths(1).minusDays(1);
+                case YEAR:
+                    return start.plusYears(1).minusDays(1);
+                default:
+                    return start;
+            }
+        }
+    }
+
+    private static final Comparator<TimeEntrySummaryDTO> SUMMARY_ORDER = Comparator
+        .comparing(TimeEntrySummaryDTO::getPeriodStart)
+        .thenComparing(TimeEntrySummaryDTO::getUserId, Comparator.nullsFirst(Comparator.<Long>naturalOrder()))
+        .thenComparing(TimeEntrySummaryDTO::getTaskName, Comparator.nullsFirst(Comparator.<String>naturalOrder()));
+
+    private final Logger log = LoggerFactory.getLogger(TimeEntrySummaryService.class);
+
+    private final TimeEntryDailyRollupRepository timeEntryDailyRollupRepository;
+
+    private final TimeEntryMinutesIndex timeEntryMinutesIndex;
+
+    public TimeEntrySummaryService(
+        TimeEntryDailyRollupRepository timeEntryDailyRollupRepository,
+        TimeEntryMinutesIndex timeEntryMinutesIndex
+    ) {
+        this.timeEntryDailyRollupRepository = timeEntryDailyRollupRepository;
+        this.timeEntryMinutesIndex = timeEntryMinutesIndex;
+    }
+
+    /**
+     * Sum the minutes worked of the time entries matching the given filters, per period and optionally per user and task.
+     *
+     * @param period the period to sum over.
+     * @param byUser whether to break the totals down by user.
+     * @param byTask whether to break the totals down by task name.
+     * @param userId only sum entries of this user, ignored if {@code null}.
+     * @param fromDate only sum entries on or after this date, ignored if {@code null}.
+     * @param toDate only sum entries on or before this date, ignored if {@code null}.
+     * @param taskName only sum entries with this task name, ignored if {@code null}.
+     * @return the totals, ordered by period, user id and task name.
+     */
+    public List<TimeEntrySummaryDTO> summarize(
+        Period period,
+        boolean byUser,
+        boolean byTask,
+        Long userId,
+        LocalDate fromDate,
+        LocalDate toDate,
+        String taskName
+    ) {
+        log.debug("Request to summarize TimeEntries per {}, by user: {}, by task: {}", period, byUser, byTask);
+        return fold(period, timeEntryDailyRollupRepository.sumByDay(byUser, byTask, userId, fromDate, toDate, taskName));
+    }
+
+    /**
+     * Sum the minutes worked by one user during the period containing {@code date}.
+     * <p>
+     * This is answered from the {@link TimeEntryMinutesIndex} without touching the database, unless the index is disabled
+     * or still loading.
+     *
+     * @param period the period to sum over.
+     * @param userId the id of the user.
+     * @param date any day of the period.
+     * @return the total of the user for the period, zero if they have no entries in it.
+     */
+    public TimeEntrySummaryDTO total(Period period, Long userId, LocalDate date) {
+        log.debug("Request to get the TimeEntry total of user {} for the {} of {}", userId, period, date);
+        return timeEntryMinutesIndex
+            .total(period, userId, date)
+            .orElseGet(() -> {
+                List<TimeEntrySummaryDTO> totals = summarize(period, true, false, userId, period.start(date), period.end(date), null);
+                return totals.isEmpty() ? new TimeEntrySummaryDTO(userId, null, period.start(date)) : totals.get(0);
+            });
+    }
+
+    private static List<TimeEntrySummaryDTO> fold(Period period, List<TimeEntryTotal> dailyTotals) {
+        Map<List<Object>, TimeEntrySummaryDTO> summaries = new LinkedHashMap<>();
+        for (TimeEntryTotal total : dailyTotals) {
+            LocalDate periodStart = period.start(total.getDate());
+            TimeEntrySummaryDTO summary = summaries.computeIfAbsent(
+                Arrays.asList(total.getUserId(), total.getTaskName(), periodStart),
+                key -> new TimeEntrySummaryDTO(total.getUserId(), total.getTaskName(), periodStart)
+            );
+            summary.setTotalMinutes(summary.getTotalMinutes() + total.getTotalMinutes());
+            summary.setEntryCount(summary.getEntryCount() + total.getEntryCount());
+        }
+        List<TimeEntrySummaryDTO> result = new ArrayList<>(summaries.values());
+        result.sort(SUMMARY_ORDER);
+        return result;
+    }
+}
@@ -0,0 +1,129 @@
+package se.conva.icicle.service;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import se.conva.icicle.domain.TimeEntryView;
+import se.conva.icicle.service.event.TimeEntryChange;
+import se.conva.icicle.service.event.TimeEntryChangedEvent;
+
+/**
+ * Service reading all the time entries of one user, cached per user.
+ * <p>
+ * A write of an entry only evicts the users who had or got it, so the other users keep their cached entries. Users are
+ * evicted as the write happens, for the writing transaction to read its own writes, and again once it completes: after
+ * a commit, for the entries other transactions cached from before it, and after a rollback, for the uncommitted entries
+ * the writing transaction cached itself.
+ * <p>
+ * A read that started before an eviction could still cache what it read after it. Each eviction bumps a generation of
+ * the user, which reads take before reading and check after caching: a read that raced an eviction evicts its own
+ * entries again. Either the read or the eviction comes last, so no stale entries stay cached.
+ */
+@Service
+public class UserTimeEntriesService {
+
+    public static final String TIME_ENTRIES_BY_USER_CACHE = "timeEntriesByUser";
+
+    private static final int FETCH_SIZE = 1000;
+
+    private final Logger log = LoggerFactory.getLogger(UserTimeEntriesService.class);
+
+    private final TimeEntryArchiveService timeEntryArchiveService;
+
+    private final CacheManager cacheManager;
+
+    /**
+     * How many times each user was evicted. Users never evicted are not in the map.
+     */
+    private final Map<Long, Long> generations = new ConcurrentHashMap<>();
+
+    public UserTimeEntriesService(TimeEntryArchiveService timeEntryArchiveService, CacheManager cacheManager) {
+        this.timeEntryArchiveService = timeEntryArchiveService;
+        this.cacheManager = cacheManager;
+    }
+
+    /**
+     * Get all the time entries of a user, archived ones included.
+     *
+     * @param userId the id of the user.
+     * @return the views of the entries, ordered by date then id.
+     */
+    @Transactional(readOnly = true)
+    public List<TimeEntryView> findAllOfUser(Long userId) {
+        Cache cache = cache();
+        @SuppressWarnings("unchecked")
+        List<TimeEntryView> cached = cache.get(userId, List.class);
+        if (cached != null) {
+            return cached;
+        }
+
+        log.debug("Request to get all TimeEntries of user {}", userId);
+        long generation = generations.getOrDefault(userId, 0L);
+        List<TimeEntryView> result;
+        try (Stream<TimeEntryView> timeEntries = timeEntryArchiveService.streamViews(userId, null, null, null, FETCH_SIZE)) {
+            result = timeEntries.collect(Collectors.toUnmodifiableList());
+        }
+        cache.put(userId, result);
+        if (generations.getOrDefault(userId, 0L) != generation) {
+            // Evicted while reading: what was read may predate the write
+            cache.evict(userId);
+        }
+        return result;
+    }
+
+    /**
+     * Evict the users of written time entries, in the writing transaction.
+     *
+     * @param event the written time entries.
+     */
+    @EventListener
+    public void onTimeEntryChanged(TimeEntryChangedEvent event) {
+        evict(event);
+    }
+
+    /**
+     * Evict the users of written time entries again, once the write is committed or rolled back.
+     *
+     * @param event the written time entries.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION, fallbackExecution = true)
+    public void onTimeEntryChangeCompleted(TimeEntryChangedEvent event) {
+        evict(event);
+    }
+
+    private void evict(TimeEntryChangedEvent event) {
+        Set<Long> userIds = new HashSet<>();
+        for (TimeEntryChange change : event.getChanges()) {
+            if (change.getBefore() != null && change.getBefore().getUserId() != null) {
+                userIds.add(change.getBefore().getUserId());
+            }
+            if (change.getAfter() != null && change.getAfter().getUserId() != null) {
+                userIds.add(change.getAfter().getUserId());
+            }
+        }
+        Cache cache = cache();
+        for (Long userId : userIds) {
+            // Bump first, so that a read caching after the eviction sees it
+            generations.merge(userId, 1L, Long::sum);
+            cache.evict(userId);
+        }
+    }
+
+    private Cache cache() {
+        return Objects.requireNonNull(cacheManager.getCache(TIME_ENTRIES_BY_USER_CACHE));
+    }
+}
@@ -0,0 +1,73 @@
+package se.conva.icicle.service.dto;
+
+import java.io.Serializable;
+
+/**
+ * A DTO representing the outcome of one item of a bulk time entry creation.
+ */
+public class TimeEntryBulkResultDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private int index;
+
+    private Long id;
+
+    private int status;
+
+    private String error;
+
+    public TimeEntryBulkResultDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public TimeEntryBulkResultDTO(int index, Long id, int status, String error) {
+        this.index = index;
+        this.id = id;
+        this.status = status;
+        this.error = error;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public void setStatus(int status) {
+        this.status = status;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "TimeEntryBulkResultDTO{" +
+            "index=" + index +
+            ", id=" + id +
+            ", status=" + status +
+            ", error='" + error + "'" +
+            "}";
+    }
+}
@@ -0,0 +1,74 @@
+package se.conva.icicle.service.dto;
+
+import java.io.Serializable;
+import se.conva.icicle.domain.TimeEntryView;
+
+/**
+ * A DTO representing the latest change of one {@link se.conva.icicle.domain.TimeEntry}: either its current state,
+ * or a tombstone if it was deleted or moved to another user.
+ */
+public class TimeEntryChangeDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private long sequence;
+
+    private Long timeEntryId;
+
+    private boolean deleted;
+
+    private TimeEntryView timeEntry;
+
+    public TimeEntryChangeDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public TimeEntryChangeDTO(long sequence, Long timeEntryId, TimeEntryView timeEntry) {
+        this.sequence = sequence;
+        this.timeEntryId = timeEntryId;
+        this.deleted = timeEntry == null;
+        this.timeEntry = timeEntry;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+
+    public Long getTimeEntryId() {
+        return timeEntryId;
+    }
+
+    public void setTimeEntryId(Long timeEntryId) {
+        this.timeEntryId = timeEntryId;
+    }
+
+    public boolean isDeleted() {
+        return deleted;
+    }
+
+    public void setDeleted(boolean deleted) {
+        this.deleted = deleted;
+    }
+
+    public TimeEntryView getTimeEntry() {
+        return timeEntry;
+    }
+
+    public void setTimeEntry(TimeEntryView timeEntry) {
+        this.timeEntry = timeEntry;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "TimeEntryChangeDTO{" +
+            "sequence=" + getSequence() +
+            ", timeEntryId=" + getTimeEntryId() +
+            ", deleted='" + isDeleted() + "'" +
+            "}";
+    }
+}
@@ -0,0 +1,62 @@
+package se.conva.icicle.service.dto;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * A DTO representing a page of {@link TimeEntryChangeDTO changes}, with the cursor to ask for the next ones.
+ */
+public class TimeEntryChangesDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private List<TimeEntryChangeDTO> changes;
+
+    private long cursor;
+
+    private boolean hasMore;
+
+    public TimeEntryChangesDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public TimeEntryChangesDTO(List<TimeEntryChangeDTO> changes, long cursor, boolean hasMore) {
+        this.changes = changes;
+        this.cursor = cursor;
+        this.hasMore = hasMore;
+    }
+
+    public List<TimeEntryChangeDTO> getChanges() {
+        return changes;
+    }
+
+    public void setChanges(List<TimeEntryChangeDTO> changes) {
+        this.changes = changes;
+    }
+
+    public long getCursor() {
+        return cursor;
+    }
+
+    public void setCursor(long cursor) {
+        this.cursor = cursor;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "TimeEntryChangesDTO{" +
+            "changes=" + getChanges().size() +
+            ", cursor=" + getCursor() +
+            ", hasMore='" + isHasMore() + "'" +
+            "}";
+    }
+}
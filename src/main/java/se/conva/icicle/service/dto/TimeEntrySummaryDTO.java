@@ -0,0 +1,84 @@
+package se.conva.icicle.service.dto;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * A DTO representing the minutes worked during one period, optionally for one user and one task.
+ */
+public class TimeEntrySummaryDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private Long userId;
+
+    private String taskName;
+
+    private LocalDate periodStart;
+
+    private long totalMinutes;
+
+    private long entryCount;
+
+    public TimeEntrySummaryDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public TimeEntrySummaryDTO(Long userId, String taskName, LocalDate periodStart) {
+        this.userId = userId;
+        this.taskName = taskName;
+        this.periodStart = periodStart;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public String getTaskName() {
+        return taskName;
+    }
+
+    public void setTaskName(String taskName) {
+        this.taskName = taskName;
+    }
+
+    public LocalDate getPeriodStart() {
+        return periodStart;
+    }
+
+    public void setPeriodStart(LocalDate periodStart) {
+        this.periodStart = periodStart;
+    }
+
+    public long getTotalMinutes() {
+        return totalMinutes;
+    }
+
+    public void setTotalMinutes(long totalMinutes) {
+        this.totalMinutes = totalMinutes;
+    }
+
+    public long getEntryCount() {
+        return entryCount;
+    }
+
+    public void setEntryCount(long entryCount) {
+        this.entryCount = entryCount;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "TimeEntrySummaryDTO{" +
+            "userId=" + userId +
+            ", taskName='" + taskName + "'" +
+            ", periodStart='" + periodStart + "'" +
+            ", totalMinutes=" + totalMinutes +
+            ", entryCount=" + entryCount +
+            "}";
+    }
+}
@@ -0,0 +1,55 @@
+package se.conva.icicle.service.event;
+
+import se.conva.icicle.domain.TimeEntryView;
+
+/**
+ * The change of one time entry: {@code before} is {@code null} for a creation, and {@code after} for a deletion.
+ */
+public class TimeEntryChange {
+
+    /**
+     * The kinds of change.
+     */
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED,
+    }
+
+    private final TimeEntryView before;
+
+    private final TimeEntryView after;
+
+    public TimeEntryChange(TimeEntryView before, TimeEntryView after) {
+        if (before == null && after == null) {
+            throw new IllegalArgumentException("A change needs a state before or after it");
+        }
+        this.before = before;
+        this.after = after;
+    }
+
+    public TimeEntryView getBefore() {
+        return before;
+    }
+
+    public TimeEntryView getAfter() {
+        return after;
+    }
+
+    public Type getType() {
+        if (before == null) {
+            return Type.CREATED;
+        }
+        return after == null ? Type.DELETED : Type.UPDATED;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "TimeEntryChange{" +
+            "type=" + getType() +
+            ", before=" + before +
+            ", after=" + after +
+            "}";
+    }
+}
@@ -0,0 +1,41 @@
+package se.conva.icicle.service.event;
+
+import java.util.Collections;
+import java.util.List;
+import se.conva.icicle.domain.TimeEntryView;
+
+/**
+ * Published whenever time entries are created, updated or deleted, with their state before and after the write.
+ * <p>
+ * The event is published inside the writing transaction: listeners that must see only committed changes should use
+ * {@link org.springframework.transaction.event.TransactionalEventListener}.
+ */
+public class TimeEntryChangedEvent {
+
+    private final List<TimeEntryChange> changes;
+
+    public TimeEntryChangedEvent(List<TimeEntryChange> changes) {
+        this.changes = Collections.unmodifiableList(changes);
+    }
+
+    public static TimeEntryChangedEvent created(TimeEntryView after) {
+        return new TimeEntryChangedEvent(List.of(new TimeEntryChange(null, after)));
+    }
+
+    public static TimeEntryChangedEvent updated(TimeEntryView before, TimeEntryView after) {
+        return new TimeEntryChangedEvent(List.of(new TimeEntryChange(before, after)));
+    }
+
+    public static TimeEntryChangedEvent deleted(TimeEntryView before) {
+        return new TimeEntryChangedEvent(List.of(new TimeEntryChange(before, null)));
+    }
+
+    public List<TimeEntryChange> getChanges() {
+        return changes;
+    }
+
+    @Override
+    public String toString() {
+        return "TimeEntryChangedEvent{" + "changes=" + changes.size() + "}";
+    }
+}
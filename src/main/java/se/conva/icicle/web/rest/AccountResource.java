@@ -1,13 +1,17 @@
 package se.conva.icicle.web.rest;
 
 import java.util.*;
+import java.util.stream.Collectors;
 import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import se.conva.icicle.domain.Authority;
 import se.conva.icicle.domain.User;
 import se.conva.icicle.repository.UserRepository;
 import se.conva.icicle.security.SecurityUtils;
@@ -93,16 +97,22 @@ public class AccountResource {
 
     /**
      * {@code GET  /account} : get the current user.
+     * <p>
+     * The user comes from the users cache; if it is unchanged since the {@code If-None-Match} ETag or {@code If-Modified-Since}
+     * date, {@code 304 (Not Modified)} is returned without building the body.
      *
+     * @param request the request, for its conditional headers.
      * @return the current user.
      * @throws RuntimeException {@code 500 (Internal Server Error)} if the user couldn't be returned.
      */
     @GetMapping("/account")
-    public AdminUserDTO getAccount() {
-        return userService
-            .getUserWithAuthorities()
-            .map(AdminUserDTO::new)
-            .orElseThrow(() -> new AccountResourceException("User could not be found"));
+    public ResponseEntity<AdminUserDTO> getAccount(WebRequest request) {
+        User user = userService.getUserWithAuthorities().orElseThrow(() -> new AccountResourceException("User could not be found"));
+        long lastModified = user.getLastModifiedDate() == null ? -1 : user.getLastModifiedDate().toEpochMilli();
+        if (request.checkNotModified(accountETag(user, lastModified), lastModified)) {
+            return null;
+        }
+        return ResponseEntity.ok(new AdminUserDTO(user));
     }
 
     /**
@@ -191,4 +201,13 @@ public class AccountResource {
             password.length() > ManagedUserVM.PASSWORD_MAX_LENGTH
         );
     }
+
+    /**
+     * Get a strong ETag of an account from its id, last modification and authorities, as authority changes alone
+     * may not touch the last modification date.
+     */
+    private static String accountETag(User user, long lastModified) {
+        String authorities = user.getAuthorities().stream().map(Authority::getName).sorted().collect(Collectors.joining(","));
+        return user.getId() + "-" + lastModified + "-" + Integer.toHexString(authorities.hashCode());
+    }
 }
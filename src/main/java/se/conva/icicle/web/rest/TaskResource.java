@@ -0,0 +1,62 @@
+package se.conva.icicle.web.rest;
+
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import se.conva.icicle.domain.User;
+import se.conva.icicle.service.TaskNameIndex;
+import se.conva.icicle.service.UserService;
+import se.conva.icicle.web.rest.errors.BadRequestAlertException;
+
+/**
+ * REST controller for task names.
+ */
+@RestController
+@RequestMapping("/api")
+public class TaskResource {
+
+    static final int DEFAULT_SUGGESTIONS = 10;
+
+    static final int MAX_SUGGESTIONS = 50;
+
+    /**
+     * Shorter prefixes match too much of the dictionary to be worth ranking.
+     */
+    static final int MIN_PREFIX_LENGTH = 2;
+
+    private static final String ENTITY_NAME = "task";
+
+    private final Logger log = LoggerFactory.getLogger(TaskResource.class);
+
+    private final TaskNameIndex taskNameIndex;
+
+    private final UserService userService;
+
+    public TaskResource(TaskNameIndex taskNameIndex, UserService userService) {
+        this.taskNameIndex = taskNameIndex;
+        this.userService = userService;
+    }
+
+    /**
+     * {@code GET  /tasks/suggest} : suggest task names starting with a prefix, to autocomplete them.
+     *
+     * @param prefix the start of the name, regardless of case, of at least {@value #MIN_PREFIX_LENGTH} characters.
+     * @param size the maximum number of names, capped to {@value #MAX_SUGGESTIONS}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the names the current user worked on most first,
+     * or with status {@code 400 (Bad Request)} if the prefix is too short.
+     */
+    @GetMapping("/tasks/suggest")
+    public ResponseEntity<List<String>> suggestTasks(
+        @RequestParam String prefix,
+        @RequestParam(defaultValue = "" + DEFAULT_SUGGESTIONS) int size
+    ) {
+        log.debug("REST request to suggest Tasks starting with : {}", prefix);
+        if (prefix.length() < MIN_PREFIX_LENGTH) {
+            throw new BadRequestAlertException("The prefix is too short", ENTITY_NAME, "prefixtooshort");
+        }
+        Long userId = userService.getUserWithAuthorities().map(User::getId).orElse(null);
+        return ResponseEntity.ok(taskNameIndex.suggest(userId, prefix, Math.max(1, Math.min(size, MAX_SUGGESTIONS))));
+    }
+}
@@ -1,23 +1,63 @@
 package se.conva.icicle.web.rest;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
 import java.util.Objects;
-import java.util.Optional;
+import java.util.Set;
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import se.conva.icicle.domain.TimeEntry;
+import se.conva.icicle.domain.TimeEntryView;
+import se.conva.icicle.domain.User;
 import se.conva.icicle.repository.TimeEntryRepository;
+import se.conva.icicle.service.TaskService;
+import se.conva.icicle.service.TimeEntryArchiveService;
+import se.conva.icicle.service.TimeEntryBulkService;
+import se.conva.icicle.service.TimeEntryChangeLogService;
+import se.conva.icicle.service.TimeEntryExportService;
+import se.conva.icicle.service.TimeEntryPushService;
+import se.conva.icicle.service.TimeEntrySearchService;
+import se.conva.icicle.service.TimeEntrySummaryService;
+import se.conva.icicle.service.UserService;
+import se.conva.icicle.service.UserTimeEntriesService;
+import se.conva.icicle.service.dto.TimeEntryBulkResultDTO;
+import se.conva.icicle.service.dto.TimeEntryChangesDTO;
+import se.conva.icicle.service.dto.TimeEntrySummaryDTO;
+import se.conva.icicle.service.event.TimeEntryChangedEvent;
 import se.conva.icicle.web.rest.errors.BadRequestAlertException;
+import se.conva.icicle.web.rest.errors.ConflictAlertException;
+import se.conva.icicle.web.rest.errors.PreconditionFailedAlertException;
 import tech.jhipster.web.util.HeaderUtil;
-import tech.jhipster.web.util.ResponseUtil;
 
 /**
  * REST controller for managing {@link se.conva.icicle.domain.TimeEntry}.
@@ -31,13 +71,73 @@ public class TimeEntryResource {
 
     private static final String ENTITY_NAME = "timeEntry";
 
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private static final String CURSOR_SEPARATOR = ":";
+
+    static final int DEFAULT_PAGE_SIZE = 50;
+
+    static final int MAX_PAGE_SIZE = 500;
+
+    private static final Set<String> SUMMARY_DIMENSIONS = Set.of("user", "task");
+
+    private static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private static final MediaType TEXT_CSV = new MediaType("text", "csv", StandardCharsets.UTF_8);
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
     private final TimeEntryRepository timeEntryRepository;
 
-    public TimeEntryResource(TimeEntryRepository timeEntryRepository) {
+    private final TimeEntryExportService timeEntryExportService;
+
+    private final TimeEntryBulkService timeEntryBulkService;
+
+    private final TimeEntrySummaryService timeEntrySummaryService;
+
+    private final TimeEntryChangeLogService timeEntryChangeLogService;
+
+    private final TimeEntryPushService timeEntryPushService;
+
+    private final TaskService taskService;
+
+    private final TimeEntrySearchService timeEntrySearchService;
+
+    private final TimeEntryArchiveService timeEntryArchiveService;
+
+    private final UserTimeEntriesService userTimeEntriesService;
+
+    private final UserService userService;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public TimeEntryResource(
+        TimeEntryRepository timeEntryRepository,
+        TimeEntryExportService timeEntryExportService,
+        TimeEntryBulkService timeEntryBulkService,
+        TimeEntrySummaryService timeEntrySummaryService,
+        TimeEntryChangeLogService timeEntryChangeLogService,
+        TimeEntryPushService timeEntryPushService,
+        TaskService taskService,
+        TimeEntrySearchService timeEntrySearchService,
+        TimeEntryArchiveService timeEntryArchiveService,
+        UserTimeEntriesService userTimeEntriesService,
+        UserService userService,
+        ApplicationEventPublisher eventPublisher
+    ) {
         this.timeEntryRepository = timeEntryRepository;
+        this.timeEntryExportService = timeEntryExportService;
+        this.timeEntryBulkService = timeEntryBulkService;
+        this.timeEntrySummaryService = timeEntrySummaryService;
+        this.timeEntryChangeLogService = timeEntryChangeLogService;
+        this.timeEntryPushService = timeEntryPushService;
+        this.taskService = taskService;
+        this.timeEntrySearchService = timeEntrySearchService;
+        this.timeEntryArchiveService = timeEntryArchiveService;
+        this.userTimeEntriesService = userTimeEntriesService;
+        this.userService = userService;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -53,26 +153,59 @@ public class TimeEntryResource {
         if (timeEntry.getId() != null) {
             throw new BadRequestAlertException("A new timeEntry cannot already have an ID", ENTITY_NAME, "idexists");
         }
-        TimeEntry result = timeEntryRepository.save(timeEntry);
+        TimeEntry result = timeEntryRepository.save(timeEntry.task(taskService.intern(timeEntry.getTaskName())));
+        eventPublisher.publishEvent(TimeEntryChangedEvent.created(TimeEntryView.of(result)));
         return ResponseEntity
             .created(new URI("/api/time-entries/" + result.getId()))
+            .eTag(String.valueOf(result.getVersion()))
             .headers(HeaderUtil.createEntityCreationAlert(applicationName, true, ENTITY_NAME, result.getId().toString()))
             .body(result);
     }
 
+    /**
+     * {@code POST  /time-entries/bulk} : Create many timeEntries at once.
+     * <p>
+     * The body is a JSON array of timeEntries without ids. It is read as a stream and saved in chunks,
+     * so one invalid entry does not prevent the others from being created.
+     *
+     * @param body the JSON array of timeEntries to create.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the result of each timeEntry, in order,
+     * or with status {@code 400 (Bad Request)} if the body is not a JSON array.
+     * @throws IOException if the body could not be read.
+     */
+    @PostMapping(value = "/time-entries/bulk", consumes = "application/json")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ResponseEntity<List<TimeEntryBulkResultDTO>> createTimeEntries(InputStream body) throws IOException {
+        log.debug("REST request to save TimeEntries in bulk");
+        List<TimeEntryBulkResultDTO> results;
+        try {
+            results = timeEntryBulkService.createAll(body);
+        } catch (JsonProcessingException e) {
+            throw new BadRequestAlertException("A JSON array of timeEntries is expected", ENTITY_NAME, "bulkinvalid");
+        }
+        return ResponseEntity.ok().body(results);
+    }
+
     /**
      * {@code PUT  /time-entries/:id} : Updates an existing timeEntry.
+     * <p>
+     * The update only applies if the timeEntry is still at the version given by the {@code If-Match} header,
+     * or else by the {@code version} field of the body; it is unconditional if neither is given.
      *
      * @param id the id of the timeEntry to save.
+     * @param ifMatch the ETag of the version of the timeEntry being updated.
      * @param timeEntry the timeEntry to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated timeEntry,
      * or with status {@code 400 (Bad Request)} if the timeEntry is not valid,
+     * or with status {@code 409 (Conflict)} if the timeEntry is archived,
+     * or with status {@code 412 (Precondition Failed)} if the timeEntry is at another version,
      * or with status {@code 500 (Internal Server Error)} if the timeEntry couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/time-entries/{id}")
     public ResponseEntity<TimeEntry> updateTimeEntry(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @Valid @RequestBody TimeEntry timeEntry
     ) throws URISyntaxException {
         log.debug("REST request to update TimeEntry : {}, {}", id, timeEntry);
@@ -83,31 +216,56 @@ public class TimeEntryResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!timeEntryRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
+        TimeEntry existingTimeEntry = timeEntryRepository
+            .findById(id)
+            .orElseThrow(() -> notFound(id));
+        Long expectedVersion = expectedVersion(ifMatch, timeEntry.getVersion());
+        if (expectedVersion != null && !expectedVersion.equals(existingTimeEntry.getVersion())) {
+            throw new PreconditionFailedAlertException("Entity was updated concurrently", ENTITY_NAME, "versionmismatch");
         }
+        TimeEntryView before = TimeEntryView.of(existingTimeEntry);
 
-        TimeEntry result = timeEntryRepository.save(timeEntry);
+        // Copy onto the loaded entity rather than merging the body, so that the update is checked against its version
+        existingTimeEntry
+            .date(timeEntry.getDate())
+            .minutesWorked(timeEntry.getMinutesWorked())
+            .taskName(timeEntry.getTaskName())
+            .task(taskService.intern(timeEntry.getTaskName()))
+            .user(timeEntry.getUser());
+        TimeEntry result;
+        try {
+            result = timeEntryRepository.saveAndFlush(existingTimeEntry);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            throw new PreconditionFailedAlertException("Entity was updated concurrently", ENTITY_NAME, "versionmismatch");
+        }
+        eventPublisher.publishEvent(TimeEntryChangedEvent.updated(before, TimeEntryView.of(result)));
         return ResponseEntity
             .ok()
+            .eTag(String.valueOf(result.getVersion()))
             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, timeEntry.getId().toString()))
             .body(result);
     }
 
     /**
      * {@code PATCH  /time-entries/:id} : Partial updates given fields of an existing timeEntry, field will ignore if it is null
+     * <p>
+     * The timeEntry is loaded once, usually from the second level cache, and checked against the version given by the
+     * {@code If-Match} header, or else by the {@code version} field of the body. The given fields are set on it and
+     * written by a single {@code UPDATE}, which Hibernate conditions on the version loaded.
      *
      * @param id the id of the timeEntry to save.
+     * @param ifMatch the ETag of the version of the timeEntry being updated.
      * @param timeEntry the timeEntry to update.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated timeEntry,
-     * or with status {@code 400 (Bad Request)} if the timeEntry is not valid,
-     * or with status {@code 404 (Not Found)} if the timeEntry is not found,
-     * or with status {@code 500 (Internal Server Error)} if the timeEntry couldn't be updated.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the view of the updated timeEntry,
+     * or with status {@code 400 (Bad Request)} if the timeEntry is not valid or not found,
+     * or with status {@code 409 (Conflict)} if the timeEntry is archived,
+     * or with status {@code 412 (Precondition Failed)} if the timeEntry is at another version.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PatchMapping(value = "/time-entries/{id}", consumes = { "application/json", "application/merge-patch+json" })
-    public ResponseEntity<TimeEntry> partialUpdateTimeEntry(
+    public ResponseEntity<TimeEntryView> partialUpdateTimeEntry(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @NotNull @RequestBody TimeEntry timeEntry
     ) throws URISyntaxException {
         log.debug("REST request to partial update TimeEntry partially : {}, {}", id, timeEntry);
@@ -118,70 +276,441 @@ public class TimeEntryResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!timeEntryRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
+        TimeEntry existingTimeEntry = timeEntryRepository.findCachedById(id).orElseThrow(() -> notFound(id));
+        Long expectedVersion = expectedVersion(ifMatch, timeEntry.getVersion());
+        if (expectedVersion != null && !expectedVersion.equals(existingTimeEntry.getVersion())) {
+            throw new PreconditionFailedAlertException("Entity was updated concurrently", ENTITY_NAME, "versionmismatch");
+        }
+        TimeEntryView before = TimeEntryView.of(existingTimeEntry);
+
+        if (timeEntry.getDate() != null) {
+            existingTimeEntry.setDate(timeEntry.getDate());
+        }
+        if (timeEntry.getMinutesWorked() != null) {
+            existingTimeEntry.setMinutesWorked(timeEntry.getMinutesWorked());
+        }
+        if (timeEntry.getTaskName() != null) {
+            existingTimeEntry.taskName(timeEntry.getTaskName()).task(taskService.intern(timeEntry.getTaskName()));
+        }
+        try {
+            timeEntryRepository.flush();
+        } catch (ObjectOptimisticLockingFailureException e) {
+            throw new PreconditionFailedAlertException("Entity was updated concurrently", ENTITY_NAME, "versionmismatch");
         }
 
-        Optional<TimeEntry> result = timeEntryRepository
-            .findById(timeEntry.getId())
-            .map(existingTimeEntry -> {
-                if (timeEntry.getDate() != null) {
-                    existingTimeEntry.setDate(timeEntry.getDate());
-                }
-                if (timeEntry.getMinutesWorked() != null) {
-                    existingTimeEntry.setMinutesWorked(timeEntry.getMinutesWorked());
-                }
-                if (timeEntry.getTaskName() != null) {
-                    existingTimeEntry.setTaskName(timeEntry.getTaskName());
-                }
+        TimeEntryView result = TimeEntryView.of(existingTimeEntry);
+        eventPublisher.publishEvent(TimeEntryChangedEvent.updated(before, result));
+        return ResponseEntity
+            .ok()
+            .eTag(String.valueOf(result.getVersion()))
+            .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, timeEntry.getId().toString()))
+            .body(result);
+    }
 
-                return existingTimeEntry;
-            })
-            .map(timeEntryRepository::save);
+    /**
+     * {@code GET  /time-entries} : get a page of timeEntries, ordered by date then id.
+     * <p>
+     * Entries are returned as {@link TimeEntryView}s, with the id and login of their user instead of the whole user.
+     * <p>
+     * Pages are addressed by an opaque cursor rather than an offset: the cursor of the next page is returned in the
+     * {@code X-Next-Cursor} header and as a {@code rel="next"} {@code Link}, and is absent on the last page.
+     *
+     * @param userId only return entries of this user.
+     * @param from only return entries on or after this date.
+     * @param to only return entries on or before this date.
+     * @param taskName only return entries with this task name.
+     * @param cursor the cursor of the page to get, or nothing for the first page.
+     * @param size the page size, capped to {@value #MAX_PAGE_SIZE}.
+     * @param request the request, for its {@code If-None-Match} header.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of timeEntry views in body,
+     * or with status {@code 304 (Not Modified)} if the page still matches the {@code If-None-Match} ETag,
+     * or with status {@code 400 (Bad Request)} if the cursor is not valid.
+     */
+    @GetMapping("/time-entries")
+    public ResponseEntity<List<TimeEntryView>> getAllTimeEntries(
+        @RequestParam(required = false) Long userId,
+        @RequestParam(required = false) LocalDate from,
+        @RequestParam(required = false) LocalDate to,
+        @RequestParam(required = false) String taskName,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int size,
+        WebRequest request
+    ) {
+        log.debug("REST request to get a page of TimeEntries after cursor {}", cursor);
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        LocalDate afterDate = null;
+        Long afterId = null;
+        if (cursor != null) {
+            try {
+                String[] key = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(CURSOR_SEPARATOR, 2);
+                afterDate = LocalDate.parse(key[0]);
+                afterId = Long.valueOf(key[1]);
+            } catch (IllegalArgumentException | DateTimeParseException | ArrayIndexOutOfBoundsException e) {
+                throw new BadRequestAlertException("Invalid cursor", ENTITY_NAME, "cursorinvalid");
+            }
+        }
 
-        return ResponseUtil.wrapOrNotFound(
-            result,
-            HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, timeEntry.getId().toString())
+        // Probe the ids and versions of the page first, so that an unchanged page is answered before it is loaded
+        String eTag = pageETag(timeEntryArchiveService.findPageVersionsAfter(userId, from, to, taskName, afterDate, afterId, pageSize + 1));
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+
+        // Fetch one extra row to know whether there is a next page without running a count query
+        List<TimeEntryView> timeEntries = timeEntryArchiveService.findPageAfter(
+            userId,
+            from,
+            to,
+            taskName,
+            afterDate,
+            afterId,
+            pageSize + 1
         );
+        HttpHeaders headers = new HttpHeaders();
+        if (timeEntries.size() > pageSize) {
+            timeEntries = timeEntries.subList(0, pageSize);
+            TimeEntryView last = timeEntries.get(pageSize - 1);
+            String nextCursor = encodeCursor(last.getDate(), last.getId());
+            String nextLink = ServletUriComponentsBuilder
+                .fromCurrentRequest()
+                .replaceQueryParam("cursor", nextCursor)
+                .replaceQueryParam("size", pageSize)
+                .toUriString();
+            headers.add(NEXT_CURSOR_HEADER, nextCursor);
+            headers.add(HttpHeaders.LINK, "<" + nextLink + ">; rel=\"next\"");
+        }
+        return ResponseEntity.ok().headers(headers).body(timeEntries);
     }
 
     /**
-     * {@code GET  /time-entries} : get all the timeEntries.
+     * {@code GET  /time-entries/search} : search timeEntries by task name, best matching task first, then by date and id.
+     * <p>
+     * Task names match the query fuzzily: see {@link TimeEntrySearchService}. Pages are addressed by an opaque cursor,
+     * as for {@code GET /time-entries}.
      *
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of timeEntries in body.
+     * @param q the free text to search the task names for.
+     * @param userId only return entries of this user.
+     * @param cursor the cursor of the page to get, or nothing for the first page.
+     * @param size the page size, capped to {@value #MAX_PAGE_SIZE}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of timeEntry views in body,
+     * or with status {@code 400 (Bad Request)} if the query is blank or the cursor is not valid.
      */
-    @GetMapping("/time-entries")
-    public List<TimeEntry> getAllTimeEntries() {
-        log.debug("REST request to get all TimeEntries");
-        return timeEntryRepository.findAll();
+    @GetMapping("/time-entries/search")
+    public ResponseEntity<List<TimeEntryView>> searchTimeEntries(
+        @RequestParam String q,
+        @RequestParam(required = false) Long userId,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int size
+    ) {
+        log.debug("REST request to search a page of TimeEntries for {} after cursor {}", q, cursor);
+        if (q.isBlank()) {
+            throw new BadRequestAlertException("A search query is required", ENTITY_NAME, "queryblank");
+        }
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        String afterTaskName = null;
+        LocalDate afterDate = null;
+        Long afterId = null;
+        if (cursor != null) {
+            try {
+                String[] key = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(CURSOR_SEPARATOR, 3);
+                afterDate = LocalDate.parse(key[0]);
+                afterId = Long.valueOf(key[1]);
+                afterTaskName = key[2];
+            } catch (IllegalArgumentException | DateTimeParseException | ArrayIndexOutOfBoundsException e) {
+                throw new BadRequestAlertException("Invalid cursor", ENTITY_NAME, "cursorinvalid");
+            }
+        }
+
+        List<TimeEntryView> timeEntries = timeEntrySearchService.search(q, userId, afterTaskName, afterDate, afterId, pageSize + 1);
+        HttpHeaders headers = new HttpHeaders();
+        if (timeEntries.size() > pageSize) {
+            timeEntries = timeEntries.subList(0, pageSize);
+            TimeEntryView last = timeEntries.get(pageSize - 1);
+            String nextCursor = encodeCursor(last.getDate(), last.getId(), last.getTaskName());
+            String nextLink = ServletUriComponentsBuilder
+                .fromCurrentRequest()
+                .replaceQueryParam("cursor", nextCursor)
+                .replaceQueryParam("size", pageSize)
+                .toUriString();
+            headers.add(NEXT_CURSOR_HEADER, nextCursor);
+            headers.add(HttpHeaders.LINK, "<" + nextLink + ">; rel=\"next\"");
+        }
+        return ResponseEntity.ok().headers(headers).body(timeEntries);
+    }
+
+    /**
+     * {@code GET  /time-entries/export} : export all the timeEntries matching the given filters, ordered by date then id.
+     * <p>
+     * The body is streamed from a database cursor as rows are read, so exports of any size run in constant memory.
+     *
+     * @param userId only export entries of this user.
+     * @param from only export entries on or after this date.
+     * @param to only export entries on or before this date.
+     * @param taskName only export entries with this task name.
+     * @param format the export format, {@code ndjson} or {@code csv}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the exported timeEntries in body,
+     * or with status {@code 400 (Bad Request)} if the format is not supported.
+     */
+    @GetMapping("/time-entries/export")
+    public ResponseEntity<StreamingResponseBody> exportTimeEntries(
+        @RequestParam(required = false) Long userId,
+        @RequestParam(required = false) LocalDate from,
+        @RequestParam(required = false) LocalDate to,
+        @RequestParam(required = false) String taskName,
+        @RequestParam(defaultValue = "ndjson") String format
+    ) {
+        log.debug("REST request to export TimeEntries as {}", format);
+        TimeEntryExportService.Format exportFormat;
+        try {
+            exportFormat = TimeEntryExportService.Format.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException("Unsupported export format", ENTITY_NAME, "formatinvalid");
+        }
+        MediaType contentType = exportFormat == TimeEntryExportService.Format.CSV ? TEXT_CSV : APPLICATION_NDJSON;
+        StreamingResponseBody body = out -> timeEntryExportService.export(userId, from, to, taskName, exportFormat, out);
+        return ResponseEntity
+            .ok()
+            .contentType(contentType)
+            .header(
+                HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename("time-entries." + format.toLowerCase(Locale.ROOT)).build().toString()
+            )
+            .body(body);
+    }
+
+    /**
+     * {@code GET  /time-entries/summary} : get the minutes worked per period, optionally per user and per task.
+     *
+     * @param period the period to sum over: {@code day}, {@code week}, {@code month} or {@code year}.
+     * @param groupBy what to break the totals down by: {@code user} and/or {@code task}.
+     * @param userId only sum entries of this user.
+     * @param from only sum entries on or after this date.
+     * @param to only sum entries on or before this date.
+     * @param taskName only sum entries with this task name.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the totals in body,
+     * or with status {@code 400 (Bad Request)} if the period or grouping is not supported.
+     */
+    @GetMapping("/time-entries/summary")
+    public ResponseEntity<List<TimeEntrySummaryDTO>> getTimeEntrySummary(
+        @RequestParam(defaultValue = "day") String period,
+        @RequestParam(required = false) Set<String> groupBy,
+        @RequestParam(required = false) Long userId,
+        @RequestParam(required = false) LocalDate from,
+        @RequestParam(required = false) LocalDate to,
+        @RequestParam(required = false) String taskName
+    ) {
+        log.debug("REST request to get a summary of TimeEntries per {}, grouped by {}", period, groupBy);
+        TimeEntrySummaryService.Period summaryPeriod;
+        try {
+            summaryPeriod = TimeEntrySummaryService.Period.valueOf(period.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException("Unsupported summary period", ENTITY_NAME, "periodinvalid");
+        }
+        Set<String> dimensions = groupBy == null ? Collections.emptySet() : groupBy;
+        if (!SUMMARY_DIMENSIONS.containsAll(dimensions)) {
+            throw new BadRequestAlertException("Unsupported summary grouping", ENTITY_NAME, "groupbyinvalid");
+        }
+        return ResponseEntity.ok(
+            timeEntrySummaryService.summarize(
+                summaryPeriod,
+                dimensions.contains("user"),
+                dimensions.contains("task"),
+                userId,
+                from,
+                to,
+                taskName
+            )
+        );
+    }
+
+    /**
+     * {@code GET  /time-entries/totals} : get the minutes worked by one user during one period.
+     *
+     * @param period the period to sum over: {@code day}, {@code week}, {@code month} or {@code year}.
+     * @param date any day of the period, today if not given.
+     * @param userId the id of the user, the current user if not given.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the total in body,
+     * or with status {@code 400 (Bad Request)} if the period is not supported.
+     */
+    @GetMapping("/time-entries/totals")
+    public ResponseEntity<TimeEntrySummaryDTO> getTimeEntryTotal(
+        @RequestParam(defaultValue = "week") String period,
+        @RequestParam(required = false) LocalDate date,
+        @RequestParam(required = false) Long userId
+    ) {
+        log.debug("REST request to get the TimeEntry total of user {} for the {} of {}", userId, period, date);
+        TimeEntrySummaryService.Period summaryPeriod;
+        try {
+            summaryPeriod = TimeEntrySummaryService.Period.valueOf(period.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException("Unsupported summary period", ENTITY_NAME, "periodinvalid");
+        }
+        Long totalUserId = userId != null
+            ? userId
+            : userService
+                .getUserWithAuthorities()
+                .map(User::getId)
+                .orElseThrow(() -> new BadRequestAlertException("No current user", ENTITY_NAME, "usernotfound"));
+        return ResponseEntity.ok(
+            timeEntrySummaryService.total(summaryPeriod, totalUserId, date == null ? LocalDate.now() : date)
+        );
+    }
+
+    /**
+     * {@code GET  /time-entries/changes} : get the changes of timeEntries after a cursor, to sync a local copy.
+     * <p>
+     * Deleted entries, and entries moved away from the user, come back without a timeEntry. Keep calling with the
+     * returned cursor while {@code hasMore} is set.
+     *
+     * @param userId only return changes of entries of this user.
+     * @param since the cursor returned by the previous call, {@code 0} for a first sync.
+     * @param size the maximum number of changes to read, capped to {@value #MAX_PAGE_SIZE}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the changes in body.
+     */
+    @GetMapping("/time-entries/changes")
+    public ResponseEntity<TimeEntryChangesDTO> getTimeEntryChanges(
+        @RequestParam(required = false) Long userId,
+        @RequestParam(defaultValue = "0") long since,
+        @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int size
+    ) {
+        log.debug("REST request to get the changes of TimeEntries of user {} after {}", userId, since);
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        return ResponseEntity.ok(timeEntryChangeLogService.findChangesAfter(userId, since, pageSize));
+    }
+
+    /**
+     * {@code GET  /time-entries/events} : stream the changes of the current user's timeEntries as Server-Sent Events.
+     * <p>
+     * Created and updated entries come as {@value TimeEntryPushService#UPDATED_EVENT} events with the entry, deleted ones
+     * as {@value TimeEntryPushService#DELETED_EVENT} events with its id. A {@value TimeEntryPushService#RESYNC_EVENT}
+     * event means changes were dropped, and the entries should be fetched again.
+     *
+     * @return the event stream.
+     */
+    @GetMapping(value = "/time-entries/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamTimeEntryEvents() {
+        Long userId = userService
+            .getUserWithAuthorities()
+            .map(User::getId)
+            .orElseThrow(() -> new BadRequestAlertException("No current user", ENTITY_NAME, "usernotfound"));
+        log.debug("REST request to stream the TimeEntry changes of user {}", userId);
+        return timeEntryPushService.subscribe(userId);
+    }
+
+    /**
+     * {@code GET  /time-entries/mine} : get all the timeEntries of the current user, ordered by date then id.
+     * <p>
+     * The entries are cached per user until one of them is written, so repeated calls do not hit the database.
+     *
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of timeEntry views in body.
+     */
+    @GetMapping("/time-entries/mine")
+    public ResponseEntity<List<TimeEntryView>> getMyTimeEntries() {
+        Long userId = userService
+            .getUserWithAuthorities()
+            .map(User::getId)
+            .orElseThrow(() -> new BadRequestAlertException("No current user", ENTITY_NAME, "usernotfound"));
+        log.debug("REST request to get all TimeEntries of user {}", userId);
+        return ResponseEntity.ok(userTimeEntriesService.findAllOfUser(userId));
     }
 
     /**
      * {@code GET  /time-entries/:id} : get the "id" timeEntry.
      *
      * @param id the id of the timeEntry to retrieve.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the timeEntry, or with status {@code 404 (Not Found)}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the timeEntry view, or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/time-entries/{id}")
-    public ResponseEntity<TimeEntry> getTimeEntry(@PathVariable Long id) {
+    public ResponseEntity<TimeEntryView> getTimeEntry(@PathVariable Long id) {
         log.debug("REST request to get TimeEntry : {}", id);
-        Optional<TimeEntry> timeEntry = timeEntryRepository.findById(id);
-        return ResponseUtil.wrapOrNotFound(timeEntry);
+        return timeEntryArchiveService
+            .findViewById(id)
+            .map(timeEntry -> ResponseEntity.ok().eTag(String.valueOf(timeEntry.getVersion())).body(timeEntry))
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
     }
 
     /**
      * {@code DELETE  /time-entries/:id} : delete the "id" timeEntry.
      *
      * @param id the id of the timeEntry to delete.
-     * @return the {@link ResponseEntity} with status {@code 204 (NO_CONTENT)}.
+     * @return the {@link ResponseEntity} with status {@code 204 (NO_CONTENT)},
+     * or with status {@code 409 (Conflict)} if the timeEntry is archived.
      */
     @DeleteMapping("/time-entries/{id}")
     public ResponseEntity<Void> deleteTimeEntry(@PathVariable Long id) {
         log.debug("REST request to delete TimeEntry : {}", id);
-        timeEntryRepository.deleteById(id);
+        TimeEntry timeEntry = timeEntryRepository.findById(id).orElse(null);
+        if (timeEntry != null) {
+            timeEntryRepository.delete(timeEntry);
+            eventPublisher.publishEvent(TimeEntryChangedEvent.deleted(TimeEntryView.of(timeEntry)));
+        } else if (timeEntryArchiveService.isArchived(id)) {
+            throw archived();
+        }
         return ResponseEntity
             .noContent()
             .headers(HeaderUtil.createEntityDeletionAlert(applicationName, true, ENTITY_NAME, id.toString()))
             .build();
     }
+
+    /**
+     * Get the error of a write to an entry which is not in the database: archived entries are still readable, but no
+     * longer writable.
+     */
+    private RuntimeException notFound(Long id) {
+        if (timeEntryArchiveService.isArchived(id)) {
+            return archived();
+        }
+        return new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
+    }
+
+    private static ConflictAlertException archived() {
+        return new ConflictAlertException("Entity is archived", ENTITY_NAME, "archived");
+    }
+
+    /**
+     * Get the version a conditional write expects, from a single strong {@code If-Match} ETag, or else from the body.
+     *
+     * @return the expected version, or {@code null} if the write is unconditional ({@code If-Match: *} or nothing given).
+     */
+    private static Long expectedVersion(String ifMatch, Long bodyVersion) {
+        if (ifMatch == null) {
+            return bodyVersion;
+        }
+        String tag = ifMatch.trim();
+        if (tag.equals("*")) {
+            return null;
+        }
+        if (tag.length() < 2 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+            // Weak or malformed tags never match, as If-Match uses the strong comparison
+            throw new PreconditionFailedAlertException("If-Match is not a strong ETag", ENTITY_NAME, "versionmismatch");
+        }
+        try {
+            return Long.valueOf(tag.substring(1, tag.length() - 1));
+        } catch (NumberFormatException e) {
+            throw new PreconditionFailedAlertException("If-Match is not an ETag of this entity", ENTITY_NAME, "versionmismatch");
+        }
+    }
+
+    /**
+     * Get a strong ETag of a page from the ids and versions of its entries, which change whenever an entry of the page
+     * is created, updated or deleted.
+     */
+    private static String pageETag(List<Object[]> versions) {
+        ByteBuffer buffer = ByteBuffer.allocate(versions.size() * 2 * Long.BYTES);
+        for (Object[] version : versions) {
+            buffer.putLong((Long) version[0]).putLong((Long) version[1]);
+        }
+        return DigestUtils.md5DigestAsHex(buffer.array());
+    }
+
+    private static String encodeCursor(LocalDate date, Long id, String taskName) {
+        return Base64
+            .getUrlEncoder()
+            .withoutPadding()
+            .encodeToString((date + CURSOR_SEPARATOR + id + CURSOR_SEPARATOR + taskName).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String encodeCursor(LocalDate date, Long id) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString((date + CURSOR_SEPARATOR + id).getBytes(StandardCharsets.UTF_8));
+    }
 }
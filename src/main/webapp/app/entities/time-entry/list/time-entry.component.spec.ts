@@ -1,7 +1,6 @@
 import { ComponentFixture, TestBed } from '@angular/core/testing';
 import { HttpHeaders, HttpResponse } from '@angular/common/http';
 import { HttpClientTestingModule } from '@angular/common/http/testing';
-import { ActivatedRoute } from '@angular/router';
 import { RouterTestingModule } from '@angular/router/testing';
 import { of } from 'rxjs';
 
@@ -18,24 +17,6 @@ describe('TimeEntry Management Component', () => {
     TestBed.configureTestingModule({
       imports: [RouterTestingModule.withRoutes([{ path: 'time-entry', component: TimeEntryComponent }]), HttpClientTestingModule],
       declarations: [TimeEntryComponent],
-      providers: [
-        {
-          provide: ActivatedRoute,
-          useValue: {
-            data: of({
-              defaultSort: 'id,asc',
-            }),
-            queryParamMap: of(
-              jest.requireActual('@angular/router').convertToParamMap({
-                page: '1',
-                size: '1',
-                sort: 'id,desc',
-              })
-            ),
-            snapshot: { queryParams: {} },
-          },
-        },
-      ],
     })
       .overrideTemplate(TimeEntryComponent, '')
       .compileComponents();
@@ -44,7 +25,7 @@ describe('TimeEntry Management Component', () => {
     comp = fixture.componentInstance;
     service = TestBed.inject(TimeEntryService);
 
-    const headers = new HttpHeaders();
+    const headers = new HttpHeaders().append('X-Next-Cursor', 'next');
     jest.spyOn(service, 'query').mockReturnValue(
       of(
         new HttpResponse({
@@ -62,6 +43,33 @@ describe('TimeEntry Management Component', () => {
     // THEN
     expect(service.query).toHaveBeenCalled();
     expect(comp.timeEntries?.[0]).toEqual(expect.objectContaining({ id: 123 }));
+    expect(comp.nextCursor).toEqual('next');
+  });
+
+  it('Should append the next page', () => {
+    // GIVEN
+    comp.ngOnInit();
+    jest.spyOn(service, 'query').mockReturnValue(of(new HttpResponse({ body: [{ id: 456 }] })));
+
+    // WHEN
+    comp.loadNextPage();
+
+    // THEN
+    expect(service.query).toHaveBeenLastCalledWith({ cursor: 'next' });
+    expect(comp.timeEntries).toEqual([expect.objectContaining({ id: 123 }), expect.objectContaining({ id: 456 })]);
+    expect(comp.nextCursor).toBeNull();
+  });
+
+  it('Should restart from the first page on refresh', () => {
+    // GIVEN
+    comp.ngOnInit();
+
+    // WHEN
+    comp.load();
+
+    // THEN
+    expect(service.query).toHaveBeenLastCalledWith({});
+    expect(comp.timeEntries).toEqual([expect.objectContaining({ id: 123 })]);
   });
 
   describe('trackId', () => {
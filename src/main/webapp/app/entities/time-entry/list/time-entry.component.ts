@@ -1,13 +1,16 @@
 import { Component, OnInit } from '@angular/core';
-import { ActivatedRoute, Data, ParamMap, Router } from '@angular/router';
-import { combineLatest, filter, Observable, switchMap, tap } from 'rxjs';
+import { filter, Observable, tap } from 'rxjs';
 import { NgbModal } from '@ng-bootstrap/ng-bootstrap';
 
 import { ITimeEntry } from '../time-entry.model';
-import { ASC, DESC, SORT, ITEM_DELETED_EVENT, DEFAULT_SORT_DATA } from 'app/config/navigation.constants';
+import { ITEM_DELETED_EVENT } from 'app/config/navigation.constants';
 import { EntityArrayResponseType, TimeEntryService } from '../service/time-entry.service';
 import { TimeEntryDeleteDialogComponent } from '../delete/time-entry-delete-dialog.component';
-import { SortService } from 'app/shared/sort/sort.service';
+
+/**
+ * The header holding the cursor of the next page, absent on the last page.
+ */
+export const NEXT_CURSOR_HEADER = 'X-Next-Cursor';
 
 @Component({
   selector: 'jhi-time-entry',
@@ -17,16 +20,10 @@ export class TimeEntryComponent implements OnInit {
   timeEntries?: ITimeEntry[];
   isLoading = false;
 
-  predicate = 'id';
-  ascending = true;
+  // The time entries are listed in the server's (date, id) order, one keyset page after the other
+  nextCursor: string | null = null;
 
-  constructor(
-    protected timeEntryService: TimeEntryService,
-    protected activatedRoute: ActivatedRoute,
-    public router: Router,
-    protected sortService: SortService,
-    protected modalService: NgbModal
-  ) {}
+  constructor(protected timeEntryService: TimeEntryService, protected modalService: NgbModal) {}
 
   trackId = (_index: number, item: ITimeEntry): number => this.timeEntryService.getTimeEntryIdentifier(item);
 
@@ -38,81 +35,46 @@ export class TimeEntryComponent implements OnInit {
     const modalRef = this.modalService.open(TimeEntryDeleteDialogComponent, { size: 'lg', backdrop: 'static' });
     modalRef.componentInstance.timeEntry = timeEntry;
     // unsubscribe not needed because closed completes on modal close
-    modalRef.closed
-      .pipe(
-        filter(reason => reason === ITEM_DELETED_EVENT),
-        switchMap(() => this.loadFromBackendWithRouteInformations())
-      )
-      .subscribe({
-        next: (res: EntityArrayResponseType) => {
-          this.onResponseSuccess(res);
-        },
-      });
+    modalRef.closed.pipe(filter(reason => reason === ITEM_DELETED_EVENT)).subscribe({
+      next: () => {
+        this.timeEntries = this.timeEntries?.filter(item => item.id !== timeEntry.id);
+      },
+    });
   }
 
   load(): void {
-    this.loadFromBackendWithRouteInformations().subscribe({
+    this.queryBackend().subscribe({
       next: (res: EntityArrayResponseType) => {
+        this.timeEntries = [];
         this.onResponseSuccess(res);
       },
     });
   }
 
-  navigateToWithComponentValues(): void {
-    this.handleNavigation(this.predicate, this.ascending);
-  }
-
-  protected loadFromBackendWithRouteInformations(): Observable<EntityArrayResponseType> {
-    return combineLatest([this.activatedRoute.queryParamMap, this.activatedRoute.data]).pipe(
-      tap(([params, data]) => this.fillComponentAttributeFromRoute(params, data)),
-      switchMap(() => this.queryBackend(this.predicate, this.ascending))
-    );
-  }
-
-  protected fillComponentAttributeFromRoute(params: ParamMap, data: Data): void {
-    const sort = (params.get(SORT) ?? data[DEFAULT_SORT_DATA]).split(',');
-    this.predicate = sort[0];
-    this.ascending = sort[1] === ASC;
+  loadNextPage(): void {
+    if (this.isLoading || this.nextCursor === null) {
+      return;
+    }
+    this.queryBackend(this.nextCursor).subscribe({
+      next: (res: EntityArrayResponseType) => {
+        this.onResponseSuccess(res);
+      },
+    });
   }
 
   protected onResponseSuccess(response: EntityArrayResponseType): void {
+    this.nextCursor = response.headers.get(NEXT_CURSOR_HEADER);
     const dataFromBody = this.fillComponentAttributesFromResponseBody(response.body);
-    this.timeEntries = this.refineData(dataFromBody);
-  }
-
-  protected refineData(data: ITimeEntry[]): ITimeEntry[] {
-    return data.sort(this.sortService.startSort(this.predicate, this.ascending ? 1 : -1));
+    this.timeEntries = [...(this.timeEntries ?? []), ...dataFromBody];
   }
 
   protected fillComponentAttributesFromResponseBody(data: ITimeEntry[] | null): ITimeEntry[] {
     return data ?? [];
   }
 
-  protected queryBackend(predicate?: string, ascending?: boolean): Observable<EntityArrayResponseType> {
+  protected queryBackend(cursor?: string): Observable<EntityArrayResponseType> {
     this.isLoading = true;
-    const queryObject = {
-      sort: this.getSortQueryParam(predicate, ascending),
-    };
+    const queryObject = cursor ? { cursor } : {};
     return this.timeEntryService.query(queryObject).pipe(tap(() => (this.isLoading = false)));
   }
-
-  protected handleNavigation(predicate?: string, ascending?: boolean): void {
-    const queryParamsObj = {
-      sort: this.getSortQueryParam(predicate, ascending),
-    };
-
-    this.router.navigate(['./'], {
-      relativeTo: this.activatedRoute,
-      queryParams: queryParamsObj,
-    });
-  }
-
-  protected getSortQueryParam(predicate = this.predicate, ascending = this.ascending): string[] {
-    const ascendingQueryParam = ascending ? ASC : DESC;
-    if (predicate === '') {
-      return [];
-    } else {
-      return [predicate + ',' + ascendingQueryParam];
-    }
-  }
 }
@@ -6,15 +6,11 @@ import { TimeEntryComponent } from '../list/time-entry.component';
 import { TimeEntryDetailComponent } from '../detail/time-entry-detail.component';
 import { TimeEntryUpdateComponent } from '../update/time-entry-update.component';
 import { TimeEntryRoutingResolveService } from './time-entry-routing-resolve.service';
-import { ASC } from 'app/config/navigation.constants';
 
 const timeEntryRoute: Routes = [
   {
     path: '',
     component: TimeEntryComponent,
-    data: {
-      defaultSort: 'id,' + ASC,
-    },
     canActivate: [UserRouteAccessService],
   },
   {
@@ -22,12 +22,26 @@ export type NewRestTimeEntry = RestOf<NewTimeEntry>;
 
 export type PartialUpdateRestTimeEntry = RestOf<PartialUpdateTimeEntry>;
 
+/**
+ * The lean shape returned by the list, detail and partial update endpoints: the user is flattened to its id and login.
+ */
+export type RestTimeEntryView = Omit<RestTimeEntry, 'user'> & {
+  userId?: number | null;
+  userLogin?: string | null;
+};
+
+/**
+ * The shortest prefix the server suggests task names for.
+ */
+export const TASK_NAME_SUGGEST_MIN_LENGTH = 2;
+
 export type EntityResponseType = HttpResponse<ITimeEntry>;
 export type EntityArrayResponseType = HttpResponse<ITimeEntry[]>;
 
 @Injectable({ providedIn: 'root' })
 export class TimeEntryService {
   protected resourceUrl = this.applicationConfigService.getEndpointFor('api/time-entries');
+  protected tasksUrl = this.applicationConfigService.getEndpointFor('api/tasks');
 
   constructor(protected http: HttpClient, protected applicationConfigService: ApplicationConfigService) {}
 
@@ -45,24 +59,28 @@ export class TimeEntryService {
       .pipe(map(res => this.convertResponseFromServer(res)));
   }
 
+  suggestTaskNames(prefix: string): Observable<string[]> {
+    return this.http.get<string[]>(`${this.tasksUrl}/suggest`, { params: { prefix } });
+  }
+
   partialUpdate(timeEntry: PartialUpdateTimeEntry): Observable<EntityResponseType> {
     const copy = this.convertDateFromClient(timeEntry);
     return this.http
-      .patch<RestTimeEntry>(`${this.resourceUrl}/${this.getTimeEntryIdentifier(timeEntry)}`, copy, { observe: 'response' })
-      .pipe(map(res => this.convertResponseFromServer(res)));
+      .patch<RestTimeEntryView>(`${this.resourceUrl}/${this.getTimeEntryIdentifier(timeEntry)}`, copy, { observe: 'response' })
+      .pipe(map(res => this.convertViewResponseFromServer(res)));
   }
 
   find(id: number): Observable<EntityResponseType> {
     return this.http
-      .get<RestTimeEntry>(`${this.resourceUrl}/${id}`, { observe: 'response' })
-      .pipe(map(res => this.convertResponseFromServer(res)));
+      .get<RestTimeEntryView>(`${this.resourceUrl}/${id}`, { observe: 'response' })
+      .pipe(map(res => this.convertViewResponseFromServer(res)));
   }
 
   query(req?: any): Observable<EntityArrayResponseType> {
     const options = createRequestOption(req);
     return this.http
-      .get<RestTimeEntry[]>(this.resourceUrl, { params: options, observe: 'response' })
-      .pipe(map(res => this.convertResponseArrayFromServer(res)));
+      .get<RestTimeEntryView[]>(this.resourceUrl, { params: options, observe: 'response' })
+      .pipe(map(res => this.convertViewResponseArrayFromServer(res)));
   }
 
   delete(id: number): Observable<HttpResponse<{}>> {
@@ -111,6 +129,25 @@ export class TimeEntryService {
     };
   }
 
+  protected convertViewFromServer({ userId, userLogin, ...restTimeEntry }: RestTimeEntryView): ITimeEntry {
+    return this.convertDateFromServer({
+      ...restTimeEntry,
+      user: userId != null ? { id: userId } : null,
+    });
+  }
+
+  protected convertViewResponseFromServer(res: HttpResponse<RestTimeEntryView>): HttpResponse<ITimeEntry> {
+    return res.clone({
+      body: res.body ? this.convertViewFromServer(res.body) : null,
+    });
+  }
+
+  protected convertViewResponseArrayFromServer(res: HttpResponse<RestTimeEntryView[]>): HttpResponse<ITimeEntry[]> {
+    return res.clone({
+      body: res.body ? res.body.map(item => this.convertViewFromServer(item)) : null,
+    });
+  }
+
   protected convertResponseFromServer(res: HttpResponse<RestTimeEntry>): HttpResponse<ITimeEntry> {
     return res.clone({
       body: res.body ? this.convertDateFromServer(res.body) : null,
@@ -7,6 +7,7 @@ export interface ITimeEntry {
   minutesWorked?: number | null;
   taskName?: string | null;
   user?: Pick<IUser, 'id'> | null;
+  version?: number | null;
 }
 
 export type NewTimeEntry = Omit<ITimeEntry, 'id'> & { id: null };
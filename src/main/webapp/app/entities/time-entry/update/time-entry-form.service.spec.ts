@@ -24,6 +24,7 @@ describe('TimeEntry Form Service', () => {
             minutesWorked: expect.any(Object),
             taskName: expect.any(Object),
             user: expect.any(Object),
+            version: expect.any(Object),
           })
         );
       });
@@ -38,6 +39,7 @@ describe('TimeEntry Form Service', () => {
             minutesWorked: expect.any(Object),
             taskName: expect.any(Object),
             user: expect.any(Object),
+            version: expect.any(Object),
           })
         );
       });
@@ -22,6 +22,7 @@ type TimeEntryFormGroupContent = {
   minutesWorked: FormControl<ITimeEntry['minutesWorked']>;
   taskName: FormControl<ITimeEntry['taskName']>;
   user: FormControl<ITimeEntry['user']>;
+  version: FormControl<ITimeEntry['version']>;
 };
 
 export type TimeEntryFormGroup = FormGroup<TimeEntryFormGroupContent>;
@@ -51,6 +52,7 @@ export class TimeEntryFormService {
         validators: [Validators.required],
       }),
       user: new FormControl(timeEntryRawValue.user),
+      version: new FormControl(timeEntryRawValue.version),
     });
   }
 
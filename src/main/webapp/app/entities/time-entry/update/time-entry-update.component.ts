@@ -1,12 +1,12 @@
 import { Component, OnInit } from '@angular/core';
 import { HttpResponse } from '@angular/common/http';
 import { ActivatedRoute } from '@angular/router';
-import { Observable } from 'rxjs';
-import { finalize, map } from 'rxjs/operators';
+import { Observable, of } from 'rxjs';
+import { debounceTime, distinctUntilChanged, finalize, map, switchMap } from 'rxjs/operators';
 
 import { TimeEntryFormService, TimeEntryFormGroup } from './time-entry-form.service';
 import { ITimeEntry } from '../time-entry.model';
-import { TimeEntryService } from '../service/time-entry.service';
+import { TASK_NAME_SUGGEST_MIN_LENGTH, TimeEntryService } from '../service/time-entry.service';
 import { IUser } from 'app/entities/user/user.model';
 import { UserService } from 'app/entities/user/user.service';
 
@@ -20,6 +20,8 @@ export class TimeEntryUpdateComponent implements OnInit {
 
   usersSharedCollection: IUser[] = [];
 
+  taskNameSuggestions: string[] = [];
+
   editForm: TimeEntryFormGroup = this.timeEntryFormService.createTimeEntryFormGroup();
 
   constructor(
@@ -40,6 +42,16 @@ export class TimeEntryUpdateComponent implements OnInit {
 
       this.loadRelationshipsOptions();
     });
+
+    this.editForm.controls.taskName.valueChanges
+      .pipe(
+        debounceTime(150),
+        distinctUntilChanged(),
+        switchMap(prefix =>
+          prefix && prefix.length >= TASK_NAME_SUGGEST_MIN_LENGTH ? this.timeEntryService.suggestTaskNames(prefix) : of([])
+        )
+      )
+      .subscribe(names => (this.taskNameSuggestions = names));
   }
 
   previousState(): void {
@@ -13,4 +13,14 @@ public class AsyncSyncConfiguration {
     public Executor taskExecutor() {
         return new SyncTaskExecutor();
     }
+
+    @Bean(name = "timeEntryPushExecutor")
+    public Executor timeEntryPushExecutor() {
+        return new SyncTaskExecutor();
+    }
+
+    @Bean(name = "cacheWarmUpExecutor")
+    public Executor cacheWarmUpExecutor() {
+        return new SyncTaskExecutor();
+    }
 }
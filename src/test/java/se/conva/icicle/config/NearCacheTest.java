@@ -0,0 +1,76 @@
+package se.conva.icicle.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+/**
+ * Unit tests for the {@link NearCache}.
+ */
+class NearCacheTest {
+
+    private ConcurrentMapCache far;
+
+    private NearCache cache;
+
+    @BeforeEach
+    public void setup() {
+        far = new ConcurrentMapCache("test");
+        cache = new NearCache(far, Caffeine.newBuilder().maximumSize(10).build());
+    }
+
+    @Test
+    void testReadsThroughToFarCache() {
+        far.put("key", "value");
+
+        assertThat(cache.get("key", String.class)).isEqualTo("value");
+        assertThat(cache.getNear().getIfPresent("key")).isNotNull();
+    }
+
+    @Test
+    void testAnswersFromNearCache() {
+        cache.put("key", "value");
+        far.clear();
+
+        assertThat(cache.get("key", String.class)).isEqualTo("value");
+    }
+
+    @Test
+    void testCachesNullValues() {
+        cache.put("key", null);
+
+        assertThat(cache.get("key")).isNotNull();
+        assertThat(cache.get("key").get()).isNull();
+    }
+
+    @Test
+    void testEvictsBothLevels() {
+        cache.put("key", "value");
+
+        cache.evict("key");
+
+        assertThat(cache.get("key")).isNull();
+        assertThat(far.get("key")).isNull();
+        assertThat(cache.getNear().getIfPresent("key")).isNull();
+    }
+
+    @Test
+    void testClearsBothLevels() {
+        cache.put("key", "value");
+
+        cache.clear();
+
+        assertThat(cache.get("key")).isNull();
+        assertThat(cache.getNear().estimatedSize()).isZero();
+    }
+
+    @Test
+    void testLoadsOnceThroughValueLoader() {
+        assertThat(cache.get("key", () -> "loaded")).isEqualTo("loaded");
+        assertThat(cache.get("key", () -> "reloaded")).isEqualTo("loaded");
+        assertThat(far.get("key", String.class)).isEqualTo("loaded");
+    }
+}
@@ -0,0 +1,196 @@
+package se.conva.icicle.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.util.ReflectionTestUtils;
+import se.conva.icicle.config.ApplicationProperties;
+import se.conva.icicle.domain.PersistentToken;
+import se.conva.icicle.domain.User;
+import se.conva.icicle.repository.PersistentTokenRepository;
+import se.conva.icicle.repository.UserRepository;
+import tech.jhipster.config.JHipsterProperties;
+
+/**
+ * Test class for the {@link PersistentTokenRememberMeServices} auto-logins and their cache of upgraded tokens.
+ */
+class PersistentTokenRememberMeServicesTest {
+
+    private static final String LOGIN = "remember-me";
+
+    private static final String SERIES = "series";
+
+    private static final String TOKEN_VALUE = "token";
+
+    private PersistentTokenRepository persistentTokenRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private PersistentTokenRememberMeServices rememberMeServices;
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    public void setup() {
+        JHipsterProperties jHipsterProperties = new JHipsterProperties();
+        jHipsterProperties.getSecurity().getRememberMe().setKey("remember-me-key");
+        UserDetailsService userDetailsService = mock(UserDetailsService.class);
+        when(userDetailsService.loadUserByUsername(LOGIN))
+            .thenReturn(org.springframework.security.core.userdetails.User.withUsername(LOGIN).password("").authorities(List.of()).build());
+        persistentTokenRepository = mock(PersistentTokenRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        rememberMeServices =
+            new PersistentTokenRememberMeServices(
+                jHipsterProperties,
+                userDetailsService,
+                persistentTokenRepository,
+                mock(UserRepository.class),
+                mock(PersistentTokenWriteBehind.class),
+                new ApplicationProperties(),
+                meterRegistry
+            );
+        executor = Executors.newFixedThreadPool(8);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testParallelAutoLoginsOfOneSeriesUpgradeTheTokenOnce() throws Exception {
+        PersistentToken token = createToken(SERIES);
+        when(persistentTokenRepository.findById(SERIES)).thenReturn(Optional.of(token));
+        when(persistentTokenRepository.saveAndFlush(any()))
+            .thenAnswer(invocation -> {
+                // Leave the other auto-logins time to get to the lock
+                Thread.sleep(50);
+                return invocation.getArgument(0);
+            });
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<UserDetails>> autoLogins = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            autoLogins.add(
+                executor.submit(() -> {
+                    start.await();
+                    return autoLogin(SERIES);
+                })
+            );
+        }
+        start.countDown();
+
+        // The first auto-login rotates the token value; the others reuse the cached upgrade instead of failing as thefts
+        for (Future<UserDetails> autoLogin : autoLogins) {
+            assertThat(autoLogin.get(10, TimeUnit.SECONDS).getUsername()).isEqualTo(LOGIN);
+        }
+        verify(persistentTokenRepository, times(1)).findById(SERIES);
+        verify(persistentTokenRepository, times(1)).saveAndFlush(token);
+        assertThat(token.getTokenValue()).isNotEqualTo(TOKEN_VALUE);
+    }
+
+    @Test
+    void testAutoLoginsOfDifferentSeriesDoNotWaitOnEachOther() throws Exception {
+        String otherSeries = seriesOnAnotherStripe(SERIES);
+        when(persistentTokenRepository.findById(SERIES)).thenReturn(Optional.of(createToken(SERIES)));
+        when(persistentTokenRepository.findById(otherSeries)).thenReturn(Optional.of(createToken(otherSeries)));
+        CountDownLatch saving = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(persistentTokenRepository.saveAndFlush(any()))
+            .thenAnswer(invocation -> {
+                PersistentToken saved = invocation.getArgument(0);
+                if (saved.getSeries().equals(SERIES)) {
+                    saving.countDown();
+                    release.await(10, TimeUnit.SECONDS);
+                }
+                return saved;
+            });
+
+        Future<UserDetails> blocked = executor.submit(() -> autoLogin(SERIES));
+        assertThat(saving.await(10, TimeUnit.SECONDS)).isTrue();
+        try {
+            // Completes while the first auto-login still holds the lock of its series
+            assertThat(executor.submit(() -> autoLogin(otherSeries)).get(5, TimeUnit.SECONDS).getUsername()).isEqualTo(LOGIN);
+            assertThat(blocked).isNotDone();
+        } finally {
+            release.countDown();
+        }
+        assertThat(blocked.get(10, TimeUnit.SECONDS).getUsername()).isEqualTo(LOGIN);
+    }
+
+    @Test
+    void testUpgradedTokenCacheIsBoundedAndExpiresAfterFiveSeconds() {
+        @SuppressWarnings("unchecked")
+        Cache<String, ?> cache = (Cache<String, ?>) ReflectionTestUtils.getField(rememberMeServices, "upgradedTokenCache");
+
+        assertThat(cache.policy().eviction()).hasValueSatisfying(eviction -> assertThat(eviction.getMaximum()).isEqualTo(10_000));
+        assertThat(cache.policy().expireAfterWrite())
+            .hasValueSatisfying(expiration -> assertThat(expiration.getExpiresAfter(TimeUnit.MILLISECONDS)).isEqualTo(5000));
+    }
+
+    @Test
+    void testUpgradedTokenCacheMetersAreRegistered() {
+        when(persistentTokenRepository.findById(SERIES)).thenReturn(Optional.of(createToken(SERIES)));
+
+        autoLogin(SERIES);
+        autoLogin(SERIES);
+
+        Tags tags = Tags.of("cache", "upgradedRememberMeTokens", "cache.manager", "rememberMeServices");
+        assertThat(meterRegistry.get("cache.size").tags(tags).gauge().value()).isEqualTo(1);
+        assertThat(meterRegistry.get("cache.gets").tags(tags).tag("result", "hit").functionCounter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("cache.gets").tags(tags).tag("result", "miss").functionCounter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("cache.expirations").tags(tags).counter().count()).isZero();
+    }
+
+    private UserDetails autoLogin(String series) {
+        return rememberMeServices.processAutoLoginCookie(
+            new String[] { series, TOKEN_VALUE },
+            new MockHttpServletRequest(),
+            new MockHttpServletResponse()
+        );
+    }
+
+    private static PersistentToken createToken(String series) {
+        User user = new User();
+        user.setLogin(LOGIN);
+        PersistentToken token = new PersistentToken();
+        token.setSeries(series);
+        token.setUser(user);
+        token.setTokenValue(TOKEN_VALUE);
+        token.setTokenDate(LocalDate.now());
+        return token;
+    }
+
+    private static String seriesOnAnotherStripe(String series) {
+        int stripes = (int) ReflectionTestUtils.getField(PersistentTokenRememberMeServices.class, "SERIES_LOCK_STRIPES");
+        for (int i = 0;; i++) {
+            String other = series + i;
+            if (Math.floorMod(other.hashCode(), stripes) != Math.floorMod(series.hashCode(), stripes)) {
+                return other;
+            }
+        }
+    }
+}
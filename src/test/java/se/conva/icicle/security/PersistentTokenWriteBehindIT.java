@@ -0,0 +1,96 @@
+package se.conva.icicle.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import java.time.LocalDate;
+import javax.persistence.EntityManager;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.web.authentication.rememberme.RememberMeAuthenticationException;
+import org.springframework.transaction.annotation.Transactional;
+import se.conva.icicle.IntegrationTest;
+import se.conva.icicle.domain.PersistentToken;
+import se.conva.icicle.domain.User;
+import se.conva.icicle.repository.PersistentTokenRepository;
+import se.conva.icicle.repository.UserRepository;
+
+/**
+ * Integration tests for {@link PersistentTokenWriteBehind}.
+ */
+@Transactional
+@IntegrationTest
+class PersistentTokenWriteBehindIT {
+
+    private static final String SERIES = "write-behind-series";
+
+    @Autowired
+    private PersistentTokenWriteBehind persistentTokenWriteBehind;
+
+    @Autowired
+    private PersistentTokenRepository persistentTokenRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager em;
+
+    private PersistentToken token;
+
+    @BeforeEach
+    public void init() {
+        User user = new User();
+        user.setLogin("write-behind");
+        user.setPassword(RandomStringUtils.randomAlphanumeric(60));
+        user.setActivated(true);
+        user.setEmail("write-behind@localhost");
+        user.setLangKey("en");
+        userRepository.save(user);
+
+        token = new PersistentToken();
+        token.setSeries(SERIES);
+        token.setUser(user);
+        token.setTokenValue("old-value");
+        token.setTokenDate(LocalDate.now().minusDays(2));
+        token.setIpAddress("127.0.0.1");
+        token.setUserAgent("old-agent");
+        persistentTokenRepository.saveAndFlush(token);
+        em.clear();
+    }
+
+    @Test
+    void assertThatValueIsWrittenRightAwayAndMetadataOnFlush() {
+        PersistentToken refreshed = persistentTokenRepository.findById(SERIES).orElseThrow();
+        em.clear();
+        refreshed.setTokenValue("new-value");
+        refreshed.setTokenDate(LocalDate.now());
+        refreshed.setIpAddress("10.0.0.1");
+        refreshed.setUserAgent("new-agent");
+
+        persistentTokenWriteBehind.refresh(refreshed);
+
+        PersistentToken written = persistentTokenRepository.findById(SERIES).orElseThrow();
+        assertThat(written.getTokenValue()).isEqualTo("new-value");
+        assertThat(written.getIpAddress()).isEqualTo("127.0.0.1");
+        em.clear();
+
+        persistentTokenWriteBehind.flush();
+
+        written = persistentTokenRepository.findById(SERIES).orElseThrow();
+        assertThat(written.getTokenValue()).isEqualTo("new-value");
+        assertThat(written.getTokenDate()).isEqualTo(LocalDate.now());
+        assertThat(written.getIpAddress()).isEqualTo("10.0.0.1");
+        assertThat(written.getUserAgent()).isEqualTo("new-agent");
+    }
+
+    @Test
+    void assertThatRefreshOfDeletedTokenFails() {
+        persistentTokenRepository.deleteById(SERIES);
+        persistentTokenRepository.flush();
+
+        assertThatExceptionOfType(RememberMeAuthenticationException.class).isThrownBy(() -> persistentTokenWriteBehind.refresh(token));
+    }
+}
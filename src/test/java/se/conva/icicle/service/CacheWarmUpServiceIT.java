@@ -0,0 +1,69 @@
+package se.conva.icicle.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import javax.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.transaction.annotation.Transactional;
+import se.conva.icicle.IntegrationTest;
+import se.conva.icicle.domain.TimeEntry;
+import se.conva.icicle.domain.User;
+import se.conva.icicle.repository.TimeEntryRepository;
+import se.conva.icicle.repository.UserRepository;
+import se.conva.icicle.web.rest.UserResourceIT;
+
+/**
+ * Integration tests for {@link CacheWarmUpService}.
+ */
+@IntegrationTest
+@Transactional
+class CacheWarmUpServiceIT {
+
+    private static final String TASK_NAME = "warm-up";
+
+    @Autowired
+    private CacheWarmUpService cacheWarmUpService;
+
+    @Autowired
+    private TimeEntryRepository timeEntryRepository;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private EntityManager em;
+
+    @BeforeEach
+    public void clearCache() {
+        cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE).clear();
+    }
+
+    @Test
+    void assertThatUsersWithRecentEntriesArePreloaded() {
+        User recent = UserResourceIT.createEntity(em);
+        recent.setLogin("warm-up-recent");
+        em.persist(recent);
+        User idle = UserResourceIT.createEntity(em);
+        idle.setLogin("warm-up-idle");
+        em.persist(idle);
+        timeEntryRepository.saveAndFlush(createEntity(recent, LocalDate.now()));
+        timeEntryRepository.saveAndFlush(createEntity(idle, LocalDate.now().minusYears(1)));
+
+        cacheWarmUpService.warmUp().join();
+
+        assertThat(cacheWarmUpService.isWarmedUp()).isTrue();
+        assertThat(cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE).get("warm-up-recent")).isNotNull();
+        assertThat(cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE).get("warm-up-idle")).isNull();
+    }
+
+    private TimeEntry createEntity(User user, LocalDate date) {
+        return new TimeEntry().date(date).minutesWorked(30).taskName(TASK_NAME).task(taskService.intern(TASK_NAME)).user(user);
+    }
+}
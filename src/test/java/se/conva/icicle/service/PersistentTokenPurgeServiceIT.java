@@ -0,0 +1,58 @@
+package se.conva.icicle.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import javax.persistence.EntityManager;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+import se.conva.icicle.IntegrationTest;
+import se.conva.icicle.domain.PersistentToken;
+import se.conva.icicle.domain.User;
+import se.conva.icicle.repository.PersistentTokenRepository;
+import se.conva.icicle.security.PersistentTokenRememberMeServices;
+import se.conva.icicle.web.rest.UserResourceIT;
+
+/**
+ * Integration tests for {@link PersistentTokenPurgeService}.
+ */
+@IntegrationTest
+@Transactional
+class PersistentTokenPurgeServiceIT {
+
+    @Autowired
+    private PersistentTokenPurgeService persistentTokenPurgeService;
+
+    @Autowired
+    private PersistentTokenRepository persistentTokenRepository;
+
+    @Autowired
+    private EntityManager em;
+
+    @Test
+    void assertThatOnlyExpiredTokensArePurged() {
+        User user = UserResourceIT.createEntity(em);
+        em.persist(user);
+        LocalDate expired = LocalDate.now().minusDays(PersistentTokenRememberMeServices.TOKEN_VALIDITY_DAYS + 1);
+        for (int i = 0; i < 3; i++) {
+            persistentTokenRepository.save(createToken(user, expired));
+        }
+        PersistentToken valid = persistentTokenRepository.saveAndFlush(createToken(user, LocalDate.now()));
+
+        assertThat(persistentTokenPurgeService.purgeExpiredTokens()).isEqualTo(3);
+
+        em.clear();
+        assertThat(persistentTokenRepository.findByUser(user)).extracting(PersistentToken::getSeries).containsExactly(valid.getSeries());
+    }
+
+    private PersistentToken createToken(User user, LocalDate tokenDate) {
+        PersistentToken token = new PersistentToken();
+        token.setSeries(RandomStringUtils.randomAlphanumeric(20));
+        token.setUser(user);
+        token.setTokenValue(RandomStringUtils.randomAlphanumeric(20));
+        token.setTokenDate(tokenDate);
+        return token;
+    }
+}
@@ -0,0 +1,132 @@
+package se.conva.icicle.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+import se.conva.icicle.IntegrationTest;
+import se.conva.icicle.config.ApplicationProperties;
+import se.conva.icicle.domain.TimeEntry;
+import se.conva.icicle.domain.TimeEntryView;
+import se.conva.icicle.repository.TimeEntryRepository;
+
+/**
+ * Integration tests for {@link TimeEntryArchiveService}.
+ */
+@IntegrationTest
+@Transactional
+class TimeEntryArchiveServiceIT {
+
+    private static final String TASK_NAME = "archive";
+
+    private static final LocalDate JANUARY = LocalDate.of(2003, 1, 1);
+
+    @Autowired
+    private TimeEntryArchiveService timeEntryArchiveService;
+
+    @Autowired
+    private TimeEntryRepository timeEntryRepository;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
+    @AfterEach
+    void deleteSegments() throws IOException {
+        Path directory = Paths.get(applicationProperties.getTimeEntryArchive().getDirectory());
+        if (Files.isDirectory(directory)) {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+                for (Path file : files) {
+                    Files.delete(file);
+                }
+            }
+        }
+        timeEntryArchiveService.load();
+    }
+
+    @Test
+    void assertThatArchivedEntriesAreReadWithDatabaseEntries() {
+        TimeEntry early = timeEntryRepository.saveAndFlush(createEntity(JANUARY.plusDays(20), 30));
+        TimeEntry earliest = timeEntryRepository.saveAndFlush(createEntity(JANUARY.plusDays(9), 45));
+        TimeEntry hot = timeEntryRepository.saveAndFlush(createEntity(JANUARY.plusMonths(1), 60));
+
+        assertThat(timeEntryArchiveService.archiveBefore(YearMonth.from(JANUARY).plusMonths(1))).isEqualTo(2);
+        // The segments only show once the archiving transaction commits, which tests never do
+        timeEntryArchiveService.load();
+
+        assertThat(timeEntryRepository.findViewById(early.getId())).isEmpty();
+        assertThat(timeEntryArchiveService.getArchivedBefore()).isEqualTo(JANUARY.plusMonths(1));
+        assertThat(timeEntryArchiveService.findViewById(early.getId()))
+            .hasValueSatisfying(timeEntry -> {
+                assertThat(timeEntry.getDate()).isEqualTo(JANUARY.plusDays(20));
+                assertThat(timeEntry.getMinutesWorked()).isEqualTo(30);
+                assertThat(timeEntry.getTaskName()).isEqualTo(TASK_NAME);
+            });
+        assertThat(timeEntryArchiveService.findViewsByIdIn(List.of(early.getId(), hot.getId(), Long.MAX_VALUE)))
+            .extracting(TimeEntryView::getId)
+            .containsExactlyInAnyOrder(early.getId(), hot.getId());
+
+        LocalDate to = JANUARY.plusYears(1);
+        assertThat(timeEntryArchiveService.findPageAfter(null, JANUARY, to, TASK_NAME, null, null, 10))
+            .extracting(TimeEntryView::getId)
+            .containsExactly(earliest.getId(), early.getId(), hot.getId());
+        assertThat(timeEntryArchiveService.findPageAfter(null, JANUARY, to, TASK_NAME, earliest.getDate(), earliest.getId(), 1))
+            .extracting(TimeEntryView::getId)
+            .containsExactly(early.getId());
+        try (Stream<TimeEntryView> timeEntries = timeEntryArchiveService.streamViews(null, JANUARY, to, TASK_NAME, 10)) {
+            assertThat(timeEntries.map(TimeEntryView::getId).collect(Collectors.toList()))
+                .containsExactly(earliest.getId(), early.getId(), hot.getId());
+        }
+    }
+
+    @Test
+    void assertThatMonthsWrittenAfterArchivingGetAnotherSegment() {
+        timeEntryRepository.saveAndFlush(createEntity(JANUARY, 30));
+        timeEntryArchiveService.archiveBefore(YearMonth.from(JANUARY).plusMonths(1));
+        TimeEntry late = timeEntryRepository.saveAndFlush(createEntity(JANUARY.plusDays(1), 15));
+
+        assertThat(timeEntryArchiveService.archiveBefore(YearMonth.from(JANUARY).plusMonths(1))).isEqualTo(1);
+        timeEntryArchiveService.load();
+
+        List<TimeEntryView> timeEntries = timeEntryArchiveService.findPageAfter(null, JANUARY, null, TASK_NAME, null, null, 10);
+        assertThat(timeEntries).extracting(TimeEntryView::getMinutesWorked).containsExactly(30, 15);
+        assertThat(timeEntryArchiveService.findViewById(late.getId())).isPresent();
+    }
+
+    @Test
+    void assertThatSegmentsOfUncommittedRunsAreNeitherReadNorKept() throws IOException {
+        TimeEntry timeEntry = timeEntryRepository.saveAndFlush(createEntity(JANUARY, 30));
+        // What a run leaves behind if it stops between writing a segment and committing
+        Path directory = Files.createDirectories(Paths.get(applicationProperties.getTimeEntryArchive().getDirectory()));
+        Path leftover = directory.resolve("time-entries-leftover.seg");
+        TimeEntrySegment.write(leftover, timeEntryRepository.findViewsByIdIn(List.of(timeEntry.getId())).iterator());
+
+        timeEntryArchiveService.load();
+        assertThat(timeEntryArchiveService.findPageAfter(null, JANUARY, null, TASK_NAME, null, null, 10)).hasSize(1);
+
+        assertThat(timeEntryArchiveService.archiveBefore(YearMonth.from(JANUARY).plusMonths(1))).isEqualTo(1);
+        timeEntryArchiveService.load();
+        assertThat(leftover).doesNotExist();
+        assertThat(timeEntryArchiveService.findPageAfter(null, JANUARY, null, TASK_NAME, null, null, 10))
+            .extracting(TimeEntryView::getId)
+            .containsExactly(timeEntry.getId());
+    }
+
+    private TimeEntry createEntity(LocalDate date, int minutesWorked) {
+        return new TimeEntry().date(date).minutesWorked(minutesWorked).taskName(TASK_NAME).task(taskService.intern(TASK_NAME));
+    }
+}
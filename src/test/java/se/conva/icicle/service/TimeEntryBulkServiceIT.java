@@ -0,0 +1,76 @@
+package se.conva.icicle.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+import se.conva.icicle.IntegrationTest;
+import se.conva.icicle.repository.TimeEntryRepository;
+import se.conva.icicle.service.dto.TimeEntryBulkResultDTO;
+
+/**
+ * Integration tests for {@link TimeEntryBulkService}.
+ */
+@IntegrationTest
+@Transactional
+class TimeEntryBulkServiceIT {
+
+    @Autowired
+    private TimeEntryRepository timeEntryRepository;
+
+    @Autowired
+    private TimeEntryBulkService timeEntryBulkService;
+
+    @Test
+    void assertThatValidEntriesAreCreatedAndInvalidOnesReported() throws Exception {
+        int databaseSizeBeforeCreate = timeEntryRepository.findAll().size();
+
+        List<TimeEntryBulkResultDTO> results = timeEntryBulkService.createAll(
+            json(
+                "[" +
+                "{\"date\":\"2023-05-01\",\"minutesWorked\":30,\"taskName\":\"first\"}," +
+                "{\"date\":\"2023-05-01\",\"minutesWorked\":30}," +
+                "{\"id\":1,\"date\":\"2023-05-01\",\"minutesWorked\":30,\"taskName\":\"third\"}," +
+                "{\"date\":\"2023-05-02\",\"minutesWorked\":45,\"taskName\":\"fourth\"}" +
+                "]"
+            )
+        );
+
+        assertThat(results).extracting(TimeEntryBulkResultDTO::getIndex).containsExactly(0, 1, 2, 3);
+        assertThat(results).extracting(TimeEntryBulkResultDTO::getStatus).containsExactly(201, 400, 400, 201);
+        assertThat(results.get(0).getId()).isNotNull();
+        assertThat(results.get(1).getError()).startsWith("taskName");
+        assertThat(results.get(2).getError()).isEqualTo("error.idexists");
+        assertThat(timeEntryRepository.findAll()).hasSize(databaseSizeBeforeCreate + 2);
+    }
+
+    @Test
+    void assertThatEntriesBeforeMalformedItemAreCreated() throws Exception {
+        int databaseSizeBeforeCreate = timeEntryRepository.findAll().size();
+
+        List<TimeEntryBulkResultDTO> results = timeEntryBulkService.createAll(
+            json("[{\"date\":\"2023-05-01\",\"minutesWorked\":30,\"taskName\":\"first\"},{\"date\":\"not a date\"}]")
+        );
+
+        assertThat(results).extracting(TimeEntryBulkResultDTO::getStatus).containsExactly(201, 400);
+        assertThat(results.get(1).getError()).isEqualTo("error.malformed");
+        assertThat(timeEntryRepository.findAll()).hasSize(databaseSizeBeforeCreate + 1);
+    }
+
+    @Test
+    void assertThatBodyMustBeAnArray() {
+        assertThatThrownBy(() -> timeEntryBulkService.createAll(json("{\"taskName\":\"first\"}")))
+            .isInstanceOf(JsonProcessingException.class);
+    }
+
+    private static InputStream json(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
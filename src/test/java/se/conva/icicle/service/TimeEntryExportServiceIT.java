@@ -0,0 +1,124 @@
+package se.conva.icicle.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+import se.conva.icicle.IntegrationTest;
+import se.conva.icicle.domain.TimeEntry;
+import se.conva.icicle.repository.TimeEntryRepository;
+
+/**
+ * Integration tests for {@link TimeEntryExportService}.
+ */
+@IntegrationTest
+@Transactional
+class TimeEntryExportServiceIT {
+
+    private static final LocalDate DEFAULT_DATE = LocalDate.of(2001, 2, 3);
+
+    private static final String DEFAULT_TASK_NAME = "Export, \"quoted\"";
+
+    @Autowired
+    private TimeEntryRepository timeEntryRepository;
+
+    @Autowired
+    private TimeEntryExportService timeEntryExportService;
+
+    @Autowired
+    private TaskService taskService;
+
+    private TimeEntry timeEntry;
+
+    @BeforeEach
+    public void init() {
+        timeEntry =
+            timeEntryRepository.saveAndFlush(
+                new TimeEntry().date(DEFAULT_DATE).minutesWorked(42).taskName(DEFAULT_TASK_NAME).task(taskService.intern(DEFAULT_TASK_NAME))
+            );
+    }
+
+    @Test
+    void assertThatExportWritesOneJsonObjectPerLine() throws Exception {
+        TimeEntry other = timeEntryRepository.saveAndFlush(
+            new TimeEntry().date(DEFAULT_DATE).minutesWorked(43).taskName(DEFAULT_TASK_NAME).task(taskService.intern(DEFAULT_TASK_NAME))
+        );
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long count = timeEntryExportService.export(
+            null,
+            DEFAULT_DATE,
+            DEFAULT_DATE,
+            DEFAULT_TASK_NAME,
+            TimeEntryExportService.Format.NDJSON,
+            out
+        );
+
+        assertThat(count).isEqualTo(2);
+        String ndjson = out.toString(StandardCharsets.UTF_8);
+        assertThat(ndjson).endsWith("}\n").hasLineCount(2);
+        assertThat(ndjson.split("\n"))
+            .allSatisfy(line -> assertThat(line).startsWith("{").endsWith("}"))
+            .satisfiesExactly(
+                line -> assertThat(line).startsWith("{\"id\":" + timeEntry.getId() + ",\"date\":\"2001-02-03\",\"minutesWorked\":42,"),
+                line -> assertThat(line).startsWith("{\"id\":" + other.getId() + ",\"date\":\"2001-02-03\",\"minutesWorked\":43,")
+            );
+    }
+
+    @Test
+    void assertThatExportWritesEscapedCsv() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long count = timeEntryExportService.export(
+            null,
+            DEFAULT_DATE,
+            DEFAULT_DATE,
+            DEFAULT_TASK_NAME,
+            TimeEntryExportService.Format.CSV,
+            out
+        );
+
+        assertThat(count).isEqualTo(1);
+        assertThat(out.toString(StandardCharsets.UTF_8))
+            .isEqualTo(
+                "id,date,minutesWorked,taskName,userId,userLogin\r\n" + timeEntry.getId() + ",2001-02-03,42,\"Export, \"\"quoted\"\"\",,\r\n"
+            );
+    }
+
+    @Test
+    void assertThatExportEscapesCsvFormulas() throws Exception {
+        String formula = "=HYPERLINK(\"http://localhost\")";
+        TimeEntry withFormula = timeEntryRepository.saveAndFlush(
+            new TimeEntry().date(DEFAULT_DATE).minutesWorked(42).taskName(formula).task(taskService.intern(formula))
+        );
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long count = timeEntryExportService.export(null, DEFAULT_DATE, DEFAULT_DATE, formula, TimeEntryExportService.Format.CSV, out);
+
+        assertThat(count).isEqualTo(1);
+        assertThat(out.toString(StandardCharsets.UTF_8))
+            .endsWith("\r\n" + withFormula.getId() + ",2001-02-03,42,\"'=HYPERLINK(\"\"http://localhost\"\")\",,\r\n");
+    }
+
+    @Test
+    void assertThatExportOfNothingOnlyWritesCsvHeader() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long count = timeEntryExportService.export(
+            null,
+            null,
+            DEFAULT_DATE.minusDays(1),
+            DEFAULT_TASK_NAME,
+            TimeEntryExportService.Format.CSV,
+            out
+        );
+
+        assertThat(count).isZero();
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo("id,date,minutesWorked,taskName,userId,userLogin\r\n");
+    }
+}
@@ -0,0 +1,82 @@
+package se.conva.icicle.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+import se.conva.icicle.IntegrationTest;
+import se.conva.icicle.domain.TimeEntryView;
+import se.conva.icicle.domain.User;
+import se.conva.icicle.repository.UserRepository;
+import se.conva.icicle.service.TimeEntrySummaryService.Period;
+import se.conva.icicle.service.event.TimeEntryChangedEvent;
+
+/**
+ * Integration tests for {@link TimeEntryMinutesIndex}.
+ */
+@IntegrationTest
+@Transactional
+class TimeEntryMinutesIndexIT {
+
+    private static final LocalDate WEDNESDAY = LocalDate.of(2003, 1, 15);
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TimeEntryRollupService timeEntryRollupService;
+
+    @Autowired
+    private TimeEntryMinutesIndex timeEntryMinutesIndex;
+
+    @Test
+    void assertThatLoadedAndChangedEntriesAreSummedPerPeriod() {
+        User user = userRepository.findOneByLogin("user").orElseThrow();
+        TimeEntryView monday = new TimeEntryView(1L, WEDNESDAY.minusDays(2), 60, "index", user.getId(), null, 0L);
+        timeEntryRollupService.onTimeEntryChanged(TimeEntryChangedEvent.created(monday));
+        timeEntryMinutesIndex.load();
+
+        TimeEntryView nextMonth = new TimeEntryView(2L, WEDNESDAY.plusMonths(1), 30, "index", user.getId(), null, 0L);
+        timeEntryMinutesIndex.onTimeEntryChanged(TimeEntryChangedEvent.created(nextMonth));
+        TimeEntryView lastYear = new TimeEntryView(3L, WEDNESDAY.minusYears(1), 15, "index", user.getId(), null, 0L);
+        timeEntryMinutesIndex.onTimeEntryChanged(TimeEntryChangedEvent.created(lastYear));
+
+        assertThat(timeEntryMinutesIndex.total(Period.WEEK, user.getId(), WEDNESDAY))
+            .hasValueSatisfying(total -> {
+                assertThat(total.getPeriodStart()).isEqualTo(WEDNESDAY.minusDays(2));
+                assertThat(total.getTotalMinutes()).isEqualTo(60);
+                assertThat(total.getEntryCount()).isEqualTo(1);
+            });
+        assertThat(timeEntryMinutesIndex.total(Period.YEAR, user.getId(), WEDNESDAY))
+            .hasValueSatisfying(total -> assertThat(total.getTotalMinutes()).isEqualTo(90));
+        assertThat(timeEntryMinutesIndex.total(Period.YEAR, user.getId(), WEDNESDAY.minusYears(1)))
+            .hasValueSatisfying(total -> assertThat(total.getTotalMinutes()).isEqualTo(15));
+
+        timeEntryMinutesIndex.onTimeEntryChanged(TimeEntryChangedEvent.updated(monday, nextMonth));
+        timeEntryMinutesIndex.onTimeEntryChanged(TimeEntryChangedEvent.deleted(lastYear));
+
+        assertThat(timeEntryMinutesIndex.total(Period.WEEK, user.getId(), WEDNESDAY))
+            .hasValueSatisfying(total -> assertThat(total.getEntryCount()).isZero());
+        assertThat(timeEntryMinutesIndex.total(Period.MONTH, user.getId(), WEDNESDAY.plusMonths(1)))
+            .hasValueSatisfying(total -> {
+                assertThat(total.getTotalMinutes()).isEqualTo(60);
+                assertThat(total.getEntryCount()).isEqualTo(2);
+            });
+        assertThat(timeEntryMinutesIndex.total(Period.YEAR, user.getId(), WEDNESDAY.minusYears(1)))
+            .hasValueSatisfying(total -> assertThat(total.getTotalMinutes()).isZero());
+    }
+
+    @Test
+    void assertThatUsersWithoutEntriesHaveZeroTotals() {
+        timeEntryMinutesIndex.load();
+
+        assertThat(timeEntryMinutesIndex.total(Period.MONTH, Long.MAX_VALUE, WEDNESDAY))
+            .hasValueSatisfying(total -> {
+                assertThat(total.getUserId()).isEqualTo(Long.MAX_VALUE);
+                assertThat(total.getTotalMinutes()).isZero();
+                assertThat(total.getEntryCount()).isZero();
+            });
+    }
+}
@@ -0,0 +1,54 @@
+package se.conva.icicle.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+import se.conva.icicle.IntegrationTest;
+import se.conva.icicle.domain.TimeEntry;
+import se.conva.icicle.repository.TimeEntryRepository;
+
+/**
+ * Integration tests for {@link TimeEntryPartitionService}.
+ */
+@IntegrationTest
+@Transactional
+class TimeEntryPartitionServiceIT {
+
+    private static final String TASK_NAME = "partitions";
+
+    @Autowired
+    private TimeEntryPartitionService timeEntryPartitionService;
+
+    @Autowired
+    private TimeEntryRepository timeEntryRepository;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Test
+    void assertThatPartitionsAreOnlyCreatedOnce() {
+        timeEntryPartitionService.createPartitionsAhead();
+
+        assertThat(timeEntryPartitionService.createPartitionsAhead()).isZero();
+    }
+
+    @Test
+    void assertThatEntriesAreReadAcrossPartitions() {
+        timeEntryPartitionService.createPartitionsAhead();
+        TimeEntry ahead = timeEntryRepository.saveAndFlush(createEntity(LocalDate.now().plusMonths(2)));
+        TimeEntry past = timeEntryRepository.saveAndFlush(createEntity(LocalDate.of(1999, 12, 31)));
+
+        assertThat(timeEntryRepository.findViewById(ahead.getId())).isPresent();
+        LocalDate december = LocalDate.of(1999, 12, 1);
+        assertThat(timeEntryRepository.findPageAfter(null, december, december.plusMonths(1), TASK_NAME, null, null, 10))
+            .extracting("id")
+            .containsExactly(past.getId());
+    }
+
+    private TimeEntry createEntity(LocalDate date) {
+        return new TimeEntry().date(date).minutesWorked(60).taskName(TASK_NAME).task(taskService.intern(TASK_NAME));
+    }
+}
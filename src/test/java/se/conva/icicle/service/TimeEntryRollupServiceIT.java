@@ -0,0 +1,121 @@
+package se.conva.icicle.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+import se.conva.icicle.IntegrationTest;
+import se.conva.icicle.domain.TimeEntry;
+import se.conva.icicle.domain.TimeEntryTotal;
+import se.conva.icicle.domain.TimeEntryView;
+import se.conva.icicle.repository.TimeEntryDailyRollupRepository;
+import se.conva.icicle.repository.TimeEntryRepository;
+import se.conva.icicle.service.event.TimeEntryChange;
+import se.conva.icicle.service.event.TimeEntryChangedEvent;
+
+/**
+ * Integration tests for {@link TimeEntryRollupService}.
+ */
+@IntegrationTest
+@Transactional
+class TimeEntryRollupServiceIT {
+
+    private static final LocalDate DEFAULT_DATE = LocalDate.of(2002, 3, 4);
+
+    private static final String DEFAULT_TASK_NAME = "rollup";
+
+    @Autowired
+    private TimeEntryRepository timeEntryRepository;
+
+    @Autowired
+    private TimeEntryDailyRollupRepository timeEntryDailyRollupRepository;
+
+    @Autowired
+    private TimeEntryRollupService timeEntryRollupService;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Test
+    void assertThatAddedAndRemovedEntriesAreRolledUp() {
+        TimeEntry first = timeEntryRepository.saveAndFlush(newTimeEntry(30));
+        timeEntryRollupService.onTimeEntryChanged(TimeEntryChangedEvent.created(TimeEntryView.of(first)));
+        TimeEntry second = timeEntryRepository.saveAndFlush(newTimeEntry(45));
+        timeEntryRollupService.onTimeEntryChanged(TimeEntryChangedEvent.created(TimeEntryView.of(second)));
+
+        assertThat(sumOfDefaultDay()).singleElement().satisfies(total -> {
+            assertThat(total.getTotalMinutes()).isEqualTo(75);
+            assertThat(total.getEntryCount()).isEqualTo(2);
+        });
+
+        timeEntryRepository.delete(first);
+        timeEntryRollupService.onTimeEntryChanged(TimeEntryChangedEvent.deleted(TimeEntryView.of(first)));
+        timeEntryRepository.delete(second);
+        timeEntryRollupService.onTimeEntryChanged(TimeEntryChangedEvent.deleted(TimeEntryView.of(second)));
+        timeEntryRepository.flush();
+
+        assertThat(sumOfDefaultDay()).isEmpty();
+        assertThat(timeEntryDailyRollupRepository.countMismatches(TimeEntryArchiveService.NOTHING_ARCHIVED)).isZero();
+    }
+
+    @Test
+    void assertThatEntriesChangedTogetherAreRolledUp() {
+        List<TimeEntry> timeEntries = timeEntryRepository.saveAllAndFlush(List.of(newTimeEntry(10), newTimeEntry(20)));
+        TimeEntryView moved = TimeEntryView.of(timeEntries.get(1));
+        timeEntries.get(1).setDate(DEFAULT_DATE.plusDays(1));
+        timeEntryRollupService.onTimeEntryChanged(
+            new TimeEntryChangedEvent(
+                List.of(
+                    new TimeEntryChange(null, TimeEntryView.of(timeEntries.get(0))),
+                    new TimeEntryChange(null, moved),
+                    new TimeEntryChange(moved, TimeEntryView.of(timeEntries.get(1)))
+                )
+            )
+        );
+
+        assertThat(sumOfDefaultDay()).singleElement().satisfies(total -> {
+            assertThat(total.getTotalMinutes()).isEqualTo(10);
+            assertThat(total.getEntryCount()).isEqualTo(1);
+        });
+    }
+
+    @Test
+    void assertThatOneRowIsKeptPerUserDayAndTask() {
+        timeEntryDailyRollupRepository.addAll(List.of(new TimeEntryTotal(null, DEFAULT_TASK_NAME, DEFAULT_DATE, 30, 1)));
+        timeEntryDailyRollupRepository.addAll(List.of(new TimeEntryTotal(null, DEFAULT_TASK_NAME, DEFAULT_DATE, 15, 1)));
+
+        assertThat(timeEntryDailyRollupRepository.findAll())
+            .filteredOn(rollup -> DEFAULT_DATE.equals(rollup.getDate()) && DEFAULT_TASK_NAME.equals(rollup.getTaskName()))
+            .singleElement()
+            .satisfies(rollup -> {
+                assertThat(rollup.getTotalMinutes()).isEqualTo(45);
+                assertThat(rollup.getEntryCount()).isEqualTo(2);
+            });
+    }
+
+    @Test
+    void assertThatVerifyRepairsEntriesWrittenBehindTheRollup() {
+        timeEntryRepository.saveAndFlush(newTimeEntry(30));
+        assertThat(timeEntryDailyRollupRepository.countMismatches(TimeEntryArchiveService.NOTHING_ARCHIVED)).isEqualTo(1);
+
+        timeEntryRollupService.verifyAndRepair();
+
+        assertThat(timeEntryDailyRollupRepository.countMismatches(TimeEntryArchiveService.NOTHING_ARCHIVED)).isZero();
+        assertThat(sumOfDefaultDay()).singleElement().satisfies(total -> assertThat(total.getTotalMinutes()).isEqualTo(30));
+    }
+
+    private TimeEntry newTimeEntry(int minutesWorked) {
+        return new TimeEntry()
+            .date(DEFAULT_DATE)
+            .minutesWorked(minutesWorked)
+            .taskName(DEFAULT_TASK_NAME)
+            .task(taskService.intern(DEFAULT_TASK_NAME));
+    }
+
+    private List<TimeEntryTotal> sumOfDefaultDay() {
+        return timeEntryDailyRollupRepository.sumByDay(true, true, null, DEFAULT_DATE, DEFAULT_DATE, DEFAULT_TASK_NAME);
+    }
+}
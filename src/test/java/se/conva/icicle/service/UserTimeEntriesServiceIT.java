@@ -0,0 +1,135 @@
+package se.conva.icicle.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+
+import java.time.LocalDate;
+import java.util.Objects;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionTemplate;
+import se.conva.icicle.IntegrationTest;
+import se.conva.icicle.domain.TimeEntry;
+import se.conva.icicle.domain.TimeEntryView;
+import se.conva.icicle.domain.User;
+import se.conva.icicle.repository.TimeEntryRepository;
+import se.conva.icicle.repository.UserRepository;
+import se.conva.icicle.service.event.TimeEntryChangedEvent;
+
+/**
+ * Integration tests for {@link UserTimeEntriesService}.
+ */
+@IntegrationTest
+class UserTimeEntriesServiceIT {
+
+    private static final LocalDate DEFAULT_DATE = LocalDate.of(2004, 5, 6);
+
+    private static final String DEFAULT_TASK_NAME = "user-time-entries";
+
+    // Ids the user sequence does not reach, so that the cached entries of the users are known to be empty
+    private static final Long USER_ID = Long.MAX_VALUE - 1;
+
+    private static final Long OTHER_USER_ID = Long.MAX_VALUE - 2;
+
+    @Autowired
+    private UserTimeEntriesService userTimeEntriesService;
+
+    @SpyBean
+    private TimeEntryArchiveService timeEntryArchiveService;
+
+    @Autowired
+    private TimeEntryRepository timeEntryRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void assertThatOnlyUsersOfWrittenEntriesAreEvicted() {
+        userTimeEntriesService.findAllOfUser(USER_ID);
+        userTimeEntriesService.findAllOfUser(OTHER_USER_ID);
+
+        userTimeEntriesService.onTimeEntryChanged(TimeEntryChangedEvent.created(view(USER_ID)));
+
+        assertThat(cache().get(USER_ID)).isNull();
+        assertThat(cache().get(OTHER_USER_ID)).isNotNull();
+        cache().evict(OTHER_USER_ID);
+    }
+
+    @Test
+    void assertThatReadsRacingAnEvictionAreNotCached() {
+        // An entry of the user is written while its entries are read
+        doAnswer(invocation -> {
+                userTimeEntriesService.onTimeEntryChanged(TimeEntryChangedEvent.created(view(USER_ID)));
+                return invocation.callRealMethod();
+            })
+            .when(timeEntryArchiveService)
+            .streamViews(eq(USER_ID), any(), any(), any(), anyInt());
+
+        assertThat(userTimeEntriesService.findAllOfUser(USER_ID)).isEmpty();
+
+        assertThat(cache().get(USER_ID)).isNull();
+    }
+
+    @Test
+    void assertThatEntriesReadByRolledBackWritesAreNotCached() {
+        Long userId = transactionTemplate.execute(status -> {
+            User user = userRepository.saveAndFlush(newUser());
+            TimeEntry timeEntry = timeEntryRepository.saveAndFlush(
+                new TimeEntry()
+                    .date(DEFAULT_DATE)
+                    .minutesWorked(30)
+                    .taskName(DEFAULT_TASK_NAME)
+                    .task(taskService.intern(DEFAULT_TASK_NAME))
+                    .user(user)
+            );
+            eventPublisher.publishEvent(TimeEntryChangedEvent.created(TimeEntryView.of(timeEntry)));
+            // The writing transaction reads, and so caches, its own uncommitted entry
+            assertThat(userTimeEntriesService.findAllOfUser(user.getId()))
+                .extracting(TimeEntryView::getId)
+                .containsExactly(timeEntry.getId());
+            status.setRollbackOnly();
+            return user.getId();
+        });
+
+        assertThat(cache().get(userId)).isNull();
+        assertThat(userTimeEntriesService.findAllOfUser(userId)).isEmpty();
+        cache().evict(userId);
+    }
+
+    private static TimeEntryView view(Long userId) {
+        return new TimeEntryView(Long.MAX_VALUE, DEFAULT_DATE, 30, DEFAULT_TASK_NAME, userId, "user-time-entries", 0L);
+    }
+
+    private static User newUser() {
+        User user = new User();
+        user.setLogin("user-time-entries");
+        user.setPassword(RandomStringUtils.randomAlphanumeric(60));
+        user.setActivated(true);
+        user.setEmail("user-time-entries@localhost");
+        return user;
+    }
+
+    private Cache cache() {
+        return Objects.requireNonNull(cacheManager.getCache(UserTimeEntriesService.TIME_ENTRIES_BY_USER_CACHE));
+    }
+}
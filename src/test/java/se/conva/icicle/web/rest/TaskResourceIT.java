@@ -0,0 +1,76 @@
+package se.conva.icicle.web.rest;
+
+import static org.hamcrest.Matchers.contains;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import javax.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+import se.conva.icicle.IntegrationTest;
+import se.conva.icicle.domain.TimeEntryView;
+import se.conva.icicle.domain.User;
+import se.conva.icicle.service.TaskNameIndex;
+import se.conva.icicle.service.TaskService;
+import se.conva.icicle.service.event.TimeEntryChangedEvent;
+
+/**
+ * Integration tests for the {@link TaskResource} REST controller.
+ */
+@IntegrationTest
+@AutoConfigureMockMvc
+@WithMockUser("suggest-tasks")
+class TaskResourceIT {
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private TaskNameIndex taskNameIndex;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private MockMvc restTaskMockMvc;
+
+    @Test
+    @Transactional
+    void suggestTasks() throws Exception {
+        // Initialize the database
+        User user = UserResourceIT.createEntity(em);
+        user.setLogin("suggest-tasks");
+        em.persist(user);
+        em.flush();
+        // Interned names join the index once committed, which the test transaction never is
+        for (String name : List.of("Suggested alpha", "suggested beta", "Suggested gamma", "Not suggested")) {
+            taskService.intern(name);
+            taskNameIndex.add(name);
+        }
+        taskNameIndex.onTimeEntryChanged(
+            TimeEntryChangedEvent.created(new TimeEntryView(1L, LocalDate.now(), 60, "Suggested gamma", user.getId(), null, 0L))
+        );
+
+        // The task the user worked on comes first, then the others in alphabetical order
+        restTaskMockMvc
+            .perform(get("/api/tasks/suggest?prefix=SUGGESTED"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$", contains("Suggested gamma", "Suggested alpha", "suggested beta")));
+        restTaskMockMvc
+            .perform(get("/api/tasks/suggest?prefix=suggested&size=2"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$", contains("Suggested gamma", "Suggested alpha")));
+    }
+
+    @Test
+    void suggestTasksWithTooShortPrefix() throws Exception {
+        restTaskMockMvc.perform(get("/api/tasks/suggest?prefix=s")).andExpect(status().isBadRequest());
+        restTaskMockMvc.perform(get("/api/tasks/suggest")).andExpect(status().isBadRequest());
+    }
+}
@@ -1,13 +1,24 @@
 package se.conva.icicle.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
+import com.jayway.jsonpath.JsonPath;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.time.ZoneId;
 import java.util.List;
+import java.util.Objects;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicLong;
 import javax.persistence.EntityManager;
@@ -15,13 +26,25 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
 import se.conva.icicle.IntegrationTest;
+import se.conva.icicle.config.ApplicationProperties;
 import se.conva.icicle.domain.TimeEntry;
+import se.conva.icicle.domain.TimeEntryChangeLog;
+import se.conva.icicle.domain.TimeEntryView;
+import se.conva.icicle.domain.User;
+import se.conva.icicle.repository.TimeEntryChangeLogRepository;
 import se.conva.icicle.repository.TimeEntryRepository;
+import se.conva.icicle.service.TaskService;
+import se.conva.icicle.service.TimeEntryArchiveService;
+import se.conva.icicle.service.TimeEntryPushService;
+import se.conva.icicle.service.UserTimeEntriesService;
+import se.conva.icicle.service.event.TimeEntryChangedEvent;
 
 /**
  * Integration tests for the {@link TimeEntryResource} REST controller.
@@ -49,6 +72,24 @@ class TimeEntryResourceIT {
     @Autowired
     private TimeEntryRepository timeEntryRepository;
 
+    @Autowired
+    private TimeEntryChangeLogRepository timeEntryChangeLogRepository;
+
+    @Autowired
+    private TimeEntryPushService timeEntryPushService;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private UserTimeEntriesService userTimeEntriesService;
+
+    @Autowired
+    private TimeEntryArchiveService timeEntryArchiveService;
+
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
     @Autowired
     private EntityManager em;
 
@@ -81,7 +122,7 @@ class TimeEntryResourceIT {
 
     @BeforeEach
     public void initTest() {
-        timeEntry = createEntity(em);
+        timeEntry = createEntity(em).task(taskService.intern(DEFAULT_TASK_NAME));
     }
 
     @Test
@@ -102,6 +143,21 @@ class TimeEntryResourceIT {
         assertThat(testTimeEntry.getTaskName()).isEqualTo(DEFAULT_TASK_NAME);
     }
 
+    @Test
+    @Transactional
+    void createTimeEntriesWithoutArray() throws Exception {
+        int databaseSizeBeforeCreate = timeEntryRepository.findAll().size();
+
+        restTimeEntryMockMvc
+            .perform(
+                post(ENTITY_API_URL + "/bulk").contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(timeEntry))
+            )
+            .andExpect(status().isBadRequest());
+
+        List<TimeEntry> timeEntryList = timeEntryRepository.findAll();
+        assertThat(timeEntryList).hasSize(databaseSizeBeforeCreate);
+    }
+
     @Test
     @Transactional
     void createTimeEntryWithExistingId() throws Exception {
@@ -188,6 +244,314 @@ class TimeEntryResourceIT {
             .andExpect(jsonPath("$.[*].taskName").value(hasItem(DEFAULT_TASK_NAME)));
     }
 
+    @Test
+    @Transactional
+    void getAllTimeEntriesByCursor() throws Exception {
+        // Initialize the database
+        timeEntryRepository.saveAndFlush(timeEntry);
+        TimeEntry laterTimeEntry = createEntity(em).date(DEFAULT_DATE.plusDays(1)).task(timeEntry.getTask());
+        timeEntryRepository.saveAndFlush(laterTimeEntry);
+
+        // Get the first page, which links to the next one
+        String nextCursor = restTimeEntryMockMvc
+            .perform(get(ENTITY_API_URL + "?taskName=" + DEFAULT_TASK_NAME + "&size=1"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$.[0].id").value(timeEntry.getId().intValue()))
+            .andExpect(header().exists("X-Next-Cursor"))
+            .andExpect(header().string(HttpHeaders.LINK, containsString("rel=\"next\"")))
+            .andReturn()
+            .getResponse()
+            .getHeader("X-Next-Cursor");
+
+        // Get the last page, which has no next cursor
+        restTimeEntryMockMvc
+            .perform(get(ENTITY_API_URL + "?taskName=" + DEFAULT_TASK_NAME + "&size=1&cursor=" + nextCursor))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$.[0].id").value(laterTimeEntry.getId().intValue()))
+            .andExpect(header().doesNotExist("X-Next-Cursor"));
+    }
+
+    @Test
+    @Transactional
+    void getAllTimeEntriesByDateRange() throws Exception {
+        // Initialize the database
+        timeEntryRepository.saveAndFlush(timeEntry);
+
+        restTimeEntryMockMvc
+            .perform(get(ENTITY_API_URL + "?from=" + DEFAULT_DATE + "&to=" + DEFAULT_DATE))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(hasItem(timeEntry.getId().intValue())));
+
+        restTimeEntryMockMvc
+            .perform(get(ENTITY_API_URL + "?from=" + DEFAULT_DATE.plusDays(1) + "&taskName=" + DEFAULT_TASK_NAME))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(not(hasItem(timeEntry.getId().intValue()))));
+    }
+
+    @Test
+    @Transactional
+    void getAllTimeEntriesNotModified() throws Exception {
+        // Initialize the database
+        timeEntryRepository.saveAndFlush(timeEntry);
+
+        String eTag = restTimeEntryMockMvc
+            .perform(get(ENTITY_API_URL + "?from={from}&to={to}", DEFAULT_DATE, DEFAULT_DATE))
+            .andExpect(status().isOk())
+            .andExpect(header().exists(HttpHeaders.ETAG))
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+
+        restTimeEntryMockMvc
+            .perform(get(ENTITY_API_URL + "?from={from}&to={to}", DEFAULT_DATE, DEFAULT_DATE).header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isNotModified());
+
+        // Any update of an entry of the page changes its ETag
+        timeEntryRepository.saveAndFlush(timeEntry.minutesWorked(UPDATED_MINUTES_WORKED));
+
+        restTimeEntryMockMvc
+            .perform(get(ENTITY_API_URL + "?from={from}&to={to}", DEFAULT_DATE, DEFAULT_DATE).header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].minutesWorked").value(hasItem(UPDATED_MINUTES_WORKED)));
+    }
+
+    @Test
+    @Transactional
+    void searchTimeEntriesByTaskName() throws Exception {
+        // Initialize the database
+        TimeEntry contains = createEntity(em).taskName("Research search engines");
+        TimeEntry prefix = createEntity(em).taskName("Searching");
+        TimeEntry laterPrefix = createEntity(em).taskName("Searching").date(DEFAULT_DATE.plusDays(1));
+        TimeEntry other = createEntity(em).taskName("Unrelated");
+        for (TimeEntry entry : List.of(contains, prefix, laterPrefix, other)) {
+            timeEntryRepository.saveAndFlush(entry.task(taskService.intern(entry.getTaskName())));
+        }
+
+        // Entries of the best matching task come first, by date
+        String nextCursor = restTimeEntryMockMvc
+            .perform(get(ENTITY_API_URL + "/search?q=SEARCH&size=2"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(contains(prefix.getId().intValue(), laterPrefix.getId().intValue())))
+            .andExpect(header().exists("X-Next-Cursor"))
+            .andReturn()
+            .getResponse()
+            .getHeader("X-Next-Cursor");
+
+        restTimeEntryMockMvc
+            .perform(get(ENTITY_API_URL + "/search?q=SEARCH&size=2&cursor=" + nextCursor))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(contains(contains.getId().intValue())))
+            .andExpect(header().doesNotExist("X-Next-Cursor"));
+    }
+
+    @Test
+    @Transactional
+    void searchTimeEntriesOfLowRankedTaskNames() throws Exception {
+        // Initialize the database: more matching names than a query of entries goes through, only the last one has entries
+        for (int i = 0; i < 250; i++) {
+            taskService.intern(String.format("Lookup %03d", i));
+        }
+        TimeEntry last = createEntity(em).taskName("Lookup 249");
+        timeEntryRepository.saveAndFlush(last.task(taskService.intern(last.getTaskName())));
+
+        restTimeEntryMockMvc
+            .perform(get(ENTITY_API_URL + "/search?q=lookup&size=2"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(contains(last.getId().intValue())))
+            .andExpect(header().doesNotExist("X-Next-Cursor"));
+    }
+
+    @Test
+    @Transactional
+    void searchTimeEntriesWithBlankQuery() throws Exception {
+        restTimeEntryMockMvc.perform(get(ENTITY_API_URL + "/search").param("q", " ")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void getAllTimeEntriesWithInvalidCursor() throws Exception {
+        restTimeEntryMockMvc.perform(get(ENTITY_API_URL + "?cursor=not-a-cursor")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void getTimeEntrySummaryPerWeek() throws Exception {
+        // Create entries on a Monday and a Wednesday of the same week, which rolls them up
+        for (TimeEntry weekEntry : List.of(
+            createEntity(em).date(LocalDate.of(2023, 5, 1)).minutesWorked(30),
+            createEntity(em).date(LocalDate.of(2023, 5, 3)).minutesWorked(45)
+        )) {
+            restTimeEntryMockMvc
+                .perform(post(ENTITY_API_URL).contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(weekEntry)))
+                .andExpect(status().isCreated());
+        }
+
+        restTimeEntryMockMvc
+            .perform(get(ENTITY_API_URL + "/summary?period=week&groupBy=task&taskName=" + DEFAULT_TASK_NAME))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$.[0].taskName").value(DEFAULT_TASK_NAME))
+            .andExpect(jsonPath("$.[0].periodStart").value("2023-05-01"))
+            .andExpect(jsonPath("$.[0].totalMinutes").value(75))
+            .andExpect(jsonPath("$.[0].entryCount").value(2));
+    }
+
+    @Test
+    @Transactional
+    void getTimeEntrySummaryWithUnsupportedGrouping() throws Exception {
+        restTimeEntryMockMvc.perform(get(ENTITY_API_URL + "/summary?groupBy=project")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void exportTimeEntriesWithUnsupportedFormat() throws Exception {
+        restTimeEntryMockMvc.perform(get(ENTITY_API_URL + "/export?format=xml")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void getTimeEntryChanges() throws Exception {
+        timeEntryChangeLogRepository.sequencePending(Integer.MAX_VALUE);
+        long cursor = timeEntryChangeLogRepository
+            .findAll()
+            .stream()
+            .map(TimeEntryChangeLog::getSequence)
+            .filter(Objects::nonNull)
+            .mapToLong(Long::longValue)
+            .max()
+            .orElse(0L);
+
+        // Create then delete one timeEntry, and create another one
+        restTimeEntryMockMvc
+            .perform(post(ENTITY_API_URL).contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(timeEntry)))
+            .andExpect(status().isCreated());
+        TimeEntry other = createUpdatedEntity(em);
+        restTimeEntryMockMvc
+            .perform(post(ENTITY_API_URL).contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(other)))
+            .andExpect(status().isCreated());
+        List<TimeEntry> timeEntryList = timeEntryRepository.findAll();
+        TimeEntry deleted = timeEntryList.get(timeEntryList.size() - 2);
+        TimeEntry created = timeEntryList.get(timeEntryList.size() - 1);
+        restTimeEntryMockMvc.perform(delete(ENTITY_API_URL_ID, deleted.getId())).andExpect(status().isNoContent());
+
+        // Only the latest change of each entry is returned
+        restTimeEntryMockMvc
+            .perform(get(ENTITY_API_URL + "/changes?since={since}", cursor))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.changes.length()").value(2))
+            .andExpect(jsonPath("$.changes[0].timeEntryId").value(created.getId().intValue()))
+            .andExpect(jsonPath("$.changes[0].deleted").value(false))
+            .andExpect(jsonPath("$.changes[0].timeEntry.taskName").value(UPDATED_TASK_NAME))
+            .andExpect(jsonPath("$.changes[1].timeEntryId").value(deleted.getId().intValue()))
+            .andExpect(jsonPath("$.changes[1].deleted").value(true))
+            .andExpect(jsonPath("$.changes[1].timeEntry").doesNotExist())
+            .andExpect(jsonPath("$.hasMore").value(false));
+
+        // Nothing changed after the returned cursor
+        String body = restTimeEntryMockMvc
+            .perform(get(ENTITY_API_URL + "/changes?since={since}&size=1", cursor))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.changes.length()").value(1))
+            .andExpect(jsonPath("$.hasMore").value(true))
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+        long next = ((Number) JsonPath.read(body, "$.cursor")).longValue();
+        restTimeEntryMockMvc
+            .perform(get(ENTITY_API_URL + "/changes?since={since}&size=5", next))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.changes.length()").value(2))
+            .andExpect(jsonPath("$.hasMore").value(false));
+    }
+
+    @Test
+    @Transactional
+    @WithMockUser("stream-time-entry-events")
+    void streamTimeEntryEvents() throws Exception {
+        // Initialize the database
+        User user = UserResourceIT.createEntity(em);
+        user.setLogin("stream-time-entry-events");
+        em.persist(user);
+        em.flush();
+
+        MvcResult result = restTimeEntryMockMvc
+            .perform(get(ENTITY_API_URL + "/events").accept(MediaType.TEXT_EVENT_STREAM))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        TimeEntryView own = new TimeEntryView(1L, DEFAULT_DATE, DEFAULT_MINUTES_WORKED, DEFAULT_TASK_NAME, user.getId(), null, 0L);
+        TimeEntryView other = new TimeEntryView(2L, DEFAULT_DATE, DEFAULT_MINUTES_WORKED, UPDATED_TASK_NAME, user.getId() + 1, null, 0L);
+        timeEntryPushService.onTimeEntryChanged(TimeEntryChangedEvent.created(own));
+        timeEntryPushService.onTimeEntryChanged(TimeEntryChangedEvent.created(other));
+        timeEntryPushService.onTimeEntryChanged(TimeEntryChangedEvent.deleted(own));
+
+        // Only the changes of the current user's entries are pushed
+        String events = result.getResponse().getContentAsString();
+        assertThat(events)
+            .contains("event:" + TimeEntryPushService.UPDATED_EVENT + "\n")
+            .contains(DEFAULT_TASK_NAME)
+            .contains("event:" + TimeEntryPushService.DELETED_EVENT + "\ndata:1\n")
+            .doesNotContain(UPDATED_TASK_NAME);
+
+        result.getRequest().getAsyncContext().complete();
+    }
+
+    @Test
+    @Transactional
+    @WithMockUser("get-my-time-entries")
+    void getMyTimeEntries() throws Exception {
+        // Initialize the database
+        User user = UserResourceIT.createEntity(em);
+        user.setLogin("get-my-time-entries");
+        em.persist(user);
+        timeEntryRepository.saveAndFlush(timeEntry.user(user));
+
+        restTimeEntryMockMvc
+            .perform(get(ENTITY_API_URL + "/mine"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(contains(timeEntry.getId().intValue())));
+
+        // Served from the cache until an entry of the user is written
+        TimeEntry written = timeEntryRepository.saveAndFlush(createEntity(em).date(UPDATED_DATE).user(user).task(timeEntry.getTask()));
+        restTimeEntryMockMvc
+            .perform(get(ENTITY_API_URL + "/mine"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(contains(timeEntry.getId().intValue())));
+
+        userTimeEntriesService.onTimeEntryChanged(TimeEntryChangedEvent.created(TimeEntryView.of(written)));
+        restTimeEntryMockMvc
+            .perform(get(ENTITY_API_URL + "/mine"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(contains(timeEntry.getId().intValue(), written.getId().intValue())));
+    }
+
+    @Test
+    @Transactional
+    void getTimeEntryWithUser() throws Exception {
+        // Initialize the database
+        User user = UserResourceIT.createEntity(em);
+        em.persist(user);
+        timeEntryRepository.saveAndFlush(timeEntry.user(user));
+        em.clear();
+
+        // Only the id and login of the user are returned
+        restTimeEntryMockMvc
+            .perform(get(ENTITY_API_URL_ID, timeEntry.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.userId").value(user.getId().intValue()))
+            .andExpect(jsonPath("$.userLogin").value(user.getLogin()))
+            .andExpect(jsonPath("$.user").doesNotExist());
+        restTimeEntryMockMvc
+            .perform(get(ENTITY_API_URL + "?userId={userId}", user.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[0].userId").value(user.getId().intValue()))
+            .andExpect(jsonPath("$.[0].userLogin").value(user.getLogin()));
+    }
+
     @Test
     @Transactional
     void getTimeEntry() throws Exception {
@@ -243,6 +607,44 @@ class TimeEntryResourceIT {
         assertThat(testTimeEntry.getTaskName()).isEqualTo(UPDATED_TASK_NAME);
     }
 
+    @Test
+    @Transactional
+    void putTimeEntryWithStaleVersion() throws Exception {
+        // Initialize the database
+        timeEntryRepository.saveAndFlush(timeEntry);
+
+        restTimeEntryMockMvc
+            .perform(get(ENTITY_API_URL_ID, timeEntry.getId()))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, "\"0\""));
+
+        TimeEntry updatedTimeEntry = timeEntryRepository.findById(timeEntry.getId()).get();
+        em.detach(updatedTimeEntry);
+        updatedTimeEntry.date(UPDATED_DATE).minutesWorked(UPDATED_MINUTES_WORKED).taskName(UPDATED_TASK_NAME);
+
+        restTimeEntryMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID, updatedTimeEntry.getId())
+                    .header(HttpHeaders.IF_MATCH, "\"0\"")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(updatedTimeEntry))
+            )
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, "\"1\""));
+
+        // A second write based on the same version has lost the race
+        restTimeEntryMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID, updatedTimeEntry.getId())
+                    .header(HttpHeaders.IF_MATCH, "\"0\"")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(updatedTimeEntry.taskName(DEFAULT_TASK_NAME)))
+            )
+            .andExpect(status().isPreconditionFailed());
+
+        assertThat(timeEntryRepository.findById(timeEntry.getId()).get().getTaskName()).isEqualTo(UPDATED_TASK_NAME);
+    }
+
     @Test
     @Transactional
     void putNonExistingTimeEntry() throws Exception {
@@ -361,6 +763,42 @@ class TimeEntryResourceIT {
         assertThat(testTimeEntry.getTaskName()).isEqualTo(UPDATED_TASK_NAME);
     }
 
+    @Test
+    @Transactional
+    void patchTimeEntryWithStaleVersion() throws Exception {
+        // Initialize the database
+        timeEntryRepository.saveAndFlush(timeEntry);
+
+        TimeEntry partialUpdatedTimeEntry = new TimeEntry();
+        partialUpdatedTimeEntry.setId(timeEntry.getId());
+        partialUpdatedTimeEntry.taskName(UPDATED_TASK_NAME).version(0L);
+
+        restTimeEntryMockMvc
+            .perform(
+                patch(ENTITY_API_URL_ID, partialUpdatedTimeEntry.getId())
+                    .contentType("application/merge-patch+json")
+                    .content(TestUtil.convertObjectToJsonBytes(partialUpdatedTimeEntry))
+            )
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
+            .andExpect(jsonPath("$.taskName").value(UPDATED_TASK_NAME))
+            .andExpect(jsonPath("$.minutesWorked").value(DEFAULT_MINUTES_WORKED))
+            .andExpect(jsonPath("$.version").value(1));
+
+        restTimeEntryMockMvc
+            .perform(
+                patch(ENTITY_API_URL_ID, partialUpdatedTimeEntry.getId())
+                    .header(HttpHeaders.IF_MATCH, "\"0\"")
+                    .contentType("application/merge-patch+json")
+                    .content(TestUtil.convertObjectToJsonBytes(partialUpdatedTimeEntry.taskName(DEFAULT_TASK_NAME)))
+            )
+            .andExpect(status().isPreconditionFailed());
+
+        TimeEntry testTimeEntry = timeEntryRepository.findById(timeEntry.getId()).get();
+        assertThat(testTimeEntry.getTaskName()).isEqualTo(UPDATED_TASK_NAME);
+        assertThat(testTimeEntry.getVersion()).isEqualTo(1L);
+    }
+
     @Test
     @Transactional
     void patchNonExistingTimeEntry() throws Exception {
@@ -436,4 +874,56 @@ class TimeEntryResourceIT {
         List<TimeEntry> timeEntryList = timeEntryRepository.findAll();
         assertThat(timeEntryList).hasSize(databaseSizeBeforeDelete - 1);
     }
+
+    @Test
+    @Transactional
+    void writeArchivedTimeEntry() throws Exception {
+        // Initialize the archive
+        timeEntryRepository.saveAndFlush(timeEntry);
+        timeEntryArchiveService.archiveBefore(YearMonth.from(DEFAULT_DATE).plusMonths(1));
+        // The segments only show once the archiving transaction commits, which tests never do
+        timeEntryArchiveService.load();
+
+        try {
+            restTimeEntryMockMvc.perform(get(ENTITY_API_URL_ID, timeEntry.getId())).andExpect(status().isOk());
+
+            TimeEntry updatedTimeEntry = createUpdatedEntity(em);
+            updatedTimeEntry.setId(timeEntry.getId());
+            restTimeEntryMockMvc
+                .perform(
+                    put(ENTITY_API_URL_ID, timeEntry.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(TestUtil.convertObjectToJsonBytes(updatedTimeEntry))
+                )
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.message").value("error.archived"));
+            restTimeEntryMockMvc
+                .perform(
+                    patch(ENTITY_API_URL_ID, timeEntry.getId())
+                        .contentType("application/merge-patch+json")
+                        .content(TestUtil.convertObjectToJsonBytes(updatedTimeEntry))
+                )
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.message").value("error.archived"));
+            restTimeEntryMockMvc
+                .perform(delete(ENTITY_API_URL_ID, timeEntry.getId()).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.message").value("error.archived"));
+
+            assertThat(timeEntryArchiveService.findViewById(timeEntry.getId()))
+                .hasValueSatisfying(archived -> assertThat(archived.getMinutesWorked()).isEqualTo(DEFAULT_MINUTES_WORKED));
+        } finally {
+            deleteSegments();
+        }
+    }
+
+    private void deleteSegments() throws IOException {
+        Path directory = Paths.get(applicationProperties.getTimeEntryArchive().getDirectory());
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                Files.delete(file);
+            }
+        }
+        timeEntryArchiveService.load();
+    }
 }